@@ -0,0 +1,88 @@
+package org.example.benchmark;
+
+import org.example.TaskApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Repeated requests whose NBP data is already cached, with the serialized response cache off ({@code 0}), where
+ * every request is serialized again, and on, where the cached bytes are copied. {@code notModified} sends the ETag
+ * back and gets 304 without a body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CachedResponseBenchmark {
+    @Param({"0", "16MB"})
+    private String responseCache;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mvc;
+    private String etag;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(TaskApplication.class)
+                .run("--server.port=0", "--nbp.response-cache.maximum-size=" + responseCache, "--logging.level.root=WARN");
+        mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        byte[] tableA = NbpPayloads.tableA("USD", 1);
+        context.getBean(RestTemplate.class).setRequestFactory((uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            MockClientHttpResponse response = new MockClientHttpResponse(tableA, HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.setResponse(response);
+            return request;
+        });
+
+        MvcResult first = detailedRate();
+        etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        if (first.getResponse().getStatus() != 200 || notModified().getResponse().getStatus() != 304) {
+            throw new IllegalStateException("Benchmark requests do not succeed");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult detailedRate() throws Exception {
+        return mvc.perform(get("/api/exchange/USD/2023-04-25?detailed=true")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult notModified() throws Exception {
+        return mvc.perform(get("/api/exchange/USD/2023-04-25?detailed=true").header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.benchmark;
+
+import org.example.TaskApplication;
+import org.example.client.NbpClient;
+import org.example.client.NbpQuery;
+import org.example.dto.MaxAndMinDto;
+import org.example.service.ExchangeRateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Wall-clock time of a window longer than one NBP response, fetched as date-range chunks with a growing number of
+ * chunk threads. Every NBP call answers after {@code latencyMillis}, so the time should fall with parallelism
+ * until it reaches the number of chunks (16 for 1000 quotations).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkedFetchBenchmark {
+    private static final Pattern RANGE = Pattern.compile(".*/rates/A/([A-Z]{3})/(\\d{4}-\\d{2}-\\d{2})/(\\d{4}-\\d{2}-\\d{2})/");
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int parallelism;
+
+    @Param({"1000"})
+    private int quotations;
+
+    @Param({"50"})
+    private long latencyMillis;
+
+    private final Map<Integer, byte[]> payloads = new ConcurrentHashMap<>();
+
+    private ConfigurableApplicationContext context;
+    private NbpClient client;
+    private ExchangeRateService service;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TaskApplication.class)
+                .run("--spring.main.web-application-type=none", "--nbp.cache.maximum-size=0",
+                        "--nbp.chunks.parallelism=" + parallelism, "--logging.level.root=WARN");
+        client = context.getBean(NbpClient.class);
+        service = context.getBean(ExchangeRateService.class);
+
+        context.getBean(RestTemplate.class).setRequestFactory((uri, method) -> new MockClientHttpRequest(method, uri) {
+            @Override
+            protected ClientHttpResponse executeInternal() {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                Matcher matcher = RANGE.matcher(uri.getPath());
+                if (!matcher.matches()) {
+                    return new MockClientHttpResponse(new byte[0], HttpStatus.NOT_FOUND);
+                }
+                int businessDays = businessDays(LocalDate.parse(matcher.group(2)), LocalDate.parse(matcher.group(3)));
+                byte[] body = payloads.computeIfAbsent(businessDays, days -> NbpPayloads.tableA(matcher.group(1), days));
+                MockClientHttpResponse response = new MockClientHttpResponse(body, HttpStatus.OK);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                return response;
+            }
+        });
+
+        if (maxAndMin() == null) {
+            throw new IllegalStateException("Benchmark requests do not succeed");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MaxAndMinDto maxAndMin() {
+        return client.collectRates(NbpQuery.lastQuotations("A", "USD", quotations), MaxAndMinDto.class, service::maxAndMinCollector);
+    }
+
+    private static int businessDays(LocalDate start, LocalDate end) {
+        int days = 0;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days++;
+            }
+        }
+        return days;
+    }
+}
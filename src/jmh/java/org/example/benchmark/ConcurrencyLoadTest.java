@@ -0,0 +1,139 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test: for every concurrency level it keeps that many connections busy against the running
+ * application for a fixed time and reports throughput, errors and latency percentiles. Used to compare how many
+ * concurrent connections the servlet and the reactive stack sustain against a slow upstream
+ * ({@link StubNbpServer}). {@code {n}} in the URL is replaced by a random number of quotations, so responses are
+ * not served from the cache. After each level the application's heap usage and live thread count are read from its
+ * actuator metrics, to compare the memory footprint of platform and virtual threads.
+ * <p>
+ * Arguments: {@code <url> [connections=100,1000,5000] [seconds=30]}
+ */
+public final class ConcurrencyLoadTest {
+    private static final int MAX_LATENCY_MILLIS = 60_000;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ConcurrencyLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: ConcurrencyLoadTest <url> [connections=100,1000,5000] [seconds=30]");
+            return;
+        }
+        String url = args[0];
+        int[] levels = Arrays.stream((args.length > 1 ? args[1] : "100,1000,5000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+
+        System.out.printf("%12s %12s %10s %10s %10s %10s %10s %10s%n",
+                "connections", "requests/s", "errors", "p50 ms", "p99 ms", "max ms", "heap MB", "threads");
+        for (int connections : levels) {
+            run(url, connections, duration);
+        }
+    }
+
+    private static void run(String url, int connections, Duration duration) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+        AtomicLongArray latencies = new AtomicLongArray(MAX_LATENCY_MILLIS + 1);
+        LongAdder completed = new LongAdder();
+        LongAdder errors = new LongAdder();
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        CompletableFuture<?>[] users = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            users[i] = loop(client, url, deadline, latencies, completed, errors);
+        }
+        CompletableFuture.allOf(users).join();
+        String heap = metric(client, url, "jvm.memory.used?tag=area:heap", 1024 * 1024);
+        String threads = metric(client, url, "jvm.threads.live", 1);
+        executor.shutdownNow();
+
+        System.out.printf("%12d %12.1f %10d %10d %10d %10d %10s %10s%n",
+                connections,
+                completed.sum() / (double) duration.toSeconds(),
+                errors.sum(),
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.99),
+                percentile(latencies, 1.0),
+                heap,
+                threads);
+    }
+
+    private static String metric(HttpClient client, String url, String metric, long unit) {
+        URI target = URI.create(url.replace("{n}", "1")).resolve("/actuator/metrics/" + metric);
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(target).GET().build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return "-";
+            }
+            double value = MAPPER.readTree(response.body()).path("measurements").path(0).path("value").asDouble();
+            return Long.toString(Math.round(value / unit));
+        } catch (IOException e) {
+            return "-";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "-";
+        }
+    }
+
+    private static CompletableFuture<Void> loop(HttpClient client, String url, long deadline, AtomicLongArray latencies, LongAdder completed, LongAdder errors) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String target = url.replace("{n}", Integer.toString(ThreadLocalRandom.current().nextInt(1, 256)));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target)).timeout(Duration.ofSeconds(30)).GET().build();
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    if (failure != null || response.statusCode() != 200) {
+                        errors.increment();
+                    } else {
+                        completed.increment();
+                        long millis = Math.min(Duration.ofNanos(System.nanoTime() - start).toMillis(), MAX_LATENCY_MILLIS);
+                        latencies.incrementAndGet((int) millis);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(client, url, deadline, latencies, completed, errors));
+    }
+
+    private static long percentile(AtomicLongArray latencies, double percentile) {
+        long total = 0;
+        for (int i = 0; i < latencies.length(); i++) {
+            total += latencies.get(i);
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < latencies.length(); i++) {
+            seen += latencies.get(i);
+            if (seen >= rank && seen > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
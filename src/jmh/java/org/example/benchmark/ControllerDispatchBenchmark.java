@@ -0,0 +1,85 @@
+package org.example.benchmark;
+
+import org.example.TaskApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * A whole request through MockMvc: controller dispatch, NBP call, parsing, computation and JSON output. The
+ * {@link RestTemplate} answers with generated payloads instead of calling NBP and the response caches are disabled,
+ * so every invocation goes through the full path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerDispatchBenchmark {
+    @Param({"1", "10", "100", "255"})
+    private int quotations;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mvc;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(TaskApplication.class)
+                .run("--server.port=0", "--nbp.cache.maximum-size=0", "--nbp.response-cache.maximum-size=0", "--logging.level.root=WARN");
+        mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        byte[] tableA = NbpPayloads.tableA("USD", quotations);
+        byte[] tableC = NbpPayloads.tableC("USD", quotations);
+        context.getBean(RestTemplate.class).setRequestFactory((uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            MockClientHttpResponse response = new MockClientHttpResponse(uri.getPath().contains("/C/") ? tableC : tableA, HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.setResponse(response);
+            return request;
+        });
+
+        if (maxAndMin().getResponse().getStatus() != 200 || majorDifference().getResponse().getStatus() != 200) {
+            throw new IllegalStateException("Benchmark requests do not succeed");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult maxAndMin() throws Exception {
+        return mvc.perform(get("/api/exchange/USD/max-min?quotations=" + quotations + "&detailed=true")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult majorDifference() throws Exception {
+        return mvc.perform(get("/api/buy-and-sell/USD/difference?quotations=" + quotations + "&detailed=true")).andReturn();
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.example.dto.TableDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding NBP rates responses to {@link TableDto} the way {@code NbpClient.getRates} does (from a String), for both
+ * table types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonMappingBenchmark {
+    @Param({"1", "10", "100", "255"})
+    private int quotations;
+
+    private final ObjectReader reader = new ObjectMapper().readerFor(TableDto.class);
+
+    private String tableA;
+    private String tableC;
+
+    @Setup
+    public void setUp() {
+        tableA = new String(NbpPayloads.tableA("USD", quotations), StandardCharsets.UTF_8);
+        tableC = new String(NbpPayloads.tableC("USD", quotations), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public TableDto readTableA() throws IOException {
+        return reader.readValue(tableA);
+    }
+
+    @Benchmark
+    public TableDto readTableC() throws IOException {
+        return reader.readValue(tableC);
+    }
+}
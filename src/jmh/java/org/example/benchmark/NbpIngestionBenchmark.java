@@ -0,0 +1,79 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.client.NbpRateReader;
+import org.example.dto.DifferenceDto;
+import org.example.dto.MaxAndMinDto;
+import org.example.dto.TableDto;
+import org.example.service.BuyAndSellRateService;
+import org.example.service.ExchangeRateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old ingestion path (whole body as a String, bound to a TableDto, then computed) with reading the
+ * response stream straight into the service collectors. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm}, the bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NbpIngestionBenchmark {
+    @Param({"10", "255"})
+    private int quotations;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final NbpRateReader reader = new NbpRateReader();
+    private final ExchangeRateService exchangeRateService = new ExchangeRateService();
+    private final BuyAndSellRateService buyAndSellRateService = new BuyAndSellRateService();
+
+    private byte[] tableA;
+    private byte[] tableC;
+
+    @Setup
+    public void setUp() {
+        ReflectionTestUtils.setField(reader, "mapper", mapper);
+        tableA = NbpPayloads.tableA("USD", quotations);
+        tableC = NbpPayloads.tableC("USD", quotations);
+    }
+
+    @Benchmark
+    public MaxAndMinDto maxAndMinBuffered() throws IOException {
+        String body = new String(tableA, StandardCharsets.UTF_8);
+        return exchangeRateService.computeMaxAndMinValue(mapper.readValue(body, TableDto.class));
+    }
+
+    @Benchmark
+    public MaxAndMinDto maxAndMinStreaming() throws IOException {
+        return reader.read(new ByteArrayInputStream(tableA), exchangeRateService.maxAndMinCollector());
+    }
+
+    @Benchmark
+    public DifferenceDto differenceBuffered() throws IOException {
+        String body = new String(tableC, StandardCharsets.UTF_8);
+        return buyAndSellRateService.computeMajorDifference(mapper.readValue(body, TableDto.class));
+    }
+
+    @Benchmark
+    public DifferenceDto differenceStreaming() throws IOException {
+        return reader.read(new ByteArrayInputStream(tableC), buyAndSellRateService.majorDifferenceCollector());
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Builds NBP rates responses shaped like the real ones, so benchmarks do not depend on the network.
+ */
+public final class NbpPayloads {
+    private static final LocalDate LAST_DATE = LocalDate.of(2023, 4, 25);
+
+    private NbpPayloads() {
+    }
+
+    public static byte[] tableA(String code, int quotations) {
+        return table("A", code, quotations).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] tableC(String code, int quotations) {
+        return table("C", code, quotations).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String table(String table, String code, int quotations) {
+        Random random = new Random(quotations);
+        LocalDate date = LAST_DATE;
+        for (int i = 1; i < quotations; i++) {
+            date = previousBusinessDay(date);
+        }
+
+        StringBuilder json = new StringBuilder()
+                .append("{\"table\":\"").append(table)
+                .append("\",\"currency\":\"dolar amerykański\",\"code\":\"").append(code)
+                .append("\",\"rates\":[");
+        BigDecimal mid = new BigDecimal("4.4000");
+        for (int i = 0; i < quotations; i++) {
+            mid = mid.add(BigDecimal.valueOf(random.nextInt(401) - 200, 4));
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"no\":\"").append(String.format("%03d", i % 250 + 1)).append('/').append(table)
+                    .append("/NBP/").append(date.getYear())
+                    .append("\",\"effectiveDate\":\"").append(date).append('"');
+            if (table.equals("A")) {
+                json.append(",\"mid\":").append(mid);
+            } else {
+                BigDecimal spread = mid.multiply(new BigDecimal("0.01")).setScale(4, RoundingMode.HALF_UP);
+                json.append(",\"bid\":").append(mid.subtract(spread)).append(",\"ask\":").append(mid.add(spread));
+            }
+            json.append('}');
+            date = nextBusinessDay(date);
+        }
+        return json.append("]}").toString();
+    }
+
+    private static LocalDate previousBusinessDay(LocalDate date) {
+        do {
+            date = date.minusDays(1);
+        } while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY);
+        return date;
+    }
+
+    private static LocalDate nextBusinessDay(LocalDate date) {
+        do {
+            date = date.plusDays(1);
+        } while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY);
+        return date;
+    }
+}
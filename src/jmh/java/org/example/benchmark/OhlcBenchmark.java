@@ -0,0 +1,87 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.TableDto;
+import org.example.rate.FixedPoint;
+import org.example.rate.Interval;
+import org.example.rate.OhlcBar;
+import org.example.rate.RateSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monthly OHLC bars of 5 and 20 years of table A quotations, scanned from the daily quotations of a
+ * {@link RateSeries} and read from its monthly rollup, which only aggregates the periods cut by the range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OhlcBenchmark {
+    @Param({"1260", "5040"})
+    private int quotations;
+
+    private RateSeries series;
+    private int from;
+
+    @Setup
+    public void setUp() throws IOException {
+        TableDto table = new ObjectMapper().readValue(NbpPayloads.tableA("USD", quotations), TableDto.class);
+        series = RateSeriesFootprint.series(table);
+        from = 10;
+    }
+
+    @Benchmark
+    public List<OhlcBar> scanMonthly() {
+        List<OhlcBar> bars = new ArrayList<>();
+        int to = series.size() - 1;
+        int first = from;
+        LocalDate start = Interval.MONTH.start(series.date(first));
+        int high = first;
+        int low = first;
+        long spreadSum = 0;
+        int spreadCount = 0;
+        for (int i = from; i <= to; i++) {
+            LocalDate period = Interval.MONTH.start(series.date(i));
+            if (!period.equals(start)) {
+                bars.add(new OhlcBar(start, first, i - 1, high, low, spreadSum, spreadCount));
+                start = period;
+                first = high = low = i;
+                spreadSum = 0;
+                spreadCount = 0;
+            }
+            long price = series.price(i);
+            high = price > series.price(high) ? i : high;
+            low = price < series.price(low) ? i : low;
+            long spread = series.spread(i);
+            if (spread != FixedPoint.ABSENT) {
+                spreadSum += spread;
+                spreadCount++;
+            }
+        }
+        bars.add(new OhlcBar(start, first, to, high, low, spreadSum, spreadCount));
+        return bars;
+    }
+
+    @Benchmark
+    public OhlcBar[] rollupMonthly() {
+        return series.bars(Interval.MONTH, from, series.size() - 1);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.DifferenceDto;
+import org.example.dto.MaxAndMinDto;
+import org.example.dto.TableDto;
+import org.example.rate.RateWindow;
+import org.example.service.BuyAndSellRateService;
+import org.example.service.ExchangeRateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two computations on already parsed rates: the {@link TableDto} (BigDecimal) implementations and their
+ * fixed-point {@link RateWindow} counterparts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateComputationBenchmark {
+    @Param({"1", "10", "100", "255"})
+    private int quotations;
+
+    private final ExchangeRateService exchangeRateService = new ExchangeRateService();
+    private final BuyAndSellRateService buyAndSellRateService = new BuyAndSellRateService();
+
+    private TableDto tableA;
+    private TableDto tableC;
+    private RateWindow windowA;
+    private RateWindow windowC;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        tableA = mapper.readValue(NbpPayloads.tableA("USD", quotations), TableDto.class);
+        tableC = mapper.readValue(NbpPayloads.tableC("USD", quotations), TableDto.class);
+        windowA = RateWindow.of(tableA);
+        windowC = RateWindow.of(tableC);
+    }
+
+    @Benchmark
+    public MaxAndMinDto maxAndMin() {
+        return exchangeRateService.computeMaxAndMinValue(tableA);
+    }
+
+    @Benchmark
+    public MaxAndMinDto maxAndMinOfWindow() {
+        return exchangeRateService.computeMaxAndMinValueOfWindow(windowA);
+    }
+
+    @Benchmark
+    public DifferenceDto majorDifference() {
+        return buyAndSellRateService.computeMajorDifference(tableC);
+    }
+
+    @Benchmark
+    public DifferenceDto majorDifferenceOfWindow() {
+        return buyAndSellRateService.computeMajorDifferenceOfWindow(windowC);
+    }
+}
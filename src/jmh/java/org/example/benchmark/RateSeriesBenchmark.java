@@ -0,0 +1,95 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.RateDto;
+import org.example.dto.TableDto;
+import org.example.rate.RateSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the quotation of a date in the {@link TableDto} list of rates NBP responses are bound to, by scanning it,
+ * and in a {@link RateSeries}, by binary search. The {@code MaxMid} benchmarks find the highest mid of all
+ * quotations, by scanning each and with the range index of the series.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateSeriesBenchmark {
+    @Param({"255", "5000"})
+    private int quotations;
+
+    private List<RateDto> rates;
+    private RateSeries series;
+    private String date;
+    private LocalDate day;
+
+    @Setup
+    public void setUp() throws IOException {
+        TableDto table = new ObjectMapper().readValue(NbpPayloads.tableA("USD", quotations), TableDto.class);
+        rates = table.getRates();
+        series = RateSeriesFootprint.series(table);
+        date = rates.get(quotations / 3).getEffectiveDate();
+        day = LocalDate.parse(date);
+    }
+
+    @Benchmark
+    public RateDto dtoLookup() {
+        for (RateDto rate : rates) {
+            if (rate.getEffectiveDate().equals(date)) {
+                return rate;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public RateDto seriesLookup() {
+        return series.rate(series.indexOf(day));
+    }
+
+    @Benchmark
+    public RateDto dtoMaxMid() {
+        RateDto max = null;
+        for (int i = 0; i < rates.size(); i++) {
+            RateDto rate = rates.get(i);
+            if (max == null || rate.getMid().compareTo(max.getMid()) > 0) {
+                max = rate;
+            }
+        }
+        return max;
+    }
+
+    @Benchmark
+    public RateDto seriesMaxMid() {
+        int max = 0;
+        for (int i = 1; i < series.size(); i++) {
+            if (series.mid(i) > series.mid(max)) {
+                max = i;
+            }
+        }
+        return series.rate(max);
+    }
+
+    @Benchmark
+    public RateDto indexedMaxMid() {
+        return series.rate(series.maxMidIndex(0, series.size() - 1));
+    }
+}
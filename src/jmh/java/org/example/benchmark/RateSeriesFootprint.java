@@ -0,0 +1,91 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.RateDto;
+import org.example.dto.TableDto;
+import org.example.rate.FixedPoint;
+import org.example.rate.FixedPointRate;
+import org.example.rate.RateSeries;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Retained heap per quotation of the {@link TableDto} rates list and of a {@link RateSeries}, measured as the heap
+ * used after a full GC by many copies of each. The rate store shares the table number of a date between currencies,
+ * which the last measurement repeats. Arguments: quotations per copy and number of copies.
+ */
+public final class RateSeriesFootprint {
+
+    private RateSeriesFootprint() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int quotations = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int copies = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        byte[] payload = NbpPayloads.tableA("USD", quotations);
+        ObjectMapper mapper = new ObjectMapper();
+
+        double dto = bytesPerQuotation(copies, quotations, () -> read(mapper, payload).getRates());
+        double columnar = bytesPerQuotation(copies, quotations, () -> series(read(mapper, payload)));
+        Map<String, String> numbers = new HashMap<>();
+        read(mapper, payload).getRates().forEach(rate -> numbers.put(rate.getNo(), rate.getNo()));
+        double shared = bytesPerQuotation(copies, quotations, () -> {
+            TableDto table = read(mapper, payload);
+            table.getRates().forEach(rate -> rate.setNo(numbers.get(rate.getNo())));
+            return series(table);
+        });
+        System.out.printf("%d quotations x %d copies%n", quotations, copies);
+        System.out.printf("List<RateDto>                      %8.1f bytes per quotation%n", dto);
+        System.out.printf("RateSeries                         %8.1f bytes per quotation%n", columnar);
+        System.out.printf("RateSeries, shared table numbers   %8.1f bytes per quotation%n", shared);
+    }
+
+    static RateSeries series(TableDto table) {
+        RateSeries.Builder builder = RateSeries.builder();
+        for (RateDto source : table.getRates()) {
+            FixedPointRate rate = new FixedPointRate();
+            rate.setNo(source.getNo());
+            rate.setMid(FixedPoint.toScaled(source.getMid()));
+            rate.setMidScale(FixedPoint.scaleOf(source.getMid()));
+            builder.add(LocalDate.parse(source.getEffectiveDate()), rate);
+        }
+        return RateSeries.EMPTY.merge(builder);
+    }
+
+    private static TableDto read(ObjectMapper mapper, byte[] payload) {
+        try {
+            return mapper.readValue(payload, TableDto.class);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double bytesPerQuotation(int copies, int quotations, Supplier<Object> structure) {
+        List<Object> retained = new ArrayList<>(copies);
+        long before = usedAfterGc();
+        for (int i = 0; i < copies; i++) {
+            retained.add(structure.get());
+        }
+        long after = usedAfterGc();
+        if (retained.size() != copies) {
+            throw new IllegalStateException();
+        }
+        return (double) (after - before) / copies / quotations;
+    }
+
+    private static long usedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.benchmark;
+
+import org.example.dto.RateDto;
+import org.example.dto.TableDto;
+import org.example.rate.RateWindow;
+import org.example.store.RateStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reads from a {@link RateStore} holding {@code years} of table A for 33 currencies. {@code coldOpen} replays the
+ * files and answers one date, as after a restart; the other benchmarks read from an open store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateStoreBenchmark {
+    private static final int CURRENCIES = 33;
+
+    @Param({"5", "20"})
+    private int years;
+
+    private Path directory;
+    private RateStore store;
+    private LocalDate latest;
+    private String date;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("nbp-store");
+        latest = LocalDate.of(2023, 4, 24);
+        LocalDate first = latest.minusYears(years);
+        try (RateStore writer = new RateStore(directory)) {
+            writer.open();
+            for (int c = 0; c < CURRENCIES; c++) {
+                List<RateDto> rates = new ArrayList<>();
+                for (LocalDate day = first; !day.isAfter(latest); day = day.plusDays(1)) {
+                    if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                        rates.add(new RateDto(day + "/A/NBP", day.toString(), null, null,
+                                BigDecimal.valueOf(40_000 + c * 100 + day.getDayOfYear(), 4)));
+                    }
+                }
+                writer.ingest(RateWindow.of(new TableDto("A", "waluta " + c, code(c), rates)), first, latest);
+            }
+        }
+        date = latest.minusDays(180).toString();
+        store = new RateStore(directory);
+        store.open();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public TableDto coldOpen() throws IOException {
+        try (RateStore cold = new RateStore(directory)) {
+            cold.open();
+            return cold.get("A", "USD", date);
+        }
+    }
+
+    @Benchmark
+    public TableDto warmDate() {
+        return store.get("A", "USD", date);
+    }
+
+    @Benchmark
+    public RateWindow warmLast255() {
+        return store.collectLast("A", "USD", 255, latest, RateWindow.collector(window -> window));
+    }
+
+    @Benchmark
+    public RateWindow warmLast1000() {
+        return store.collectLast("A", "USD", 1000, latest, RateWindow.collector(window -> window));
+    }
+
+    private static String code(int currency) {
+        return currency == 0 ? "USD" : "C" + (char) ('A' + currency / 26) + (char) ('A' + currency % 26);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.benchmark;
+
+import org.example.TaskApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Invalid requests through MockMvc, rejected by the validation interceptor before dispatch or, with
+ * {@code fastReject=false}, by the controller throwing an exception that the exception handler turns into a 400.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestValidationBenchmark {
+    @Param({"true", "false"})
+    private boolean fastReject;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mvc;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(TaskApplication.class)
+                .run("--server.port=0", "--nbp.validation.fast-reject=" + fastReject, "--logging.level.root=WARN");
+        mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        if (invalidCurrency().getResponse().getStatus() != 400 || invalidDate().getResponse().getStatus() != 400
+                || invalidQuotations().getResponse().getStatus() != 400) {
+            throw new IllegalStateException("Benchmark requests are not rejected");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult invalidCurrency() throws Exception {
+        return mvc.perform(get("/api/exchange/XYZ/2022-09-08")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult invalidDate() throws Exception {
+        return mvc.perform(get("/api/exchange/USD/2022-02-30")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult invalidQuotations() throws Exception {
+        return mvc.perform(get("/api/exchange/USD/max-min?quotations=abc")).andReturn();
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the NBP API for load tests: serves {@link NbpPayloads} for "last N", date range and single date rates after
+ * a fixed delay, without holding a thread while it waits. Point the application at it with
+ * {@code --nbp.api.url=http://localhost:<port>/api/exchangerates/}.
+ * <p>
+ * Arguments: {@code [port=8090] [latencyMillis=200]}
+ */
+public final class StubNbpServer {
+    private static final Pattern RATES = Pattern.compile("/api/exchangerates/rates/([AC])/([A-Z]{3})/(?:last/(\\d+)|\\d{4}-\\d{2}-\\d{2})/");
+    private static final Pattern RANGE = Pattern.compile("/api/exchangerates/rates/([AC])/([A-Z]{3})/(\\d{4}-\\d{2}-\\d{2})/(\\d{4}-\\d{2}-\\d{2})/");
+
+    private static final Map<String, byte[]> PAYLOADS = new ConcurrentHashMap<>();
+
+    private StubNbpServer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8090;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 200;
+
+        ScheduledExecutorService delays = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 4096);
+        server.setExecutor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
+        server.createContext("/", exchange -> delays.schedule(() -> respond(exchange), latency, TimeUnit.MILLISECONDS));
+        server.start();
+        System.out.println("Stub NBP API listening on port " + port + " with " + latency + " ms latency");
+    }
+
+    private static void respond(HttpExchange exchange) {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            Matcher matcher = RATES.matcher(path);
+            int quotations;
+            if (matcher.matches()) {
+                quotations = matcher.group(3) == null ? 1 : Integer.parseInt(matcher.group(3));
+            } else {
+                matcher = RANGE.matcher(path);
+                if (!matcher.matches()) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                quotations = businessDays(LocalDate.parse(matcher.group(3)), LocalDate.parse(matcher.group(4)));
+            }
+            String table = matcher.group(1);
+            String code = matcher.group(2);
+            int size = quotations;
+            byte[] body = PAYLOADS.computeIfAbsent(table + code + size, key -> table.equals("A")
+                    ? NbpPayloads.tableA(code, size)
+                    : NbpPayloads.tableC(code, size));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // client went away, nothing to answer
+        }
+    }
+
+    private static int businessDays(LocalDate start, LocalDate end) {
+        int days = 0;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days++;
+            }
+        }
+        return days;
+    }
+}
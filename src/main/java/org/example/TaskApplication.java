@@ -1,10 +1,12 @@
 package org.example;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cache.NbpPublicationSchedule;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
 
 @SpringBootApplication
 public class TaskApplication {
@@ -19,7 +21,7 @@ public class TaskApplication {
     }
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public Clock clock() {
+        return Clock.system(NbpPublicationSchedule.WARSAW);
     }
 }
@@ -0,0 +1,63 @@
+package org.example.cache;
+
+import org.example.client.NbpCalendar;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Knows when NBP publishes its tables. Table A is published on business days between 11:45 and 12:15,
+ * table C between 7:45 and 8:15 (Warsaw time), so the end of each window is used as the due time. Business days
+ * are those of the {@link NbpCalendar}.
+ */
+@Component
+public class NbpPublicationSchedule {
+    public static final ZoneId WARSAW = ZoneId.of("Europe/Warsaw");
+
+    private static final LocalTime TABLE_A_PUBLICATION = LocalTime.of(12, 15);
+    private static final LocalTime TABLE_C_PUBLICATION = LocalTime.of(8, 15);
+
+    public LocalTime publicationTime(String table) {
+        return switch (table) {
+            case "A" -> TABLE_A_PUBLICATION;
+            case "C" -> TABLE_C_PUBLICATION;
+            default -> throw new IllegalArgumentException("Unknown NBP table " + table);
+        };
+    }
+
+    public boolean isPublicationDay(LocalDate date) {
+        return NbpCalendar.isPublicationDay(date);
+    }
+
+    /**
+     * The newest date whose table is already due at {@code now}.
+     */
+    public LocalDate latestPublicationDate(String table, Instant now) {
+        ZonedDateTime warsawNow = now.atZone(WARSAW);
+        LocalDate date = warsawNow.toLocalDate();
+        if (warsawNow.toLocalTime().isBefore(publicationTime(table))) {
+            date = date.minusDays(1);
+        }
+        while (!isPublicationDay(date)) {
+            date = date.minusDays(1);
+        }
+        return date;
+    }
+
+    public Instant nextPublication(String table, Instant now) {
+        LocalTime publicationTime = publicationTime(table);
+        ZonedDateTime warsawNow = now.atZone(WARSAW);
+        LocalDate date = warsawNow.toLocalDate();
+        if (!warsawNow.toLocalTime().isBefore(publicationTime)) {
+            date = date.plusDays(1);
+        }
+        while (!isPublicationDay(date)) {
+            date = date.plusDays(1);
+        }
+        return date.atTime(publicationTime).atZone(WARSAW).toInstant();
+    }
+}
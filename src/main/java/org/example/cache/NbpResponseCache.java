@@ -0,0 +1,151 @@
+package org.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.example.client.NbpQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Bounded cache of parsed NBP responses, or of results computed from them, keyed by the query and the type of the
+ * cached value. Rates for a given date never change once published, so those entries
+ * only leave the cache on eviction. "Last N" windows move forward with every new table, so they expire when the
+ * next table of their type is due. A maximum size of 0 turns caching off.
+ * <p>
+ * The last value of each window is also kept for {@code nbp.cache.stale-for} after it expires, as a fallback for when
+ * NBP cannot refresh it in time.
+ * <p>
+ * Queries NBP answered with 404 are remembered too, so they are answered without a call: dates before the latest due
+ * table for good, windows until the next table is due. A 404 for the date of the latest due table may only mean the
+ * table is late, so it is remembered for {@code nbp.cache.recheck-missing-after} only.
+ */
+@Component
+public class NbpResponseCache {
+    @Autowired
+    private NbpPublicationSchedule schedule;
+
+    @Autowired
+    private Clock clock;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${nbp.cache.maximum-size}")
+    private long maximumSize;
+
+    @Value("${nbp.cache.stale-for}")
+    private Duration staleFor;
+
+    @Value("${nbp.cache.recheck-missing-after}")
+    private Duration recheckMissingAfter;
+
+    private Cache<Key, Object> cache;
+
+    private Cache<Key, Object> stale;
+
+    private Cache<NbpQuery, Boolean> missing;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PublicationExpiry<Key, Object>(schedule, clock, Key::query))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "nbp.responses");
+        stale = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PublicationExpiry<Key, Object>(schedule, clock, Key::query, staleFor))
+                .build();
+        PublicationExpiry<NbpQuery, Boolean> untilPublished = new PublicationExpiry<>(schedule, clock, query -> query);
+        missing = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<NbpQuery, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(NbpQuery query, Boolean isFinal, long currentTime) {
+                        return isFinal ? untilPublished.expireAfterCreate(query, isFinal, currentTime) : recheckMissingAfter.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(NbpQuery query, Boolean isFinal, long currentTime, long currentDuration) {
+                        return expireAfterCreate(query, isFinal, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(NbpQuery query, Boolean isFinal, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, missing, "nbp.responses.missing");
+    }
+
+    public <T> T getIfPresent(NbpQuery query, Class<T> type) {
+        if (maximumSize == 0) {
+            return null;
+        }
+        return type.cast(cache.getIfPresent(new Key(query, type)));
+    }
+
+    /**
+     * The last value cached for a "last N" window, even if it has expired since.
+     */
+    public <T> T getStale(NbpQuery query, Class<T> type) {
+        if (maximumSize == 0 || !query.isLastQuotations()) {
+            return null;
+        }
+        return type.cast(stale.getIfPresent(new Key(query, type)));
+    }
+
+    public <T> void put(NbpQuery query, Class<T> type, T value) {
+        if (maximumSize > 0) {
+            cache.put(new Key(query, type), value);
+            if (query.isLastQuotations()) {
+                stale.put(new Key(query, type), value);
+            }
+        }
+    }
+
+    /**
+     * Whether NBP has no data for {@code query}, as recorded by {@link #putMissing}.
+     */
+    public boolean isMissing(NbpQuery query) {
+        return maximumSize > 0 && missing.getIfPresent(query) != null;
+    }
+
+    /**
+     * Remembers that NBP has no data for {@code query}, with the expiry of a response if {@code isFinal}, otherwise
+     * for {@code nbp.cache.recheck-missing-after}.
+     */
+    public void putMissing(NbpQuery query, boolean isFinal) {
+        if (maximumSize > 0) {
+            missing.put(query, isFinal);
+        }
+    }
+
+    /**
+     * Drops every cached, stale and missing entry.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        stale.invalidateAll();
+        missing.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private record Key(NbpQuery query, Class<?> type) {
+    }
+}
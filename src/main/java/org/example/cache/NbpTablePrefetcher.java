@@ -0,0 +1,177 @@
+package org.example.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.client.NbpClient;
+import org.example.client.NbpTable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads each new NBP table into the cache shortly after it is due, so the first users after a publication do not
+ * all wait for NBP at once. A table that is not published yet is polled again with exponential backoff; after
+ * {@code nbp.prefetch.max-attempts} the prefetcher waits for the next publication.
+ * <p>
+ * The age of the latest loaded table, counted from its due time, is published as the
+ * {@code nbp.prefetch.table.age} gauge and every attempt is counted in {@code nbp.prefetch.attempts}.
+ */
+@Component
+@ConditionalOnProperty(name = "nbp.prefetch.enabled", havingValue = "true")
+public class NbpTablePrefetcher {
+    @Autowired
+    private NbpClient nbpClient;
+
+    @Autowired
+    private NbpPublicationSchedule schedule;
+
+    @Autowired
+    private Clock clock;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${nbp.prefetch.tables}")
+    private List<String> tables;
+
+    @Value("${nbp.prefetch.delay}")
+    private Duration delay;
+
+    @Value("${nbp.prefetch.initial-backoff}")
+    private Duration initialBackoff;
+
+    @Value("${nbp.prefetch.max-backoff}")
+    private Duration maxBackoff;
+
+    @Value("${nbp.prefetch.max-attempts}")
+    private int maxAttempts;
+
+    private final Map<String, TableState> states = new ConcurrentHashMap<>();
+
+    private ThreadPoolTaskScheduler scheduler;
+
+    @PostConstruct
+    void start() {
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("nbp-prefetch-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        for (String table : tables) {
+            scheduleAt(table, firstRun(table));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Today's table is loaded right away when it is already due, otherwise the first run waits for the next
+     * publication.
+     */
+    public Instant firstRun(String table) {
+        Instant now = clock.instant();
+        LocalDate today = now.atZone(NbpPublicationSchedule.WARSAW).toLocalDate();
+        Instant due = dueTime(table, today);
+        if (schedule.isPublicationDay(today) && !now.isBefore(due)) {
+            return now;
+        }
+        return schedule.nextPublication(table, now).plus(delay);
+    }
+
+    /**
+     * Makes one attempt to load today's table and returns when the next one should run.
+     */
+    public Instant prefetch(String table) {
+        TableState state = state(table);
+        Instant now = clock.instant();
+        LocalDate today = now.atZone(NbpPublicationSchedule.WARSAW).toLocalDate();
+        try {
+            NbpTable loaded = nbpClient.prefetchTable(table, today.toString());
+            state.latest = dueTime(table, LocalDate.parse(loaded.getEffectiveDate()));
+            state.failures = 0;
+            state.loaded.increment();
+            return schedule.nextPublication(table, now).plus(delay);
+        } catch (HttpClientErrorException.NotFound e) {
+            state.notPublished.increment();
+        } catch (RuntimeException e) {
+            state.failed.increment();
+        }
+
+        state.failures++;
+        if (state.failures >= maxAttempts) {
+            state.failures = 0;
+            return schedule.nextPublication(table, now).plus(delay);
+        }
+        return now.plus(backoff(state.failures));
+    }
+
+    private Duration backoff(int failures) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(failures - 1, 30));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private Instant dueTime(String table, LocalDate date) {
+        return date.atTime(schedule.publicationTime(table)).atZone(NbpPublicationSchedule.WARSAW).toInstant();
+    }
+
+    private void scheduleAt(String table, Instant time) {
+        scheduler.schedule(() -> scheduleAt(table, prefetch(table)), time);
+    }
+
+    private TableState state(String table) {
+        return states.computeIfAbsent(table, this::register);
+    }
+
+    private TableState register(String table) {
+        TableState state = new TableState(attempts(table, "loaded"), attempts(table, "not_published"), attempts(table, "error"));
+        Gauge.builder("nbp.prefetch.table.age", state, s -> s.age(clock.instant()))
+                .description("Time since the latest prefetched NBP table was due")
+                .baseUnit("seconds")
+                .tag("table", table)
+                .register(meterRegistry);
+        return state;
+    }
+
+    private Counter attempts(String table, String outcome) {
+        return Counter.builder("nbp.prefetch.attempts")
+                .description("NBP table prefetch attempts by outcome")
+                .tag("table", table)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static class TableState {
+        private final Counter loaded;
+        private final Counter notPublished;
+        private final Counter failed;
+        private volatile Instant latest;
+        private int failures;
+
+        TableState(Counter loaded, Counter notPublished, Counter failed) {
+            this.loaded = loaded;
+            this.notPublished = notPublished;
+            this.failed = failed;
+        }
+
+        double age(Instant now) {
+            Instant latest = this.latest;
+            return latest == null ? Double.NaN : Duration.between(latest, now).toMillis() / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.example.client.NbpQuery;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Expires entries for "last N" windows when the next table of their type is due, or {@code retention} after that.
+ * Entries for a given date never expire.
+ */
+class PublicationExpiry<K, V> implements Expiry<K, V> {
+    private final NbpPublicationSchedule schedule;
+    private final Clock clock;
+    private final Function<K, NbpQuery> query;
+    private final Duration retention;
+
+    PublicationExpiry(NbpPublicationSchedule schedule, Clock clock, Function<K, NbpQuery> query) {
+        this(schedule, clock, query, Duration.ZERO);
+    }
+
+    PublicationExpiry(NbpPublicationSchedule schedule, Clock clock, Function<K, NbpQuery> query, Duration retention) {
+        this.schedule = schedule;
+        this.clock = clock;
+        this.query = query;
+        this.retention = retention;
+    }
+
+    @Override
+    public long expireAfterCreate(K key, V value, long currentTime) {
+        NbpQuery query = this.query.apply(key);
+        if (!query.isLastQuotations()) {
+            return Long.MAX_VALUE;
+        }
+        Instant now = clock.instant();
+        return Duration.between(now, schedule.nextPublication(query.getTable(), now)).plus(retention).toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -0,0 +1,233 @@
+package org.example.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.example.client.NbpQuery;
+import org.example.metrics.Stage;
+import org.example.metrics.StageTimings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bounded cache of serialized API responses, so a repeated request gets a copy of the bytes sent the first time
+ * instead of being computed and serialized again. Entries are keyed by the NBP query and whether the response is
+ * detailed, expire like those of {@link NbpResponseCache} and are weighed by their size in bytes. A maximum size of
+ * 0 turns caching off. Responses built from stale data are not cached, so the next request picks up the refresh.
+ * <p>
+ * Every response carries a strong ETag made of the table numbers of the quotations it shows, which are all its body
+ * depends on, so a client sending it back in {@code If-None-Match} gets 304 Not Modified. With
+ * {@code nbp.response-cache.gzip} a gzipped copy is kept too, for clients that accept it, when it is smaller; for
+ * bodies of less than about 150 bytes, as most short responses are, the gzip header outweighs the savings.
+ */
+@Component
+public class ResponseBytesCache {
+    @Autowired
+    private NbpPublicationSchedule schedule;
+
+    @Autowired
+    private Clock clock;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Value("${nbp.response-cache.maximum-size}")
+    private DataSize maximumSize;
+
+    @Value("${nbp.response-cache.gzip}")
+    private boolean gzip;
+
+    private Cache<Key, Entry> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((Key key, Entry entry) -> entry.weight())
+                .expireAfter(new PublicationExpiry<Key, Entry>(schedule, clock, Key::query))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "nbp.response-bytes");
+    }
+
+    /**
+     * The cached response for {@code query}, or the one rendered by {@code body}, gzipped when
+     * {@code acceptEncoding} allows it and a gzipped copy is kept.
+     */
+    public ResponseEntity<byte[]> respond(NbpQuery query, boolean detailed, @Nullable String acceptEncoding, Supplier<Body> body) {
+        Key key = new Key(query, detailed);
+        Entry entry = maximumSize.toBytes() == 0 ? null : cache.getIfPresent(key);
+        if (entry != null) {
+            StageTimings.lookup(query.getTable());
+            StageTimings.markCacheHit();
+        } else {
+            entry = serialize(body.get());
+            if (maximumSize.toBytes() > 0 && !StageTimings.servedStale()) {
+                cache.put(key, entry);
+            }
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(entry.contentType());
+        if (entry.gzipped() == null) {
+            return response.eTag(entry.etag()).body(entry.body());
+        }
+        response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.eTag(entry.etag() + "-gzip").header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzipped());
+        }
+        return response.eTag(entry.etag()).body(entry.body());
+    }
+
+    /**
+     * Drops every cached response.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public static Body json(Object value, String... tableNumbers) {
+        return new Body(value, MediaType.APPLICATION_JSON, List.of(tableNumbers));
+    }
+
+    public static Body text(String value, String... tableNumbers) {
+        return new Body(value, new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8), List.of(tableNumbers));
+    }
+
+    private Entry serialize(Body body) {
+        long started = System.nanoTime();
+        byte[] bytes;
+        if (body.value() instanceof String text && MediaType.TEXT_PLAIN.includes(body.contentType())) {
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+        } else {
+            try {
+                bytes = mapper.writeValueAsBytes(body.value());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException();
+            }
+        }
+        byte[] gzipped = gzip ? gzip(bytes) : null;
+        if (gzipped != null && gzipped.length >= bytes.length) {
+            gzipped = null;
+        }
+        StageTimings.record(Stage.SERIALIZATION, started);
+        return new Entry(bytes, gzipped, body.contentType(), String.join(",", body.tableNumbers()));
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Whether {@code gzip} is listed in {@code Accept-Encoding} without {@code q=0}. Scanned in place, as it is read
+     * on every cached response.
+     */
+    private static boolean acceptsGzip(@Nullable String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        int length = acceptEncoding.length();
+        int start = 0;
+        while (start < length) {
+            int end = acceptEncoding.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int params = acceptEncoding.indexOf(';', start);
+            int nameEnd = params >= 0 && params < end ? params : end;
+            if (isToken(acceptEncoding, start, nameEnd, "gzip")) {
+                return nameEnd == end || !isZeroQuality(acceptEncoding, nameEnd + 1, end);
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private static boolean isToken(String value, int from, int to, String token) {
+        while (from < to && isBlank(value.charAt(from))) {
+            from++;
+        }
+        while (to > from && isBlank(value.charAt(to - 1))) {
+            to--;
+        }
+        return to - from == token.length() && value.regionMatches(true, from, token, 0, token.length());
+    }
+
+    /**
+     * Whether the first parameter between {@code from} and {@code to} is {@code q=0}, with up to three zero decimals.
+     */
+    private static boolean isZeroQuality(String value, int from, int to) {
+        int next = value.indexOf(';', from);
+        if (next >= 0 && next < to) {
+            to = next;
+        }
+        while (from < to && isBlank(value.charAt(from))) {
+            from++;
+        }
+        while (to > from && isBlank(value.charAt(to - 1))) {
+            to--;
+        }
+        if (to - from < 3 || value.charAt(from) != 'q' || value.charAt(from + 1) != '=' || value.charAt(from + 2) != '0') {
+            return false;
+        }
+        int i = from + 3;
+        if (i == to) {
+            return true;
+        }
+        if (value.charAt(i) != '.' || to - i > 4) {
+            return false;
+        }
+        for (i++; i < to; i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * A response body, with the table numbers of the quotations it shows.
+     */
+    public record Body(Object value, MediaType contentType, List<String> tableNumbers) {
+    }
+
+    private record Key(NbpQuery query, boolean detailed) {
+    }
+
+    private record Entry(byte[] body, @Nullable byte[] gzipped, MediaType contentType, String etag) {
+        int weight() {
+            return body.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Stops calling NBP after {@code nbp.breaker.failure-threshold} failures in a row, so requests fail fast, or are
+ * served stale data, instead of waiting on an upstream that is down. A failure is a 5xx response, an I/O error or
+ * a call slower than {@code nbp.upstream.latency-budget}; a 4xx response means NBP is up. After
+ * {@code nbp.breaker.open-duration} a single trial call is let through: it closes the breaker if it succeeds and
+ * opens it again if it fails.
+ */
+@Component
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Autowired
+    private Clock clock;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${nbp.breaker.failure-threshold}")
+    private int failureThreshold;
+
+    @Value("${nbp.breaker.open-duration}")
+    private Duration openDuration;
+
+    @Value("${nbp.upstream.latency-budget}")
+    private Duration latencyBudget;
+
+    private volatile State state = State.CLOSED;
+    private int failures;
+    private Instant openedAt;
+    private boolean trialInFlight;
+
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+
+    @PostConstruct
+    void init() {
+        for (State target : State.values()) {
+            transitions.put(target, meterRegistry.counter("nbp.breaker.transitions", "state", tag(target)));
+            Gauge.builder("nbp.breaker.state", this, breaker -> breaker.state == target ? 1 : 0)
+                    .tag("state", tag(target))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Whether a call would be let through now, without claiming the trial call of a half-open breaker.
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> !clock.instant().isBefore(openedAt.plus(openDuration));
+            case HALF_OPEN -> !trialInFlight;
+        };
+    }
+
+    public <T> T call(Supplier<T> call) {
+        acquire();
+        long started = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (HttpServerErrorException | ResourceAccessException e) {
+            onFailure();
+            throw e;
+        } catch (RuntimeException | Error e) {
+            onSuccess();
+            throw e;
+        }
+        if (System.nanoTime() - started > latencyBudget.toNanos()) {
+            onFailure();
+        } else {
+            onSuccess();
+        }
+        return result;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Closes the breaker and forgets earlier failures.
+     */
+    public synchronized void reset() {
+        failures = 0;
+        trialInFlight = false;
+        transition(State.CLOSED);
+    }
+
+    private void acquire() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return;
+            }
+            if (!isCallPermitted()) {
+                throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "NBP API unavailable",
+                        HttpHeaders.EMPTY, null, null);
+            }
+            transition(State.HALF_OPEN);
+            trialInFlight = true;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        failures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            transition(State.CLOSED);
+        }
+    }
+
+    private synchronized void onFailure() {
+        failures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || state == State.CLOSED && failures >= failureThreshold) {
+            openedAt = clock.instant();
+            transition(State.OPEN);
+        }
+    }
+
+    private void transition(State target) {
+        if (state != target) {
+            state = target;
+            transitions.get(target).increment();
+        }
+    }
+
+    private static String tag(State state) {
+        return state.name().toLowerCase();
+    }
+}
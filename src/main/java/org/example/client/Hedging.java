@@ -0,0 +1,230 @@
+package org.example.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Hedges NBP calls: when a call has not answered within the {@code nbp.hedge.percentile} of the latest
+ * {@value #SAMPLES} call latencies (but at least {@code nbp.hedge.min-delay}), an identical second call is sent and
+ * whichever answers first wins. The loser is left to finish on its own, as a blocking HTTP call cannot be cancelled.
+ * Only answered calls count as latencies.
+ * <p>
+ * Every call earns {@code nbp.hedge.budget} of a hedge and a hedge spends one, with at most {@value #MAX_TOKENS}
+ * saved up, so in the long run hedges add at most that fraction to the calls made to NBP. Nothing is hedged until
+ * {@value #MIN_SAMPLES} latencies are known. An attempt that returns {@code null} has lost the race, e.g. a streamed
+ * call whose response was already claimed by the other one.
+ * <p>
+ * When every thread of the bounded {@code nbpHedgeExecutor} is busy, a call runs on the caller's thread without a
+ * hedge, and a hedge is not sent and counts as throttled.
+ * <p>
+ * With {@code nbp.hedge.enabled=false} calls run on the caller's thread, as if there was no hedging.
+ */
+@Component
+public class Hedging {
+    static final int SAMPLES = 256;
+    static final int MIN_SAMPLES = 20;
+    static final int MAX_TOKENS = 10;
+    private static final int RECOMPUTE_EVERY = 16;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nullable
+    @Autowired(required = false)
+    @Qualifier("nbpHedgeExecutor")
+    private ExecutorService executor;
+
+    @Value("${nbp.hedge.enabled}")
+    private boolean enabled;
+
+    @Value("${nbp.hedge.percentile}")
+    private double percentile;
+
+    @Value("${nbp.hedge.min-delay}")
+    private Duration minDelay;
+
+    @Value("${nbp.hedge.budget}")
+    private double budget;
+
+    private final long[] latencies = new long[SAMPLES];
+    private long recorded;
+    private volatile long delayNanos = -1;
+    private double tokens;
+
+    private Counter calls;
+    private Counter hedged;
+    private Counter wins;
+    private Counter throttled;
+
+    @PostConstruct
+    void init() {
+        calls = meterRegistry.counter("nbp.hedge.calls");
+        hedged = meterRegistry.counter("nbp.hedge.sent");
+        wins = meterRegistry.counter("nbp.hedge.wins");
+        throttled = meterRegistry.counter("nbp.hedge.throttled");
+        TimeGauge.builder("nbp.hedge.delay", this, TimeUnit.NANOSECONDS, hedging -> Math.max(hedging.delayNanos, 0))
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> T call(Supplier<T> attempt) {
+        if (!enabled) {
+            return attempt.get();
+        }
+        calls.increment();
+        earnToken();
+        CompletableFuture<T> primary = submit(attempt);
+        if (primary == null) {
+            return attempt.get();
+        }
+        long delay = delayNanos;
+        if (delay < 0) {
+            return await(primary);
+        }
+        try {
+            return primary.get(delay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // too slow, hedge below
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        if (!spendToken()) {
+            throttled.increment();
+            return await(primary);
+        }
+        CompletableFuture<T> hedge = submit(attempt);
+        if (hedge == null) {
+            throttled.increment();
+            return await(primary);
+        }
+        hedged.increment();
+        return await(first(primary, hedge));
+    }
+
+    /**
+     * The hedge delay in force, or a negative value while too few latencies are known.
+     */
+    public Duration getDelay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    /**
+     * Runs the attempt on the hedge executor, or returns {@code null} when all its threads are busy.
+     */
+    @Nullable
+    private <T> CompletableFuture<T> submit(Supplier<T> attempt) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long started = System.nanoTime();
+                T result = attempt.get();
+                if (result != null) {
+                    record(System.nanoTime() - started);
+                }
+                return result;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Completes with the first non-null result, or once both attempts are done without one, with the first
+     * failure, if any.
+     */
+    private <T> CompletableFuture<T> first(CompletableFuture<T> primary, CompletableFuture<T> hedge) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        primary.whenComplete((value, error) -> settle(winner, pending, failure, value, error, false));
+        hedge.whenComplete((value, error) -> settle(winner, pending, failure, value, error, true));
+        return winner;
+    }
+
+    private <T> void settle(CompletableFuture<T> winner, AtomicInteger pending, AtomicReference<Throwable> failure,
+                            T value, Throwable error, boolean fromHedge) {
+        if (error == null && value != null) {
+            if (winner.complete(value) && fromHedge) {
+                wins.increment();
+            }
+            return;
+        }
+        if (error != null) {
+            failure.compareAndSet(null, error);
+        }
+        if (pending.decrementAndGet() == 0) {
+            if (failure.get() != null) {
+                winner.completeExceptionally(failure.get());
+            } else {
+                winner.complete(null);
+            }
+        }
+    }
+
+    private synchronized void earnToken() {
+        tokens = Math.min(MAX_TOKENS, tokens + budget);
+    }
+
+    private synchronized boolean spendToken() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    private synchronized void record(long nanos) {
+        latencies[(int) (recorded++ % SAMPLES)] = nanos;
+        if (recorded >= MIN_SAMPLES && (recorded == MIN_SAMPLES || recorded % RECOMPUTE_EVERY == 0)) {
+            long[] sorted = Arrays.copyOf(latencies, (int) Math.min(recorded, SAMPLES));
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            delayNanos = Math.max(sorted[Math.max(index, 0)], minDelay.toNanos());
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+}
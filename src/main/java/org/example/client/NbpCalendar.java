@@ -0,0 +1,92 @@
+package org.example.client;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+
+/**
+ * Days on which NBP publishes its tables: business days from {@link #FIRST_PUBLICATION}, the oldest date the API
+ * serves, except Polish public holidays. Movable holidays are derived from the date of Easter, so the calendar needs
+ * no data files and covers any year.
+ */
+public final class NbpCalendar {
+    public static final LocalDate FIRST_PUBLICATION = LocalDate.of(2002, 1, 2);
+
+    private static final LocalDate INDEPENDENCE_CENTENARY = LocalDate.of(2018, 11, 12);
+
+    private NbpCalendar() {
+    }
+
+    public static boolean isPublicationDay(LocalDate date) {
+        DayOfWeek day = date.getDayOfWeek();
+        return day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY
+                && !date.isBefore(FIRST_PUBLICATION) && !isHoliday(date);
+    }
+
+    /**
+     * The newest publication day on or before {@code date}, or {@code null} before {@link #FIRST_PUBLICATION}.
+     */
+    public static LocalDate onOrBefore(LocalDate date) {
+        LocalDate day = date;
+        while (!day.isBefore(FIRST_PUBLICATION)) {
+            if (isPublicationDay(day)) {
+                return day;
+            }
+            day = day.minusDays(1);
+        }
+        return null;
+    }
+
+    public static LocalDate nextPublicationDay(LocalDate date) {
+        LocalDate next = date.plusDays(1);
+        while (!isPublicationDay(next)) {
+            next = next.plusDays(1);
+        }
+        return next;
+    }
+
+    /**
+     * Public holidays that can fall on a weekday, under the Polish act on non-working days.
+     */
+    public static boolean isHoliday(LocalDate date) {
+        int year = date.getYear();
+        int day = date.getDayOfMonth();
+        boolean fixed = switch (date.getMonth()) {
+            case JANUARY -> day == 1 || day == 6 && year >= 2011;
+            case MAY -> day == 1 || day == 3;
+            case AUGUST -> day == 15;
+            case NOVEMBER -> day == 1 || day == 11;
+            case DECEMBER -> day == 24 && year >= 2025 || day == 25 || day == 26;
+            default -> false;
+        };
+        if (fixed || date.equals(INDEPENDENCE_CENTENARY)) {
+            return true;
+        }
+        if (date.getMonth().compareTo(Month.MARCH) < 0 || date.getMonth().compareTo(Month.JUNE) > 0) {
+            return false;
+        }
+        LocalDate easter = easter(year);
+        return date.equals(easter.plusDays(1)) || date.equals(easter.plusDays(60));
+    }
+
+    /**
+     * Easter Sunday of the Gregorian calendar (anonymous Gregorian algorithm).
+     */
+    static LocalDate easter(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+}
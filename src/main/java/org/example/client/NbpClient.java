@@ -0,0 +1,641 @@
+package org.example.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.cache.NbpPublicationSchedule;
+import org.example.cache.NbpResponseCache;
+import org.example.dto.ExchangeTableDto;
+import org.example.dto.TableDto;
+import org.example.jfr.NbpCallEvent;
+import org.example.metrics.Stage;
+import org.example.metrics.StageTimings;
+import org.example.rate.FixedPointRate;
+import org.example.rate.RateSeries;
+import org.example.rate.RateWindow;
+import org.example.rate.SeriesRange;
+import org.example.service.RateCollector;
+import org.example.store.RateStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+@Component
+public class NbpClient {
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private NbpRateReader reader;
+
+    @Autowired
+    private NbpResponseCache cache;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private Clock clock;
+
+    @Autowired
+    private NbpPublicationSchedule schedule;
+
+    @Autowired(required = false)
+    @Nullable
+    private RateStore store;
+
+    @Autowired
+    private CircuitBreaker breaker;
+
+    @Autowired
+    private Hedging hedging;
+
+    @Autowired
+    private TableBatcher batcher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("nbpChunkExecutor")
+    private ExecutorService chunkExecutor;
+
+    @Autowired
+    @Qualifier("nbpRefreshExecutor")
+    private ExecutorService refreshExecutor;
+
+    @Value("${nbp.api.url}")
+    private String apiUrl;
+
+    @Value("${nbp.table-fetch.enabled}")
+    private boolean tableFetch;
+
+    @Value("${nbp.upstream.latency-budget}")
+    private Duration latencyBudget;
+
+    /**
+     * Rates of one currency. With {@code nbp.table-fetch.enabled} a single date is answered from the whole table of
+     * that date, so other currencies for the same date do not need another call. With {@code nbp.batch.enabled} only
+     * dates looked up for several currencies at about the same time are, see {@link TableBatcher}.
+     */
+    public TableDto getRates(NbpQuery query) {
+        if (tableFetch && !query.isLastQuotations()) {
+            TableDto rates = getTable(query.getTable(), query.getDate()).get(query.getCurrency());
+            if (rates == null) {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            }
+            return rates;
+        }
+        if (!query.isLastQuotations() && batcher.isEnabled()) {
+            return cached(query, TableDto.class,
+                    () -> batcher.get(query, () -> load(query), () -> getTable(query.getTable(), query.getDate())));
+        }
+        return cached(query, TableDto.class, () -> load(query));
+    }
+
+    public NbpTable getTable(String table, String date) {
+        NbpQuery query = NbpQuery.wholeTable(table, date);
+        return cached(query, NbpTable.class, () -> loadTable(query));
+    }
+
+    /**
+     * Loads the table of a date and caches every currency in it as that currency's single-date response too, so
+     * those are served from cache whether or not table-fetch mode is on.
+     */
+    public NbpTable prefetchTable(String table, String date) {
+        NbpTable rates = getTable(table, date);
+        for (TableDto currency : rates.values()) {
+            cache.put(NbpQuery.forDate(table, currency.getCode(), date), TableDto.class, currency);
+        }
+        return rates;
+    }
+
+    /**
+     * Streams the quotations of {@code query} into a new collector and caches the result. A "last N" window longer
+     * than one NBP response is fetched as parallel date-range chunks instead.
+     */
+    public <R> R collectRates(NbpQuery query, Class<R> resultType, Supplier<RateCollector<R>> collector) {
+        if (query.isLastQuotations() && query.getQuotations() > NbpQuery.MAX_QUOTATIONS_PER_REQUEST) {
+            return cached(query, resultType, () -> collectChunks(query, collector.get()));
+        }
+        return cached(query, resultType, () -> collect(query, collector.get()));
+    }
+
+    /**
+     * The quotations of a currency published from {@code from} to {@code to}. With a {@link RateStore} only the gaps
+     * in what it holds are fetched and the result is a range of the stored series, whose rollups answer long periods
+     * without a scan; without one the whole period is fetched, in parallel date ranges, on every call.
+     */
+    public SeriesRange getRange(String table, String currency, LocalDate from, LocalDate to) {
+        StageTimings.lookup(table);
+        LocalDate latest = schedule.latestPublicationDate(table, clock.instant());
+        LocalDate end = to.isAfter(latest) ? latest : to;
+        if (end.isBefore(from)) {
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }
+        Map<LocalDate, LocalDate> missing = store == null ? Map.of(from, end) : store.missing(table, currency, from, end);
+        if (missing.isEmpty()) {
+            StageTimings.markCacheHit();
+        }
+
+        long started = System.nanoTime();
+        List<NbpQuery> ranges = new ArrayList<>();
+        List<Future<RateWindow>> fetched = new ArrayList<>();
+        for (Map.Entry<LocalDate, LocalDate> gap : missing.entrySet()) {
+            for (LocalDate start = gap.getKey(); !start.isAfter(gap.getValue()); start = start.plusDays(NbpQuery.MAX_RANGE_DAYS)) {
+                LocalDate last = start.plusDays(NbpQuery.MAX_RANGE_DAYS - 1);
+                NbpQuery range = NbpQuery.forRange(table, currency, start.toString(),
+                        (last.isAfter(gap.getValue()) ? gap.getValue() : last).toString());
+                ranges.add(range);
+                fetched.add(chunkExecutor.submit(() -> fetchRange(range)));
+            }
+        }
+        RateSeries.Builder quotes = RateSeries.builder();
+        RateWindow named = null;
+        for (int i = 0; i < fetched.size(); i++) {
+            RateWindow window = await(fetched.get(i));
+            if (window == null || window.getSize() == 0) {
+                continue;
+            }
+            named = window;
+            if (store != null) {
+                storeRange(ranges.get(i), window, latest);
+            } else {
+                FixedPointRate rate = new FixedPointRate();
+                for (int j = 0; j < window.getSize(); j++) {
+                    window.copyTo(j, rate);
+                    quotes.add(LocalDate.parse(rate.getEffectiveDate()), rate);
+                }
+            }
+        }
+        if (!fetched.isEmpty()) {
+            StageTimings.record(Stage.UPSTREAM, started);
+        }
+
+        SeriesRange range = store != null ? store.range(table, currency, from, end)
+                : named == null ? null : SeriesRange.between(table, named.getCurrency(), named.getCode(),
+                RateSeries.EMPTY.merge(quotes), from, end);
+        if (range == null) {
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }
+        return range;
+    }
+
+    private <T> T cached(NbpQuery query, Class<T> type, Supplier<T> upstream) {
+        StageTimings.lookup(query.getTable());
+        T cached = cache.getIfPresent(query, type);
+        if (cached != null) {
+            StageTimings.markCacheHit();
+            return cached;
+        }
+        String noData = !isPublished(query) ? "calendar" : cache.isMissing(query) ? "negative_cache" : null;
+        if (noData != null) {
+            StageTimings.markCacheHit();
+            meterRegistry.counter("nbp.responses.no-data", "reason", noData).increment();
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }
+        Supplier<T> load = () -> singleFlight.execute(query.toUrl(apiUrl) + "#" + type.getName(), () -> {
+            T value;
+            try {
+                value = upstream.get();
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                    rememberMissing(query);
+                }
+                throw e;
+            }
+            if (value == null) {
+                throw new IllegalStateException();
+            }
+            cache.put(query, type, value);
+            return value;
+        });
+        T stale = cache.getStale(query, type);
+        if (stale == null) {
+            return load.get();
+        }
+        return revalidate(query, type, stale, load);
+    }
+
+    /**
+     * Refreshes an expired window, but serves its last value, marked as stale, while the {@link CircuitBreaker} is
+     * open, when NBP fails, or when it does not answer within {@code nbp.upstream.latency-budget}. In the last case
+     * the refresh goes on in the background and caches its result for later requests.
+     */
+    private <T> T revalidate(NbpQuery query, Class<T> type, T stale, Supplier<T> load) {
+        if (!breaker.isCallPermitted()) {
+            return serveStale(stale, "breaker_open");
+        }
+        long started = System.nanoTime();
+        Future<T> refresh = refreshExecutor.submit(() -> {
+            T fresh = cache.getIfPresent(query, type);
+            return fresh != null ? fresh : load.get();
+        });
+        try {
+            return refresh.get(latencyBudget.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return serveStale(stale, "timeout");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof HttpServerErrorException || e.getCause() instanceof ResourceAccessException) {
+                return serveStale(stale, "error");
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            StageTimings.record(Stage.UPSTREAM, started);
+        }
+    }
+
+    /**
+     * Whether NBP can have a table for the date of a single-date query: a publication day of the {@link NbpCalendar}
+     * that is not in the future. Dates that do not parse are left for NBP to reject.
+     */
+    private boolean isPublished(NbpQuery query) {
+        if (query.getDate() == null || query.isRange() || query.isLastQuotations()) {
+            return true;
+        }
+        try {
+            LocalDate date = LocalDate.parse(query.getDate());
+            LocalDate today = LocalDate.now(clock.withZone(NbpPublicationSchedule.WARSAW));
+            return NbpCalendar.isPublicationDay(date) && !date.isAfter(today);
+        } catch (DateTimeParseException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Remembers a 404 that will not change before the next table: a "last N" window, which is forgotten once the next
+     * table is due, or a date before the latest due table. A 404 for the latest due date may be a table published
+     * late, so it is remembered only briefly. Dates whose table is not due yet are not remembered.
+     */
+    private void rememberMissing(NbpQuery query) {
+        if (query.isLastQuotations()) {
+            cache.putMissing(query, true);
+            return;
+        }
+        if (query.getDate() == null || query.isRange()) {
+            return;
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.parse(query.getDate());
+        } catch (DateTimeParseException e) {
+            return;
+        }
+        LocalDate latest = schedule.latestPublicationDate(query.getTable(), clock.instant());
+        if (date.isBefore(latest)) {
+            cache.putMissing(query, true);
+        } else if (date.equals(latest)) {
+            cache.putMissing(query, false);
+        }
+    }
+
+    private <T> T serveStale(T stale, String reason) {
+        StageTimings.markStale();
+        meterRegistry.counter("nbp.responses.stale", "reason", reason).increment();
+        return stale;
+    }
+
+    /**
+     * With a {@link RateStore} a single date is read from it first, and whatever is fetched is added to it.
+     */
+    private TableDto load(NbpQuery query) {
+        if (store == null) {
+            return fetch(query);
+        }
+        TableDto stored = store.get(query.getTable(), query.getCurrency(), query.getDate());
+        if (stored != null) {
+            return stored;
+        }
+        TableDto rates = fetch(query);
+        store.ingest(rates);
+        return rates;
+    }
+
+    private NbpTable loadTable(NbpQuery query) {
+        if (store == null) {
+            return fetchTable(query);
+        }
+        NbpTable stored = store.getTable(query.getTable(), query.getDate());
+        if (stored != null) {
+            return stored;
+        }
+        NbpTable rates = fetchTable(query);
+        store.ingestTable(query.getTable(), query.getDate(), rates);
+        return rates;
+    }
+
+    /**
+     * A "last N" window is served by the {@link RateStore} when it holds every quotation up to the latest published
+     * table. Otherwise it is streamed from NBP and recorded, as a complete range from its first to its last date.
+     */
+    private <R> R collect(NbpQuery query, RateCollector<R> collector) {
+        if (store == null || !query.isLastQuotations()) {
+            return stream(query, collector);
+        }
+        R stored = collectStored(query, collector);
+        if (stored != null) {
+            return stored;
+        }
+        RecordingCollector<R> recording = new RecordingCollector<>(collector, query.getQuotations());
+        R result = stream(query, recording);
+        RateWindow window = recording.window();
+        if (window.getSize() > 0) {
+            store.ingest(window, LocalDate.parse(window.getEffectiveDate()[0]),
+                    LocalDate.parse(window.getEffectiveDate()[window.getSize() - 1]));
+        }
+        return result;
+    }
+
+    @Nullable
+    private <R> R collectStored(NbpQuery query, RateCollector<R> collector) {
+        long started = System.nanoTime();
+        LocalDate latest = schedule.latestPublicationDate(query.getTable(), clock.instant());
+        R stored = store.collectLast(query.getTable(), query.getCurrency(), query.getQuotations(), latest, collector);
+        if (stored != null) {
+            StageTimings.record(Stage.COMPUTATION, started);
+        }
+        return stored;
+    }
+
+    private TableDto fetch(NbpQuery query) {
+        ResponseEntity<String> response = exchange(query);
+
+        long started = System.nanoTime();
+        try {
+            return mapper.readValue(response.getBody(), TableDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException();
+        } finally {
+            StageTimings.record(Stage.DESERIALIZATION, started);
+        }
+    }
+
+    private NbpTable fetchTable(NbpQuery query) {
+        ResponseEntity<String> response = exchange(query);
+
+        long started = System.nanoTime();
+        try {
+            ExchangeTableDto[] tables = mapper.readValue(response.getBody(), ExchangeTableDto[].class);
+            if (tables == null || tables.length == 0) {
+                throw new IllegalStateException();
+            }
+            return NbpTable.of(tables[0]);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException();
+        } finally {
+            StageTimings.record(Stage.DESERIALIZATION, started);
+        }
+    }
+
+    private ResponseEntity<String> exchange(NbpQuery query) {
+        NbpCallEvent event = new NbpCallEvent();
+        event.begin();
+        long started = System.nanoTime();
+        ResponseEntity<String> response = null;
+        int status = 0;
+        try {
+            response = breaker.call(() -> hedging.call(
+                    () -> restTemplate.getForEntity(query.toUrl(apiUrl), String.class)));
+            status = response.getStatusCode().value();
+            return response;
+        } catch (HttpStatusCodeException e) {
+            status = e.getStatusCode().value();
+            throw e;
+        } finally {
+            StageTimings.record(Stage.UPSTREAM, started);
+            event.end();
+            if (event.shouldCommit()) {
+                commit(event, query, status, response == null ? 0 : utf8Length(response.getBody()));
+            }
+        }
+    }
+
+    /**
+     * The body is parsed while it is read, so the upstream stage ends once the response headers arrive and the
+     * rest of the transfer counts as deserialization. The {@link NbpCallEvent} lasts until the body is parsed.
+     * <p>
+     * A hedged call is parsed on a {@link Hedging} thread by the attempt whose headers arrive first; the other one
+     * leaves the collector alone. The whole call then counts as the upstream stage.
+     */
+    private <R> R stream(NbpQuery query, RateCollector<R> collector) {
+        NbpCallEvent event = new NbpCallEvent();
+        event.begin();
+        long started = System.nanoTime();
+        int[] status = new int[1];
+        CountingInputStream[] body = new CountingInputStream[1];
+        AtomicBoolean claimed = new AtomicBoolean();
+        try {
+            return breaker.call(() -> hedging.call(() -> restTemplate.execute(query.toUrl(apiUrl), HttpMethod.GET, null, response -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                StageTimings.record(Stage.UPSTREAM, started);
+                status[0] = response.getStatusCode().value();
+                InputStream in = response.getBody();
+                if (event.isEnabled()) {
+                    in = body[0] = new CountingInputStream(in);
+                }
+                try {
+                    return reader.read(in, collector);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException();
+                }
+            })));
+        } catch (HttpStatusCodeException e) {
+            status[0] = e.getStatusCode().value();
+            throw e;
+        } finally {
+            if (hedging.isEnabled()) {
+                StageTimings.record(Stage.UPSTREAM, started);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                commit(event, query, status[0], body[0] == null ? 0 : body[0].getCount());
+            }
+        }
+    }
+
+    /**
+     * Walks back from today in {@link NbpQuery#MAX_RANGE_DAYS} day ranges, fetching each round of ranges in
+     * parallel, until the window is filled or NBP has nothing older. The chunks are then replayed oldest first,
+     * without the quotations that fall outside the window.
+     */
+    private <R> R collectChunks(NbpQuery query, RateCollector<R> collector) {
+        if (store != null) {
+            R stored = collectStored(query, collector);
+            if (stored != null) {
+                return stored;
+            }
+        }
+        int quotations = query.getQuotations();
+        LocalDate end = LocalDate.now(clock);
+        LocalDate latest = schedule.latestPublicationDate(query.getTable(), clock.instant());
+        List<RateWindow> chunks = new ArrayList<>();
+        int collected = 0;
+
+        long started = System.nanoTime();
+        int rangeCount = rangesFor(quotations);
+        while (collected < quotations) {
+            List<NbpQuery> ranges = new ArrayList<>(rangeCount);
+            List<Future<RateWindow>> round = new ArrayList<>(rangeCount);
+            for (int i = 0; i < rangeCount; i++) {
+                NbpQuery range = NbpQuery.forRange(query.getTable(), query.getCurrency(),
+                        end.minusDays(NbpQuery.MAX_RANGE_DAYS - 1).toString(), end.toString());
+                ranges.add(range);
+                round.add(chunkExecutor.submit(() -> fetchRange(range)));
+                end = end.minusDays(NbpQuery.MAX_RANGE_DAYS);
+            }
+
+            int before = collected;
+            for (int i = 0; i < round.size(); i++) {
+                RateWindow window = await(round.get(i));
+                if (window != null && window.getSize() > 0) {
+                    chunks.add(window);
+                    collected += window.getSize();
+                    if (store != null) {
+                        storeRange(ranges.get(i), window, latest);
+                    }
+                }
+            }
+            if (collected == before) {
+                break;
+            }
+            rangeCount = rangesFor(quotations - collected);
+        }
+        StageTimings.record(Stage.UPSTREAM, started);
+        if (chunks.isEmpty()) {
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }
+
+        RateWindow newest = chunks.get(0);
+        collector.table(newest.getTable(), newest.getCurrency(), newest.getCode());
+        FixedPointRate rate = new FixedPointRate();
+        int skip = Math.max(collected - quotations, 0);
+        for (int i = chunks.size() - 1; i >= 0; i--) {
+            RateWindow chunk = chunks.get(i);
+            for (int j = 0; j < chunk.getSize(); j++) {
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                chunk.copyTo(j, rate);
+                collector.rate(rate);
+            }
+        }
+
+        long computing = System.nanoTime();
+        try {
+            return collector.result();
+        } finally {
+            StageTimings.record(Stage.COMPUTATION, computing);
+        }
+    }
+
+    /**
+     * A range that ends before the latest published table is complete as a whole; the newest one only up to its
+     * last quotation, since a table for the rest of it may still be published.
+     */
+    private void storeRange(NbpQuery range, RateWindow window, LocalDate latest) {
+        LocalDate end = LocalDate.parse(range.getEndDate());
+        if (!end.isBefore(latest)) {
+            end = LocalDate.parse(window.getEffectiveDate()[window.getSize() - 1]);
+        }
+        store.ingest(window, LocalDate.parse(range.getDate()), end);
+    }
+
+    /**
+     * Enough ranges for the given number of business days, with room for about 13 public holidays a year.
+     */
+    private static int rangesFor(int quotations) {
+        int days = quotations * 7 / 5 + quotations / 20 + 7;
+        return (days + NbpQuery.MAX_RANGE_DAYS - 1) / NbpQuery.MAX_RANGE_DAYS;
+    }
+
+    @Nullable
+    private RateWindow fetchRange(NbpQuery range) {
+        try {
+            return stream(range, RateWindow.builder(NbpQuery.MAX_RANGE_DAYS));
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void commit(NbpCallEvent event, NbpQuery query, int status, long bytes) {
+        event.urlTemplate = query.toUrlTemplate();
+        event.table = query.getTable();
+        event.currency = query.getCurrency();
+        event.status = status;
+        event.bytes = bytes;
+        event.commit();
+    }
+
+    private static long utf8Length(String body) {
+        if (body == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
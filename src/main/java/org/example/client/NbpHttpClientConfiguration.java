@@ -0,0 +1,184 @@
+package org.example.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * HTTP client used for NBP calls: a pool of keep-alive connections with timeouts, per-host limits and gzip
+ * responses (Apache HttpClient sends {@code Accept-Encoding} and decompresses transparently). Pool usage is
+ * published as {@code nbp.upstream.pool.*} gauges and the time spent waiting for a connection as the
+ * {@code nbp.upstream.connection.acquire} timer; responses are counted by status as {@code nbp.upstream.responses}.
+ */
+@Configuration
+public class NbpHttpClientConfiguration {
+    @Value("${nbp.http.connect-timeout}")
+    private Duration connectTimeout;
+
+    @Value("${nbp.http.read-timeout}")
+    private Duration readTimeout;
+
+    @Value("${nbp.http.connection-request-timeout}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${nbp.http.max-connections}")
+    private int maxConnections;
+
+    @Value("${nbp.http.max-connections-per-host}")
+    private int maxConnectionsPerHost;
+
+    @Value("${nbp.http.keep-alive}")
+    private Duration keepAlive;
+
+    @Value("${nbp.http.compression}")
+    private boolean compression;
+
+    @Value("${nbp.chunks.parallelism}")
+    private int chunkParallelism;
+
+    @Value("${nbp.refresh.parallelism}")
+    private int refreshParallelism;
+
+    @Bean
+    public PoolingHttpClientConnectionManager nbpConnectionManager(MeterRegistry meterRegistry) {
+        Timer acquire = Timer.builder("nbp.upstream.connection.acquire")
+                .description("Time spent waiting for a pooled NBP connection")
+                .register(meterRegistry);
+        PoolingHttpClientConnectionManager manager = new TimedConnectionManager(acquire);
+        manager.setMaxTotal(maxConnections);
+        manager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+        manager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                .build());
+
+        gauge(meterRegistry, "nbp.upstream.pool.leased", manager, PoolStats::getLeased);
+        gauge(meterRegistry, "nbp.upstream.pool.available", manager, PoolStats::getAvailable);
+        gauge(meterRegistry, "nbp.upstream.pool.pending", manager, PoolStats::getPending);
+        gauge(meterRegistry, "nbp.upstream.pool.max", manager, PoolStats::getMax);
+        return manager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient nbpHttpClient(PoolingHttpClientConnectionManager nbpConnectionManager) {
+        HttpClientBuilder builder = HttpClientBuilder.create()
+                .setConnectionManager(nbpConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeout.toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAlive.toMillis()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAlive.toMillis()));
+        if (!compression) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient nbpHttpClient, MeterRegistry meterRegistry) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(nbpHttpClient));
+        restTemplate.getInterceptors().add(new UpstreamStatusInterceptor(meterRegistry));
+        return restTemplate;
+    }
+
+    /**
+     * Fetches the date-range chunks of windows longer than one NBP response. Shared by all requests, so it also
+     * bounds how many chunk calls are in flight at once.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService nbpChunkExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("nbp-chunk-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(chunkParallelism, threadFactory);
+    }
+
+    /**
+     * Refreshes expired windows that can be served stale, so a request can stop waiting after the latency budget
+     * while the refresh goes on. Separate from the chunk executor, whose tasks a refresh may wait for.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService nbpRefreshExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("nbp-refresh-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(refreshParallelism, threadFactory);
+    }
+
+    /**
+     * Runs the attempts of hedged NBP calls, only created with {@code nbp.hedge.enabled=true}. A losing attempt keeps
+     * its thread until NBP answers it, and attempts beyond the connection pool only wait for a lease, so threads are
+     * capped at one per pooled connection plus half as many again. When all are busy {@link Hedging} runs the call on
+     * the caller's thread, or does not send the hedge.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "nbp.hedge.enabled", havingValue = "true")
+    public ExecutorService nbpHedgeExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("nbp-hedge-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(0, maxConnections + maxConnections / 2, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory);
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, PoolingHttpClientConnectionManager manager, ToDoubleFunction<PoolStats> stat) {
+        Gauge.builder(name, manager, pool -> stat.applyAsDouble(pool.getTotalStats()))
+                .register(meterRegistry);
+    }
+
+    private static class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+        private final Timer acquire;
+
+        TimedConnectionManager(Timer acquire) {
+            this.acquire = acquire;
+        }
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            LeaseRequest lease = super.lease(id, route, requestTimeout, state);
+            return new LeaseRequest() {
+                @Override
+                public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return lease.get(timeout);
+                    } finally {
+                        acquire.record(Duration.ofNanos(System.nanoTime() - start));
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return lease.cancel();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.client;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.lang.Nullable;
+
+@Getter
+@EqualsAndHashCode
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class NbpQuery {
+    public static final String NBP_API_URL = "http://api.nbp.pl/api/exchangerates/";
+    public static final int MAX_QUOTATIONS_PER_REQUEST = 255;
+    public static final int MAX_RANGE_DAYS = 93;
+
+    private String table;
+
+    @Nullable
+    private String currency;
+
+    @Nullable
+    private String date;
+
+    @Nullable
+    private Integer quotations;
+
+    @Nullable
+    private String endDate;
+
+    public static NbpQuery forDate(String table, String currency, String date) {
+        return new NbpQuery(table, currency, date, null, null);
+    }
+
+    public static NbpQuery lastQuotations(String table, String currency, int quotations) {
+        return new NbpQuery(table, currency, null, quotations, null);
+    }
+
+    /**
+     * Quotations published from {@code startDate} to {@code endDate}, both inclusive, at most
+     * {@link #MAX_RANGE_DAYS} days apart.
+     */
+    public static NbpQuery forRange(String table, String currency, String startDate, String endDate) {
+        return new NbpQuery(table, currency, startDate, null, endDate);
+    }
+
+    public static NbpQuery wholeTable(String table, String date) {
+        return new NbpQuery(table, null, date, null, null);
+    }
+
+    public boolean isWholeTable() {
+        return currency == null;
+    }
+
+    public boolean isLastQuotations() {
+        return quotations != null;
+    }
+
+    public boolean isRange() {
+        return endDate != null;
+    }
+
+    public String toUrl() {
+        return toUrl(NBP_API_URL);
+    }
+
+    /**
+     * The NBP path without query values, e.g. {@code rates/{table}/{code}/last/{topCount}/}, for grouping calls.
+     */
+    public String toUrlTemplate() {
+        if (isWholeTable()) {
+            return "tables/{table}/{date}/";
+        }
+        if (isLastQuotations()) {
+            return "rates/{table}/{code}/last/{topCount}/";
+        }
+        if (isRange()) {
+            return "rates/{table}/{code}/{startDate}/{endDate}/";
+        }
+        return "rates/{table}/{code}/{date}/";
+    }
+
+    public String toUrl(String apiUrl) {
+        if (isWholeTable()) {
+            return apiUrl + "tables/" + table + "/" + date + "/";
+        }
+        if (isLastQuotations()) {
+            return apiUrl + "rates/" + table + "/" + currency + "/last/" + quotations + "/";
+        }
+        if (isRange()) {
+            return apiUrl + "rates/" + table + "/" + currency + "/" + date + "/" + endDate + "/";
+        }
+        return apiUrl + "rates/" + table + "/" + currency + "/" + date + "/";
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.metrics.Stage;
+import org.example.metrics.StageTimings;
+import org.example.rate.FixedPoint;
+import org.example.rate.FixedPointRate;
+import org.example.service.RateCollector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads an NBP rates response token by token and hands every quotation to a {@link RateCollector}, without
+ * buffering the body or binding it to a {@link org.example.dto.TableDto}. Rates are parsed straight into
+ * fixed-point form.
+ */
+@Component
+public class NbpRateReader {
+    @Autowired
+    private ObjectMapper mapper;
+
+    public <R> R read(InputStream body, RateCollector<R> collector) throws IOException {
+        JsonFactory factory = mapper.getFactory();
+        long started = System.nanoTime();
+        try (JsonParser parser = factory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+
+            String table = null;
+            String currency = null;
+            String code = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "table" -> table = parser.getValueAsString();
+                    case "currency" -> currency = parser.getValueAsString();
+                    case "code" -> code = parser.getValueAsString();
+                    case "rates" -> {
+                        expect(value, JsonToken.START_ARRAY);
+                        collector.table(table, currency, code);
+                        FixedPointRate rate = new FixedPointRate();
+                        int[] scale = new int[1];
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            readRate(parser, rate, scale);
+                            collector.rate(rate);
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } finally {
+            StageTimings.record(Stage.DESERIALIZATION, started);
+        }
+
+        long computing = System.nanoTime();
+        try {
+            return collector.result();
+        } finally {
+            StageTimings.record(Stage.COMPUTATION, computing);
+        }
+    }
+
+    private void readRate(JsonParser parser, FixedPointRate rate, int[] scale) throws IOException {
+        rate.reset();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "no" -> rate.setNo(parser.getValueAsString());
+                case "effectiveDate" -> rate.setEffectiveDate(parser.getValueAsString());
+                case "bid" -> {
+                    rate.setBid(readNumber(parser, value, scale));
+                    rate.setBidScale(scale[0]);
+                }
+                case "ask" -> {
+                    rate.setAsk(readNumber(parser, value, scale));
+                    rate.setAskScale(scale[0]);
+                }
+                case "mid" -> {
+                    rate.setMid(readNumber(parser, value, scale));
+                    rate.setMidScale(scale[0]);
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private long readNumber(JsonParser parser, JsonToken value, int[] scale) throws IOException {
+        scale[0] = 0;
+        if (value == JsonToken.VALUE_NULL) {
+            return FixedPoint.ABSENT;
+        }
+        if (value != JsonToken.VALUE_NUMBER_FLOAT && value != JsonToken.VALUE_NUMBER_INT) {
+            throw new IllegalStateException();
+        }
+        return FixedPoint.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(), scale);
+    }
+
+    private void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new IllegalStateException();
+        }
+    }
+}
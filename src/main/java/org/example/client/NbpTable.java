@@ -0,0 +1,60 @@
+package org.example.client;
+
+import org.example.dto.ExchangeTableDto;
+import org.example.dto.ExchangeTableRateDto;
+import org.example.dto.RateDto;
+import org.example.dto.TableDto;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A whole NBP table (every currency of one publication) indexed by currency code. Each entry has the same shape as
+ * the single currency response for that date, so it can be served in its place.
+ */
+public class NbpTable {
+    private final String effectiveDate;
+    private final Map<String, TableDto> rates;
+
+    private NbpTable(String effectiveDate, Map<String, TableDto> rates) {
+        this.effectiveDate = effectiveDate;
+        this.rates = rates;
+    }
+
+    public static NbpTable of(ExchangeTableDto table) {
+        Map<String, TableDto> rates = new HashMap<>();
+        for (ExchangeTableRateDto rate : table.getRates()) {
+            RateDto quotation = new RateDto(table.getNo(), table.getEffectiveDate(), rate.getBid(), rate.getAsk(), rate.getMid());
+            rates.put(rate.getCode(), new TableDto(table.getTable(), rate.getCurrency(), rate.getCode(), List.of(quotation)));
+        }
+        return new NbpTable(table.getEffectiveDate(), rates);
+    }
+
+    public static NbpTable of(String effectiveDate, Collection<TableDto> currencies) {
+        Map<String, TableDto> rates = new HashMap<>();
+        for (TableDto currency : currencies) {
+            rates.put(currency.getCode(), currency);
+        }
+        return new NbpTable(effectiveDate, rates);
+    }
+
+    @Nullable
+    public TableDto get(String code) {
+        return rates.get(code);
+    }
+
+    public Collection<TableDto> values() {
+        return rates.values();
+    }
+
+    public String getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    public int size() {
+        return rates.size();
+    }
+}
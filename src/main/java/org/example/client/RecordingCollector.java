@@ -0,0 +1,40 @@
+package org.example.client;
+
+import org.example.rate.FixedPointRate;
+import org.example.rate.RateWindow;
+import org.example.service.RateCollector;
+
+/**
+ * Passes quotations on to another collector and keeps a copy of them, so they can be stored after the
+ * computation.
+ */
+class RecordingCollector<R> implements RateCollector<R> {
+    private final RateCollector<R> collector;
+    private final RateWindow.Builder window;
+
+    RecordingCollector(RateCollector<R> collector, int expectedSize) {
+        this.collector = collector;
+        this.window = RateWindow.builder(expectedSize);
+    }
+
+    @Override
+    public void table(String table, String currency, String code) {
+        window.table(table, currency, code);
+        collector.table(table, currency, code);
+    }
+
+    @Override
+    public void rate(FixedPointRate rate) {
+        window.rate(rate);
+        collector.rate(rate);
+    }
+
+    @Override
+    public R result() {
+        return collector.result();
+    }
+
+    RateWindow window() {
+        return window.result();
+    }
+}
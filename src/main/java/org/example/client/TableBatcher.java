@@ -0,0 +1,163 @@
+package org.example.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.example.dto.TableDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Batches single-date lookups of different currencies. The first lookup for a table and date opens a batch and waits
+ * {@code nbp.batch.window} for others to join it. When the window closes, a batch of one loads its currency as
+ * usual. A larger batch loads the whole table of that date once, and every lookup in it takes its currency from
+ * there, or a 404 if the table does not have it.
+ * <p>
+ * Batch sizes are recorded in {@code nbp.batch.size} and the time each lookup waited for its batch to close in
+ * {@code nbp.batch.delay}. With {@code nbp.batch.enabled=false} lookups are loaded right away.
+ */
+@Component
+public class TableBatcher {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${nbp.batch.enabled}")
+    private boolean enabled;
+
+    @Value("${nbp.batch.window}")
+    private Duration window;
+
+    private final ConcurrentMap<String, Batch> open = new ConcurrentHashMap<>();
+
+    private DistributionSummary sizes;
+    private Timer delays;
+
+    @PostConstruct
+    void init() {
+        sizes = DistributionSummary.builder("nbp.batch.size").register(meterRegistry);
+        delays = Timer.builder("nbp.batch.delay").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Rates of the currency of a single-date {@code query}, loaded by {@code single} when no other currency of the
+     * same table and date is looked up within the window, and taken from {@code table} otherwise.
+     */
+    public TableDto get(NbpQuery query, Supplier<TableDto> single, Supplier<NbpTable> table) {
+        if (!enabled) {
+            return single.get();
+        }
+        long joined = System.nanoTime();
+        String key = query.getTable() + "/" + query.getDate();
+        Batch batch;
+        boolean leader;
+        while (true) {
+            batch = open.computeIfAbsent(key, k -> new Batch());
+            synchronized (batch) {
+                if (!batch.closed) {
+                    leader = batch.size++ == 0;
+                    break;
+                }
+            }
+        }
+
+        if (!leader) {
+            NbpTable rates = await(batch.table);
+            delays.record(batch.dispatched - joined, TimeUnit.NANOSECONDS);
+            return currency(rates, query);
+        }
+
+        boolean slept = false;
+        int size;
+        try {
+            sleep(window);
+            slept = true;
+        } finally {
+            size = close(key, batch);
+            if (!slept) {
+                batch.table.completeExceptionally(new IllegalStateException("Batch leader interrupted"));
+            }
+        }
+        sizes.record(size);
+        delays.record(batch.dispatched - joined, TimeUnit.NANOSECONDS);
+        if (size == 1) {
+            return single.get();
+        }
+        NbpTable rates;
+        try {
+            rates = table.get();
+        } catch (RuntimeException | Error e) {
+            batch.table.completeExceptionally(e);
+            throw e;
+        }
+        batch.table.complete(rates);
+        return currency(rates, query);
+    }
+
+    /**
+     * Stops the batch taking lookups, so later ones open a new batch, and returns how many it has.
+     */
+    private int close(String key, Batch batch) {
+        int size;
+        synchronized (batch) {
+            batch.closed = true;
+            batch.dispatched = System.nanoTime();
+            size = batch.size;
+        }
+        open.remove(key, batch);
+        return size;
+    }
+
+    private static TableDto currency(NbpTable rates, NbpQuery query) {
+        TableDto currency = rates.get(query.getCurrency());
+        if (currency == null) {
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }
+        return currency;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis(), duration.toNanosPart() % 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static NbpTable await(CompletableFuture<NbpTable> table) {
+        try {
+            return table.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Batch {
+        private final CompletableFuture<NbpTable> table = new CompletableFuture<>();
+        private int size;
+        private boolean closed;
+        private volatile long dispatched;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Counts NBP responses by status code as {@code nbp.upstream.responses}, with {@code IO_ERROR} for calls that got
+ * no response. Counters are created once per status and kept in an array indexed by the code.
+ */
+class UpstreamStatusInterceptor implements ClientHttpRequestInterceptor {
+    private static final int MAX_STATUS = 600;
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicReferenceArray<Counter> counters = new AtomicReferenceArray<>(MAX_STATUS);
+    private final Counter ioErrors;
+
+    UpstreamStatusInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.ioErrors = counter("IO_ERROR");
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException e) {
+            ioErrors.increment();
+            throw e;
+        }
+        int status = response.getStatusCode().value();
+        if (status >= 0 && status < MAX_STATUS) {
+            Counter counter = counters.get(status);
+            if (counter == null) {
+                counter = counter(String.valueOf(status));
+                counters.compareAndSet(status, null, counter);
+            }
+            counter.increment();
+        }
+        return response;
+    }
+
+    private Counter counter(String status) {
+        return Counter.builder("nbp.upstream.responses")
+                .description("NBP responses by status code")
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+}
@@ -1,56 +1,54 @@
 package org.example.controller;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cache.ResponseBytesCache;
+import org.example.client.NbpClient;
+import org.example.client.NbpQuery;
 import org.example.dto.DifferenceDto;
-import org.example.dto.TableDto;
 import org.example.service.BuyAndSellRateService;
+import org.example.validation.Checked;
+import org.example.validation.RequestValidation;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/buy-and-sell")
 public class BuyAndSellRateController {
     @Autowired
     private BuyAndSellRateService service;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private NbpClient nbpClient;
 
     @Autowired
-    private ObjectMapper mapper;
+    private ResponseBytesCache responses;
+
+    @Value("${nbp.quotations.max}")
+    private int maxQuotations;
 
     @GetMapping("/{currency}/difference")
-    public ResponseEntity<?> getMajorDifference(@PathVariable String currency, @RequestParam String quotations, @RequestParam(defaultValue = "false") Boolean detailed) {
-        if (currency.length() != 3 || !currency.matches("[A-Z]+")) {
-            throw new IllegalArgumentException("Currency must be in ISO-4217 standard");
-        }
-        if (!quotations.matches("\\d+")) {
-            throw new IllegalArgumentException("Quotations must be a positive integer");
-        }
-
-        String nbpUrl = "http://api.nbp.pl/api/exchangerates/rates/C/" + currency + "/last/" + quotations + "/";
-        ResponseEntity<String> response = restTemplate.getForEntity(nbpUrl, String.class);
-
-        TableDto responseTable = null;
-        try {
-            responseTable = mapper.readValue(response.getBody(), TableDto.class);
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException();
-        }
-
-        DifferenceDto result = service.computeMajorDifference(responseTable);
-        if (result == null) {
-            throw new IllegalStateException();
-        }
-
-        if (detailed) {
-            return new ResponseEntity<>(result, HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>(result.getDifference(), HttpStatus.OK);
-        }
+    @Checked(Checked.Check.QUOTATIONS)
+    public ResponseEntity<?> getMajorDifference(@PathVariable String currency, @RequestParam String quotations, @RequestParam(defaultValue = "false") Boolean detailed,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RequestValidation.require(RequestValidation.checkQuotations(currency, quotations, maxQuotations));
+        int size = RequestValidation.parseQuotations(quotations);
+
+        NbpQuery query = NbpQuery.lastQuotations("C", currency, size);
+        return responses.respond(query, detailed, acceptEncoding, () -> {
+            DifferenceDto result = nbpClient.collectRates(query, DifferenceDto.class, service::majorDifferenceCollector);
+            if (result == null) {
+                throw new IllegalStateException();
+            }
+
+            if (detailed) {
+                return ResponseBytesCache.json(result, result.getRate().getNo());
+            } else {
+                return ResponseBytesCache.json(result.getDifference(), result.getRate().getNo());
+            }
+        });
     }
 }
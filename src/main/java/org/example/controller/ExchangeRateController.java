@@ -1,87 +1,200 @@
 package org.example.controller;
 
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cache.NbpPublicationSchedule;
+import org.example.cache.ResponseBytesCache;
+import org.example.client.NbpCalendar;
+import org.example.client.NbpClient;
+import org.example.client.NbpQuery;
+import org.example.client.NbpTable;
 import org.example.dto.MaxAndMinDto;
+import org.example.dto.OhlcDto;
+import org.example.dto.RateDto;
+import org.example.dto.StatisticsDto;
 import org.example.dto.TableDto;
+import org.example.metrics.Stage;
+import org.example.metrics.StageTimings;
+import org.example.rate.Interval;
+import org.example.rate.RateWindow;
+import org.example.rate.SeriesRange;
+import org.example.rate.Statistic;
 import org.example.service.ExchangeRateService;
+import org.example.validation.Checked;
+import org.example.validation.RequestValidation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/exchange")
 public class ExchangeRateController {
     @Autowired
     private ExchangeRateService service;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private NbpClient nbpClient;
+
+    @Autowired
+    private ResponseBytesCache responses;
+
+    @Autowired
+    private NbpPublicationSchedule schedule;
 
     @Autowired
-    private ObjectMapper mapper;
+    private Clock clock;
+
+    @Value("${nbp.quotations.max}")
+    private int maxQuotations;
+
+    @Value("${nbp.ohlc.max-days}")
+    private int maxOhlcDays;
 
     @GetMapping("/{currency}/{date}")
-    public ResponseEntity<?> getExchangeRate(@PathVariable String currency, @PathVariable String date, @RequestParam(defaultValue = "false") Boolean detailed) {
-        if (!isCurrencyCorrect(currency)) {
-            throw new IllegalArgumentException("Currency must be in ISO-4217 standard");
-        }
-        if (!date.matches("^\\d{4}-\\d{2}-\\d{2}$")) {
-            throw new IllegalArgumentException("Date must be in ISO-8601 standard");
-        }
+    @Checked(Checked.Check.RATE)
+    public ResponseEntity<?> getExchangeRate(@PathVariable String currency, @PathVariable String date, @RequestParam(defaultValue = "false") Boolean detailed,
+                                             @RequestParam(required = false) String fallback,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RequestValidation.require(RequestValidation.checkRate(currency, date, fallback));
 
-        String nbpUrl = "http://api.nbp.pl/api/exchangerates/rates/A/" + currency + "/" + date + "/";
-        ResponseEntity<String> response = restTemplate.getForEntity(nbpUrl, String.class);
+        NbpQuery query = NbpQuery.forDate("A", currency, resolveDate(date, fallback));
+        return responses.respond(query, detailed, acceptEncoding, () -> {
+            TableDto responseTable = nbpClient.getRates(query);
+            RateDto rate = responseTable.getRates().get(0);
 
-        TableDto responseTable = null;
-        try {
-            responseTable = mapper.readValue(response.getBody(), TableDto.class);
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException();
+            if (detailed) {
+                return ResponseBytesCache.json(responseTable, rate.getNo());
+            } else {
+                return ResponseBytesCache.json(rate.getMid(), rate.getNo());
+            }
+        });
+    }
+
+    @GetMapping("/{date}")
+    @Checked(Checked.Check.RATES)
+    public ResponseEntity<?> getExchangeRates(@PathVariable String date, @RequestParam String currencies, @RequestParam(defaultValue = "false") Boolean detailed,
+                                              @RequestParam(required = false) String fallback) {
+        RequestValidation.require(RequestValidation.checkRates(date, currencies, fallback));
+        Set<String> codes = new LinkedHashSet<>(Arrays.asList(currencies.split(",")));
+
+        NbpTable table = nbpClient.getTable("A", resolveDate(date, fallback));
+        List<TableDto> responseTables = new ArrayList<>();
+        for (String code : codes) {
+            TableDto responseTable = table.get(code);
+            if (responseTable == null) {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            }
+            responseTables.add(responseTable);
         }
 
         if (detailed) {
-            return new ResponseEntity<>(responseTable, HttpStatus.OK);
+            return new ResponseEntity<>(responseTables, HttpStatus.OK);
         } else {
-            return new ResponseEntity<>(responseTable.getRates().get(0).getMid(), HttpStatus.OK);
+            Map<String, BigDecimal> mids = new LinkedHashMap<>();
+            responseTables.forEach(responseTable -> mids.put(responseTable.getCode(), responseTable.getRates().get(0).getMid()));
+            return new ResponseEntity<>(mids, HttpStatus.OK);
         }
     }
 
     @GetMapping("/{currency}/max-min")
-    public ResponseEntity<?> getMaxAndMinValue(@PathVariable String currency, @RequestParam String quotations, @RequestParam(defaultValue = "false") Boolean detailed) {
-        if (!isCurrencyCorrect(currency)) {
-            throw new IllegalArgumentException("Currency must be in ISO-4217 standard");
-        }
-        if (!quotations.matches("\\d+")) {
-            throw new IllegalArgumentException("Quotations must be a positive integer");
-        }
+    @Checked(Checked.Check.QUOTATIONS)
+    public ResponseEntity<?> getMaxAndMinValue(@PathVariable String currency, @RequestParam String quotations, @RequestParam(defaultValue = "false") Boolean detailed,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RequestValidation.require(RequestValidation.checkQuotations(currency, quotations, maxQuotations));
+        int size = RequestValidation.parseQuotations(quotations);
 
-        String nbpUrl = "http://api.nbp.pl/api/exchangerates/rates/A/" + currency + "/last/" + quotations + "/";
-        ResponseEntity<String> response = restTemplate.getForEntity(nbpUrl, String.class);
+        NbpQuery query = NbpQuery.lastQuotations("A", currency, size);
+        return responses.respond(query, detailed, acceptEncoding, () -> {
+            MaxAndMinDto result = nbpClient.collectRates(query, MaxAndMinDto.class, service::maxAndMinCollector);
+            if (result == null) {
+                throw new IllegalStateException();
+            }
+            String maxNo = result.getMaxRate().getNo();
+            String minNo = result.getMinRate().getNo();
 
-        TableDto responseTable = null;
-        try {
-            responseTable = mapper.readValue(response.getBody(), TableDto.class);
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException();
-        }
+            if (detailed) {
+                return ResponseBytesCache.json(result, maxNo, minNo);
+            } else {
+                return ResponseBytesCache.text("Max rate: " + result.getMaxRate().getMid() + ", Min rate: " + result.getMinRate().getMid(), maxNo, minNo);
+            }
+        });
+    }
 
-        MaxAndMinDto result = service.computeMaxAndMinValue(responseTable);
-        if (result == null) {
+    @GetMapping("/{currency}/stats")
+    @Checked(Checked.Check.QUOTATIONS)
+    public ResponseEntity<?> getStatistics(@PathVariable String currency, @RequestParam String quotations, @RequestParam(required = false) String metrics) {
+        RequestValidation.require(RequestValidation.checkQuotations(currency, quotations, maxQuotations));
+        int size = RequestValidation.parseQuotations(quotations);
+        Set<Statistic> statistics = Statistic.parse(metrics);
+
+        NbpQuery query = NbpQuery.lastQuotations("A", currency, size);
+        RateWindow window = nbpClient.collectRates(query, RateWindow.class, () -> RateWindow.builder(size));
+        if (window == null) {
             throw new IllegalStateException();
         }
 
-        if (detailed) {
-            return new ResponseEntity<>(result, HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>("Max rate: " + result.getMaxRate().getMid() + ", Min rate: " + result.getMinRate().getMid(), HttpStatus.OK);
+        long started = System.nanoTime();
+        StatisticsDto result = service.computeStatistics(window, statistics);
+        StageTimings.record(Stage.COMPUTATION, started);
+
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @GetMapping("/{currency}/ohlc")
+    @Checked(Checked.Check.OHLC)
+    public ResponseEntity<?> getOhlc(@PathVariable String currency, @RequestParam String interval, @RequestParam String from, @RequestParam String to, @RequestParam(defaultValue = "A") String table) {
+        RequestValidation.require(RequestValidation.checkOhlc(currency, table, interval, from, to, maxOhlcDays));
+        Interval period = Interval.parse(interval);
+        LocalDate start = parseDate(from);
+        LocalDate end = parseDate(to);
+
+        SeriesRange range = nbpClient.getRange(table, currency, start, end);
+
+        long started = System.nanoTime();
+        OhlcDto result = service.computeOhlc(range, period);
+        StageTimings.record(Stage.COMPUTATION, started);
+
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * With {@code fallback=previous} the nearest table A already published on or before {@code date}, so weekends,
+     * holidays and days whose table is not due yet get the rates in force on that day.
+     */
+    private String resolveDate(String date, String fallback) {
+        if (fallback == null) {
+            return date;
+        }
+        LocalDate day = parseDate(date);
+        LocalDate latest = schedule.latestPublicationDate("A", clock.instant());
+        LocalDate published = NbpCalendar.onOrBefore(day.isAfter(latest) ? latest : day);
+        if (published == null) {
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
         }
+        return published.toString();
     }
 
-    private boolean isCurrencyCorrect(String currency) {
-        return currency.length() == 3 && currency.matches("[A-Z]+");
+    private LocalDate parseDate(String date) {
+        LocalDate parsed = RequestValidation.parseDate(date);
+        if (parsed == null) {
+            throw new IllegalArgumentException(RequestValidation.INVALID_DATE);
+        }
+        return parsed;
     }
 }
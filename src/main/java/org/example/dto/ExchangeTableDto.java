@@ -0,0 +1,26 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExchangeTableDto {
+    private String table;
+
+    private String no;
+
+    @Nullable
+    private String tradingDate;
+
+    private String effectiveDate;
+
+    List<ExchangeTableRateDto> rates;
+}
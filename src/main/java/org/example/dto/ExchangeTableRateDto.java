@@ -0,0 +1,28 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.lang.Nullable;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExchangeTableRateDto {
+    private String currency;
+
+    private String code;
+
+    @Nullable
+    private BigDecimal bid;
+
+    @Nullable
+    private BigDecimal ask;
+
+    @Nullable
+    private BigDecimal mid;
+}
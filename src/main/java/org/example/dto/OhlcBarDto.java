@@ -0,0 +1,34 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OhlcBarDto {
+    private String start;
+
+    private String from;
+
+    private String to;
+
+    private Integer count;
+
+    private BigDecimal open;
+
+    private BigDecimal high;
+
+    private BigDecimal low;
+
+    private BigDecimal close;
+
+    private BigDecimal averageSpread;
+}
@@ -0,0 +1,32 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StatisticsDto {
+    private String code;
+
+    private Integer count;
+
+    private RateDto min;
+
+    private RateDto max;
+
+    private BigDecimal mean;
+
+    private BigDecimal variance;
+
+    private RateDto first;
+
+    private RateDto last;
+}
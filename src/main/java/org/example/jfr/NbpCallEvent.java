@@ -0,0 +1,36 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to the NBP API, from sending the request until the body has been read. The status is 0 when no response
+ * was received.
+ */
+@Name("org.example.NbpCall")
+@Label("NBP Call")
+@Category({"NBP", "Upstream"})
+@Description("Call to the NBP exchange rates API")
+@StackTrace(false)
+public class NbpCallEvent extends Event {
+    @Label("URL Template")
+    public String urlTemplate;
+
+    @Label("Table")
+    public String table;
+
+    @Label("Currency")
+    public String currency;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Body Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,44 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.example.RateComputation")
+@Label("Rate Computation")
+@Category({"NBP", "Computation"})
+@Description("Computation over a window of NBP quotations")
+@StackTrace(false)
+public class RateComputationEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Table")
+    public String table;
+
+    @Label("Currency")
+    public String currency;
+
+    @Label("Window Size")
+    public int windowSize;
+
+    public static RateComputationEvent start() {
+        RateComputationEvent event = new RateComputationEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String operation, String table, String currency, int windowSize) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.table = table;
+            this.currency = currency;
+            this.windowSize = windowSize;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Adds a {@code Server-Timing} header with the {@link StageTimings} of an API request, e.g.
+ * {@code validation;dur=0.052, upstream;dur=41.377, deserialization;dur=0.210, computation;dur=0.004,
+ * serialization;dur=0.118, cache;desc=miss}. Durations are in milliseconds; the cache is {@code hit}, {@code miss}
+ * or {@code stale}.
+ * <p>
+ * Serialization ends while the body is written, after the headers would normally be committed, so the body is
+ * buffered to send the header first. That is why the header is opt-in: per request with {@code X-Server-Timing},
+ * or for every request with {@code nbp.server-timing.enabled}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ServerTimingFilter extends OncePerRequestFilter {
+    public static final String REQUEST_HEADER = "X-Server-Timing";
+    public static final String RESPONSE_HEADER = "Server-Timing";
+
+    @Value("${nbp.server-timing.enabled}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!request.getRequestURI().startsWith(request.getContextPath() + "/api/")) {
+            return true;
+        }
+        return !enabled && request.getHeader(REQUEST_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        StageTimings timings = StageTimings.start();
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            timings.finish();
+            wrapper.setHeader(RESPONSE_HEADER, format(timings));
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    static String format(StageTimings timings) {
+        StringBuilder header = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            long nanos = timings.nanos(stage);
+            if (nanos > 0) {
+                if (!header.isEmpty()) {
+                    header.append(", ");
+                }
+                header.append(stage.getTag()).append(";dur=").append(nanos / 1_000_000).append('.');
+                long micros = nanos / 1_000 % 1_000;
+                if (micros < 100) {
+                    header.append('0');
+                }
+                if (micros < 10) {
+                    header.append('0');
+                }
+                header.append(micros);
+            }
+        }
+        if (timings.getTable() != null) {
+            if (!header.isEmpty()) {
+                header.append(", ");
+            }
+            header.append("cache;desc=").append(timings.isStale() ? "stale" : timings.isCacheHit() ? "hit" : "miss");
+        }
+        return header.toString();
+    }
+}
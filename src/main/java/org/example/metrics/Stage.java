@@ -0,0 +1,16 @@
+package org.example.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum Stage {
+    VALIDATION("validation"),
+    UPSTREAM("upstream"),
+    DESERIALIZATION("deserialization"),
+    COMPUTATION("computation"),
+    SERIALIZATION("serialization");
+
+    private final String tag;
+}
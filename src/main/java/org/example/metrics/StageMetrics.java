@@ -0,0 +1,71 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records {@link StageTimings} as the {@code nbp.request.stage} timer, tagged by endpoint, stage, table and
+ * outcome. All timers of an endpoint are registered on its first request, so recording is an array lookup.
+ */
+@Component
+public class StageMetrics {
+    private static final String[] TABLES = {"A", "C", "none"};
+    private static final String[] OUTCOMES = {"SUCCESS", "CLIENT_ERROR", "SERVER_ERROR"};
+    private static final Stage[] STAGES = Stage.values();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, StageTimings timings, int status, boolean failed) {
+        Timer[] endpointTimers = timers.computeIfAbsent(endpoint, this::register);
+        int table = tableIndex(timings.getTable());
+        int outcome = failed || status >= 500 ? 2 : status >= 400 ? 1 : 0;
+        for (Stage stage : STAGES) {
+            long nanos = timings.nanos(stage);
+            if (nanos > 0) {
+                endpointTimers[index(table, outcome, stage)].record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Timer[] register(String endpoint) {
+        Timer[] endpointTimers = new Timer[TABLES.length * OUTCOMES.length * STAGES.length];
+        for (int table = 0; table < TABLES.length; table++) {
+            for (int outcome = 0; outcome < OUTCOMES.length; outcome++) {
+                for (Stage stage : STAGES) {
+                    endpointTimers[index(table, outcome, stage)] = Timer.builder("nbp.request.stage")
+                            .description("Time spent in each stage of an API request")
+                            .tag("endpoint", endpoint)
+                            .tag("stage", stage.getTag())
+                            .tag("table", TABLES[table])
+                            .tag("outcome", OUTCOMES[outcome])
+                            .publishPercentileHistogram()
+                            .register(meterRegistry);
+                }
+            }
+        }
+        return endpointTimers;
+    }
+
+    private int tableIndex(String table) {
+        if ("A".equals(table)) {
+            return 0;
+        }
+        if ("C".equals(table)) {
+            return 1;
+        }
+        return 2;
+    }
+
+    private int index(int table, int outcome, Stage stage) {
+        return (table * OUTCOMES.length + outcome) * STAGES.length + stage.ordinal();
+    }
+}
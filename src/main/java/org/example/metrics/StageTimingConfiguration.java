@@ -0,0 +1,23 @@
+package org.example.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Times every {@code /api/**} request by stage. Skipped when there is no {@link StageMetrics}, as in web slice tests.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StageTimingConfiguration implements WebMvcConfigurer {
+    @Autowired
+    private ObjectProvider<StageMetrics> stageMetrics;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        stageMetrics.ifAvailable(metrics -> registry.addInterceptor(new StageTimingInterceptor(metrics)).addPathPatterns("/api/**"));
+    }
+}
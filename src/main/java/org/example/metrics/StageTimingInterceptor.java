@@ -0,0 +1,35 @@
+package org.example.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Starts the {@link StageTimings} of every API request and records them once the response is complete, tagged
+ * with the name of the handler method.
+ */
+class StageTimingInterceptor implements HandlerInterceptor {
+    private final StageMetrics stageMetrics;
+
+    StageTimingInterceptor(StageMetrics stageMetrics) {
+        this.stageMetrics = stageMetrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            StageTimings.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            StageTimings timings = StageTimings.current();
+            timings.finish();
+            stageMetrics.record(handlerMethod.getMethod().getName(), timings, response.getStatus(), ex != null);
+        }
+    }
+}
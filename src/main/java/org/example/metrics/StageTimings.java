@@ -0,0 +1,124 @@
+package org.example.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Stage durations of the request handled on the current thread. One instance is kept per thread and reset for
+ * every request, so recording does not allocate. Outside of a request (or with nothing started) every call is a
+ * no-op, which keeps the client and services usable on their own.
+ * <p>
+ * Validation lasts from the start of the request until the first NBP lookup, or until the response is written
+ * when the request is rejected.
+ */
+public final class StageTimings {
+    private static final ThreadLocal<StageTimings> CURRENT = ThreadLocal.withInitial(StageTimings::new);
+
+    private final long[] nanos = new long[Stage.values().length];
+    private boolean active;
+    private long started;
+    private boolean validated;
+    private long serializationStarted;
+    private String table;
+    private boolean cacheHit;
+    private boolean stale;
+
+    private StageTimings() {
+    }
+
+    public static StageTimings start() {
+        StageTimings timings = CURRENT.get();
+        Arrays.fill(timings.nanos, 0);
+        timings.active = true;
+        timings.started = System.nanoTime();
+        timings.validated = false;
+        timings.serializationStarted = 0;
+        timings.table = null;
+        timings.cacheHit = false;
+        timings.stale = false;
+        return timings;
+    }
+
+    public static StageTimings current() {
+        return CURRENT.get();
+    }
+
+    public static void record(Stage stage, long startNanos) {
+        StageTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.nanos[stage.ordinal()] += System.nanoTime() - startNanos;
+        }
+    }
+
+    public static void lookup(String table) {
+        StageTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.endValidation();
+            if (timings.table == null) {
+                timings.table = table;
+            }
+        }
+    }
+
+    public static void markCacheHit() {
+        StageTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.cacheHit = true;
+        }
+    }
+
+    public static void markStale() {
+        StageTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.stale = true;
+        }
+    }
+
+    /**
+     * Whether the request being handled on this thread was served stale data. Unlike {@link #isStale()}, false outside
+     * of a started request, whatever an earlier request on the thread was served.
+     */
+    public static boolean servedStale() {
+        StageTimings timings = CURRENT.get();
+        return timings.active && timings.stale;
+    }
+
+    public static void serializing() {
+        StageTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.endValidation();
+            timings.serializationStarted = System.nanoTime();
+        }
+    }
+
+    public void finish() {
+        endValidation();
+        if (serializationStarted != 0) {
+            nanos[Stage.SERIALIZATION.ordinal()] += System.nanoTime() - serializationStarted;
+            serializationStarted = 0;
+        }
+        active = false;
+    }
+
+    public long nanos(Stage stage) {
+        return nanos[stage.ordinal()];
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public boolean isCacheHit() {
+        return cacheHit;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    private void endValidation() {
+        if (!validated) {
+            validated = true;
+            nanos[Stage.VALIDATION.ordinal()] = System.nanoTime() - started;
+        }
+    }
+}
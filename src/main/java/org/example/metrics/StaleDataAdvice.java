@@ -0,0 +1,35 @@
+package org.example.metrics;
+
+import org.example.controller.ExchangeRateController;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds {@code X-Stale-Data: true} to API responses built from data served stale because NBP could not refresh it.
+ */
+@ControllerAdvice(basePackageClasses = ExchangeRateController.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StaleDataAdvice implements ResponseBodyAdvice<Object> {
+    public static final String RESPONSE_HEADER = "X-Stale-Data";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (StageTimings.servedStale()) {
+            response.getHeaders().set(RESPONSE_HEADER, "true");
+        }
+        return body;
+    }
+}
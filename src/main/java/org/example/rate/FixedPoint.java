@@ -0,0 +1,85 @@
+package org.example.rate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point representation of NBP rates: a value is stored as a long scaled by 10^{@value #SCALE} together with
+ * the number of decimal places it was published with, so it can be turned back into the exact same BigDecimal.
+ */
+public final class FixedPoint {
+    public static final int SCALE = 8;
+    public static final long ABSENT = Long.MIN_VALUE;
+
+    private static final long[] POWERS_OF_TEN = new long[SCALE + 1];
+    private static final long MAX_DIGITS_VALUE;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+        MAX_DIGITS_VALUE = Long.MAX_VALUE / POWERS_OF_TEN[SCALE] / 10;
+    }
+
+    private FixedPoint() {
+    }
+
+    public static long toScaled(BigDecimal value) {
+        if (value == null) {
+            return ABSENT;
+        }
+        if (value.scale() > SCALE) {
+            throw new IllegalStateException();
+        }
+        return value.movePointRight(SCALE).longValueExact();
+    }
+
+    public static int scaleOf(BigDecimal value) {
+        return value == null ? 0 : Math.max(value.scale(), 0);
+    }
+
+    public static BigDecimal toDecimal(long scaled, int scale) {
+        if (scaled == ABSENT) {
+            return null;
+        }
+        return BigDecimal.valueOf(scaled, SCALE).setScale(scale, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Parses a plain JSON number such as {@code 4.1924} without creating a BigDecimal. Returns the scaled value and
+     * stores the number of decimal places in {@code scale[0]}. Anything else (exponents, more than
+     * {@value #SCALE} decimal places, overflow) falls back to BigDecimal parsing.
+     */
+    public static long parse(char[] text, int offset, int length, int[] scale) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = i < end && text[i] == '-';
+        if (negative) {
+            i++;
+        }
+
+        long value = 0;
+        int decimals = -1;
+        for (; i < end; i++) {
+            char c = text[i];
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9' && decimals < SCALE && value < MAX_DIGITS_VALUE) {
+                value = value * 10 + (c - '0');
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                BigDecimal decimal = new BigDecimal(text, offset, length);
+                scale[0] = scaleOf(decimal);
+                return toScaled(decimal);
+            }
+        }
+
+        int places = Math.max(decimals, 0);
+        scale[0] = places;
+        long scaled = value * POWERS_OF_TEN[SCALE - places];
+        return negative ? -scaled : scaled;
+    }
+}
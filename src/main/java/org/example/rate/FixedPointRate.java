@@ -0,0 +1,43 @@
+package org.example.rate;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.dto.RateDto;
+
+/**
+ * A single quotation in fixed-point form. Readers reuse one instance for consecutive quotations, so it has to be
+ * copied (for example with {@link #toRateDto()}) to be kept.
+ */
+@Getter
+@Setter
+public class FixedPointRate {
+    private String no;
+
+    private String effectiveDate;
+
+    private long bid = FixedPoint.ABSENT;
+    private int bidScale;
+
+    private long ask = FixedPoint.ABSENT;
+    private int askScale;
+
+    private long mid = FixedPoint.ABSENT;
+    private int midScale;
+
+    public void reset() {
+        no = null;
+        effectiveDate = null;
+        bid = FixedPoint.ABSENT;
+        ask = FixedPoint.ABSENT;
+        mid = FixedPoint.ABSENT;
+    }
+
+    public RateDto toRateDto() {
+        return new RateDto(
+                no,
+                effectiveDate,
+                FixedPoint.toDecimal(bid, bidScale),
+                FixedPoint.toDecimal(ask, askScale),
+                FixedPoint.toDecimal(mid, midScale));
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.rate;
+
+import org.springframework.lang.Nullable;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Calendar periods quotations are rolled up into. Weeks start on Monday.
+ */
+public enum Interval {
+    WEEK, MONTH, YEAR;
+
+    public static final String NAMES = EnumSet.allOf(Interval.class).stream()
+            .map(interval -> interval.name().toLowerCase(Locale.ROOT))
+            .collect(Collectors.joining(", "));
+
+    public static final String INVALID = "Interval must be one of: " + NAMES;
+
+    public static Interval parse(String interval) {
+        Interval parsed = find(interval);
+        if (parsed == null) {
+            throw new IllegalArgumentException(INVALID);
+        }
+        return parsed;
+    }
+
+    /**
+     * The interval named {@code interval}, ignoring case and surrounding blanks, or {@code null} if there is none.
+     */
+    @Nullable
+    public static Interval find(String interval) {
+        String name = interval.trim();
+        for (Interval value : values()) {
+            if (value.name().equalsIgnoreCase(name)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    public LocalDate start(LocalDate date) {
+        return switch (this) {
+            case WEEK -> date.with(DayOfWeek.MONDAY);
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.rate;
+
+import java.time.LocalDate;
+
+/**
+ * One period of a {@link RateSeries}: the indexes of its first, last, highest and lowest quotation, and the sum and
+ * number of its ask-bid spreads.
+ */
+public record OhlcBar(LocalDate start, int first, int last, int high, int low, long spreadSum, int spreadCount) {
+
+    public int count() {
+        return last - first + 1;
+    }
+}
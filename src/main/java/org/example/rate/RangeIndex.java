@@ -0,0 +1,69 @@
+package org.example.rate;
+
+/**
+ * Segment tree over a column of keys that answers which position of a range holds the largest, or smallest, key in
+ * O(log n), taking the first position on ties like a scan would.
+ * <p>
+ * The tree is laid out bottom-up with one leaf per position of the column, which needs no padding because choosing
+ * the better of two positions is commutative. Positions are filled in order. Setting one only changes the nodes above it, and a query only reads nodes that lie
+ * wholly inside its range, so queries that end before the positions being set are not affected by them.
+ */
+final class RangeIndex {
+    private final long[] keys;
+    private final boolean largest;
+    private final int leaves;
+    private final int[] tree;
+
+    RangeIndex(long[] keys, int size, boolean largest) {
+        this.keys = keys;
+        this.largest = largest;
+        this.leaves = Math.max(keys.length, 1);
+        this.tree = new int[leaves * 2];
+        for (int i = 0; i < leaves; i++) {
+            tree[leaves + i] = i < size ? i : -1;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = better(tree[node * 2], tree[node * 2 + 1]);
+        }
+    }
+
+    /**
+     * Takes the key at {@code position} into account, after it has been written to the column.
+     */
+    void set(int position) {
+        int node = leaves + position;
+        tree[node] = position;
+        for (node /= 2; node > 0; node /= 2) {
+            tree[node] = better(tree[node * 2], tree[node * 2 + 1]);
+        }
+    }
+
+    /**
+     * Position of the best key from {@code from} to {@code to}, both inclusive.
+     */
+    int query(int from, int to) {
+        int best = -1;
+        for (int left = from + leaves, right = to + leaves + 1; left < right; left /= 2, right /= 2) {
+            if ((left & 1) == 1) {
+                best = better(best, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                best = better(best, tree[--right]);
+            }
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        if (keys[a] != keys[b]) {
+            return (keys[a] > keys[b]) == largest ? a : b;
+        }
+        return Math.min(a, b);
+    }
+}
@@ -0,0 +1,404 @@
+package org.example.rate;
+
+import org.example.dto.RateDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Every known quotation of one currency, stored column by column in date order: the epoch day, the table number,
+ * scaled longs for bid, ask and mid and the decimal places each was published with. A date is found by binary search
+ * and a window of consecutive quotations is a contiguous index range. Range maxima and minima of mid, and maxima of
+ * the ask-bid spread, come from segment trees in O(log n), and weekly, monthly and yearly bars from {@link Rollup}s.
+ * <p>
+ * A series is immutable, {@link #merge(Builder)} returns a new one, so it can be read without locking while a newer
+ * one is being built. Quotations newer than the last one are appended in place: the new series shares the columns,
+ * which have room to grow, only the indexes above the new positions change and only the periods they close are
+ * aggregated. Each series can be appended to once; merging into it again copies it.
+ */
+public final class RateSeries {
+    public static final RateSeries EMPTY = new RateSeries(new Builder(0));
+
+    private final int size;
+    private final int[] epochDay;
+    private final String[] no;
+    private final long[] bid;
+    private final long[] ask;
+    private final long[] mid;
+    private final byte[] bidScale;
+    private final byte[] askScale;
+    private final byte[] midScale;
+    private final long[] spread;
+
+    private final RangeIndex maxMid;
+    private final RangeIndex minMid;
+    private final RangeIndex maxSpread;
+    private final Rollup[] rollups = new Rollup[Interval.values().length];
+    private final AtomicBoolean appended = new AtomicBoolean();
+
+    private RateSeries(Builder columns) {
+        size = columns.size;
+        epochDay = columns.epochDay;
+        no = columns.no;
+        bid = columns.bid;
+        ask = columns.ask;
+        mid = columns.mid;
+        bidScale = columns.bidScale;
+        askScale = columns.askScale;
+        midScale = columns.midScale;
+
+        boolean hasMid = size > 0 && mid[0] != FixedPoint.ABSENT;
+        boolean hasSpread = size > 0 && bid[0] != FixedPoint.ABSENT && ask[0] != FixedPoint.ABSENT;
+        spread = hasSpread ? new long[epochDay.length] : null;
+        if (hasSpread) {
+            for (int i = 0; i < size; i++) {
+                spread[i] = spreadOf(i);
+            }
+        }
+        maxMid = hasMid ? new RangeIndex(mid, size, true) : null;
+        minMid = hasMid ? new RangeIndex(mid, size, false) : null;
+        maxSpread = hasSpread ? new RangeIndex(spread, size, true) : null;
+        for (Interval interval : Interval.values()) {
+            rollups[interval.ordinal()] = Rollup.of(interval, this, size);
+        }
+    }
+
+    private RateSeries(RateSeries previous, int size) {
+        this.size = size;
+        epochDay = previous.epochDay;
+        no = previous.no;
+        bid = previous.bid;
+        ask = previous.ask;
+        mid = previous.mid;
+        bidScale = previous.bidScale;
+        askScale = previous.askScale;
+        midScale = previous.midScale;
+        spread = previous.spread;
+        maxMid = previous.maxMid;
+        minMid = previous.minMid;
+        maxSpread = previous.maxSpread;
+        for (Interval interval : Interval.values()) {
+            rollups[interval.ordinal()] = previous.rollups[interval.ordinal()].extend(this, previous.size, size);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder(16);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Index of the quotation published on {@code date}, or -1.
+     */
+    public int indexOf(LocalDate date) {
+        int index = Arrays.binarySearch(epochDay, 0, size, (int) date.toEpochDay());
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * Index of the newest quotation published on or before {@code date}, or -1.
+     */
+    public int floorIndex(LocalDate date) {
+        int index = Arrays.binarySearch(epochDay, 0, size, (int) date.toEpochDay());
+        return index < 0 ? -index - 2 : index;
+    }
+
+    public LocalDate date(int index) {
+        return LocalDate.ofEpochDay(epochDay[index]);
+    }
+
+    public long bid(int index) {
+        return bid[index];
+    }
+
+    public long ask(int index) {
+        return ask[index];
+    }
+
+    public long mid(int index) {
+        return mid[index];
+    }
+
+    public int bidScale(int index) {
+        return bidScale[index];
+    }
+
+    public int askScale(int index) {
+        return askScale[index];
+    }
+
+    /**
+     * Index of the highest mid from {@code from} to {@code to}, both inclusive, the first one on ties; -1 when the
+     * series has no mid rates.
+     */
+    public int maxMidIndex(int from, int to) {
+        return maxMid == null ? -1 : maxMid.query(from, to);
+    }
+
+    /**
+     * Index of the lowest mid from {@code from} to {@code to}, both inclusive, the first one on ties; -1 when the
+     * series has no mid rates. A missing mid counts as the lowest.
+     */
+    public int minMidIndex(int from, int to) {
+        return minMid == null ? -1 : minMid.query(from, to);
+    }
+
+    /**
+     * Index of the largest absolute ask-bid difference from {@code from} to {@code to}, both inclusive, the first one
+     * on ties; -1 when the series has no bid and ask rates. A missing bid or ask counts as the largest.
+     */
+    public int maxSpreadIndex(int from, int to) {
+        return maxSpread == null ? -1 : maxSpread.query(from, to);
+    }
+
+    /**
+     * The mid rate, or for bid and ask rates the middle of them; {@link FixedPoint#ABSENT} without either.
+     */
+    public long price(int index) {
+        if (mid[index] != FixedPoint.ABSENT) {
+            return mid[index];
+        }
+        if (bid[index] == FixedPoint.ABSENT || ask[index] == FixedPoint.ABSENT) {
+            return FixedPoint.ABSENT;
+        }
+        return (bid[index] + ask[index]) / 2;
+    }
+
+    /**
+     * {@link #price(int)} with the decimal places it was published with, one more for the middle of bid and ask
+     * when it needs it.
+     */
+    public BigDecimal priceDecimal(int index) {
+        if (mid[index] != FixedPoint.ABSENT) {
+            return FixedPoint.toDecimal(mid[index], midScale[index]);
+        }
+        long price = price(index);
+        if (price == FixedPoint.ABSENT) {
+            return null;
+        }
+        int scale = Math.max(bidScale[index], askScale[index]);
+        BigDecimal exact = BigDecimal.valueOf(price, FixedPoint.SCALE).stripTrailingZeros();
+        return FixedPoint.toDecimal(price, Math.max(scale, exact.scale()));
+    }
+
+    /**
+     * The absolute ask-bid difference, {@link FixedPoint#ABSENT} without bid and ask rates.
+     */
+    public long spread(int index) {
+        if (bid[index] == FixedPoint.ABSENT || ask[index] == FixedPoint.ABSENT) {
+            return FixedPoint.ABSENT;
+        }
+        return Math.abs(ask[index] - bid[index]);
+    }
+
+    /**
+     * One bar per period of {@code interval} overlapping quotations {@code from} to {@code to}, both inclusive. Bars
+     * of periods cut by the range only cover the quotations inside it.
+     */
+    public OhlcBar[] bars(Interval interval, int from, int to) {
+        return rollups[interval.ordinal()].bars(this, size, from, to);
+    }
+
+    public RateDto rate(int index) {
+        return new RateDto(
+                no[index],
+                date(index).toString(),
+                FixedPoint.toDecimal(bid[index], bidScale[index]),
+                FixedPoint.toDecimal(ask[index], askScale[index]),
+                FixedPoint.toDecimal(mid[index], midScale[index]));
+    }
+
+    /**
+     * Fills {@code rate} with the quotation at {@code index}. This formats its date, so scans that only need values
+     * read the columns with {@link #mid(int)} and the like instead.
+     */
+    public void copyTo(int index, FixedPointRate rate) {
+        rate.setNo(no[index]);
+        rate.setEffectiveDate(date(index).toString());
+        rate.setBid(bid[index]);
+        rate.setBidScale(bidScale[index]);
+        rate.setAsk(ask[index]);
+        rate.setAskScale(askScale[index]);
+        rate.setMid(mid[index]);
+        rate.setMidScale(midScale[index]);
+    }
+
+    /**
+     * A series with the quotations of {@code additions} for dates this one does not have yet.
+     */
+    public RateSeries merge(Builder additions) {
+        Builder sorted = additions.sorted();
+        if (sorted.size == 0) {
+            return this;
+        }
+        if (size > 0 && sorted.epochDay[0] > epochDay[size - 1] && size + sorted.size <= epochDay.length
+                && appended.compareAndSet(false, true)) {
+            return append(sorted);
+        }
+
+        Builder merged = new Builder(withRoom(size + sorted.size));
+        int i = 0;
+        int j = 0;
+        while (i < size || j < sorted.size) {
+            if (j == sorted.size || i < size && epochDay[i] <= sorted.epochDay[j]) {
+                if (j < sorted.size && epochDay[i] == sorted.epochDay[j]) {
+                    j++;
+                }
+                merged.add(this, i++);
+            } else {
+                merged.add(sorted, j++);
+            }
+        }
+        return merged.size == size ? this : new RateSeries(merged);
+    }
+
+    /**
+     * Writes the new quotations past the end of the shared columns, then takes them into the indexes, before the
+     * returned series makes them visible.
+     */
+    private RateSeries append(Builder sorted) {
+        for (int j = 0; j < sorted.size; j++) {
+            int i = size + j;
+            epochDay[i] = sorted.epochDay[j];
+            no[i] = sorted.no[j];
+            bid[i] = sorted.bid[j];
+            ask[i] = sorted.ask[j];
+            mid[i] = sorted.mid[j];
+            bidScale[i] = sorted.bidScale[j];
+            askScale[i] = sorted.askScale[j];
+            midScale[i] = sorted.midScale[j];
+            if (spread != null) {
+                spread[i] = spreadOf(i);
+                maxSpread.set(i);
+            }
+            if (maxMid != null) {
+                maxMid.set(i);
+                minMid.set(i);
+            }
+        }
+        return new RateSeries(this, size + sorted.size);
+    }
+
+    private long spreadOf(int index) {
+        if (bid[index] == FixedPoint.ABSENT || ask[index] == FixedPoint.ABSENT) {
+            return Long.MAX_VALUE;
+        }
+        return Math.abs(ask[index] - bid[index]);
+    }
+
+    /**
+     * Room for about a year of daily quotations on top of {@code size}, so they can be appended in place.
+     */
+    private static int withRoom(int size) {
+        return size + Math.max(size / 8, 256);
+    }
+
+    /**
+     * Collects quotations in any order; the first one added for a date wins.
+     */
+    public static class Builder {
+        private int size;
+        private int[] epochDay;
+        private String[] no;
+        private long[] bid;
+        private long[] ask;
+        private long[] mid;
+        private byte[] bidScale;
+        private byte[] askScale;
+        private byte[] midScale;
+
+        private Builder(int capacity) {
+            epochDay = new int[capacity];
+            no = new String[capacity];
+            bid = new long[capacity];
+            ask = new long[capacity];
+            mid = new long[capacity];
+            bidScale = new byte[capacity];
+            askScale = new byte[capacity];
+            midScale = new byte[capacity];
+        }
+
+        public Builder add(LocalDate date, FixedPointRate rate) {
+            if (size == epochDay.length) {
+                grow();
+            }
+            epochDay[size] = (int) date.toEpochDay();
+            no[size] = rate.getNo();
+            bid[size] = rate.getBid();
+            ask[size] = rate.getAsk();
+            mid[size] = rate.getMid();
+            bidScale[size] = (byte) rate.getBidScale();
+            askScale[size] = (byte) rate.getAskScale();
+            midScale[size] = (byte) rate.getMidScale();
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private void add(RateSeries source, int index) {
+            add(source.epochDay[index], source.no[index], source.bid[index], source.ask[index], source.mid[index],
+                    source.bidScale[index], source.askScale[index], source.midScale[index]);
+        }
+
+        private void add(Builder source, int index) {
+            add(source.epochDay[index], source.no[index], source.bid[index], source.ask[index], source.mid[index],
+                    source.bidScale[index], source.askScale[index], source.midScale[index]);
+        }
+
+        private void add(int day, String number, long bidValue, long askValue, long midValue,
+                         byte bidDigits, byte askDigits, byte midDigits) {
+            if (size == epochDay.length) {
+                grow();
+            }
+            epochDay[size] = day;
+            no[size] = number;
+            bid[size] = bidValue;
+            ask[size] = askValue;
+            mid[size] = midValue;
+            bidScale[size] = bidDigits;
+            askScale[size] = askDigits;
+            midScale[size] = midDigits;
+            size++;
+        }
+
+        /**
+         * The same quotations ordered by date, without repeated dates. Dates and positions are packed into longs so
+         * the order is found with a primitive sort.
+         */
+        private Builder sorted() {
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = (long) epochDay[i] << 32 | i;
+            }
+            Arrays.sort(order);
+            Builder sorted = new Builder(size);
+            for (int i = 0; i < size; i++) {
+                int index = (int) order[i];
+                if (sorted.size == 0 || sorted.epochDay[sorted.size - 1] != epochDay[index]) {
+                    sorted.add(this, index);
+                }
+            }
+            return sorted;
+        }
+
+        private void grow() {
+            int capacity = Math.max(epochDay.length * 2, 16);
+            epochDay = Arrays.copyOf(epochDay, capacity);
+            no = Arrays.copyOf(no, capacity);
+            bid = Arrays.copyOf(bid, capacity);
+            ask = Arrays.copyOf(ask, capacity);
+            mid = Arrays.copyOf(mid, capacity);
+            bidScale = Arrays.copyOf(bidScale, capacity);
+            askScale = Arrays.copyOf(askScale, capacity);
+            midScale = Arrays.copyOf(midScale, capacity);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.rate;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Set;
+
+/**
+ * Computes the selected {@link Statistic}s of one fixed-point column in a single sweep. Minimum and maximum keep the
+ * first index among equal values, mean and variance are rounded to {@value FixedPoint#SCALE} decimal places and the
+ * variance is the population variance (Welford's algorithm). Statistics that were not requested are left at -1 or
+ * null.
+ */
+@Getter
+public class RateStatistics {
+    private final int count;
+    private final int minIndex;
+    private final int maxIndex;
+    private final int firstIndex;
+    private final int lastIndex;
+    private final BigDecimal mean;
+    private final BigDecimal variance;
+
+    private RateStatistics(int count, int minIndex, int maxIndex, BigDecimal mean, BigDecimal variance) {
+        this.count = count;
+        this.minIndex = minIndex;
+        this.maxIndex = maxIndex;
+        this.firstIndex = count > 0 ? 0 : -1;
+        this.lastIndex = count - 1;
+        this.mean = mean;
+        this.variance = variance;
+    }
+
+    public static RateStatistics of(long[] values, int size, Set<Statistic> statistics) {
+        boolean extremes = statistics.contains(Statistic.MIN) || statistics.contains(Statistic.MAX);
+        boolean mean = statistics.contains(Statistic.MEAN);
+        boolean variance = statistics.contains(Statistic.VARIANCE);
+
+        int minIndex = extremes ? 0 : -1;
+        int maxIndex = extremes ? 0 : -1;
+        long sum = 0;
+        double runningMean = 0;
+        double squaredDistances = 0;
+        for (int i = 0; i < size; i++) {
+            long value = values[i];
+            if (value == FixedPoint.ABSENT) {
+                throw new IllegalStateException();
+            }
+            if (extremes) {
+                if (value > values[maxIndex]) {
+                    maxIndex = i;
+                }
+                if (value < values[minIndex]) {
+                    minIndex = i;
+                }
+            }
+            if (mean) {
+                sum = Math.addExact(sum, value);
+            }
+            if (variance) {
+                double delta = value - runningMean;
+                runningMean += delta / (i + 1);
+                squaredDistances += delta * (value - runningMean);
+            }
+        }
+
+        if (size == 0) {
+            return new RateStatistics(0, -1, -1, null, null);
+        }
+        return new RateStatistics(
+                size,
+                statistics.contains(Statistic.MIN) ? minIndex : -1,
+                statistics.contains(Statistic.MAX) ? maxIndex : -1,
+                mean ? BigDecimal.valueOf(sum, FixedPoint.SCALE).divide(BigDecimal.valueOf(size), FixedPoint.SCALE, RoundingMode.HALF_EVEN) : null,
+                variance ? unscaledVariance(squaredDistances / size) : null);
+    }
+
+    private static BigDecimal unscaledVariance(double scaledVariance) {
+        return new BigDecimal(scaledVariance)
+                .movePointLeft(2 * FixedPoint.SCALE)
+                .setScale(FixedPoint.SCALE, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.rate;
+
+import lombok.Getter;
+import org.example.dto.RateDto;
+import org.example.dto.TableDto;
+import org.example.service.RateCollector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Quotations of one currency stored column by column: scaled longs for bid, ask and mid, plus the decimal places
+ * each value was published with, so computations scan primitive arrays and results still render exactly as NBP
+ * sent them. The arrays may be longer than {@link #getSize()}.
+ */
+@Getter
+public class RateWindow {
+    private static final int MAX_PRESIZED_CAPACITY = 255;
+
+    private final String table;
+    private final String currency;
+    private final String code;
+    private final int size;
+
+    private final String[] no;
+    private final String[] effectiveDate;
+    private final long[] bid;
+    private final long[] ask;
+    private final long[] mid;
+    private final byte[] bidScale;
+    private final byte[] askScale;
+    private final byte[] midScale;
+
+    private RateWindow(Builder builder) {
+        table = builder.table;
+        currency = builder.currency;
+        code = builder.code;
+        size = builder.size;
+        no = builder.no;
+        effectiveDate = builder.effectiveDate;
+        bid = builder.bid;
+        ask = builder.ask;
+        mid = builder.mid;
+        bidScale = builder.bidScale;
+        askScale = builder.askScale;
+        midScale = builder.midScale;
+    }
+
+    public static RateWindow of(TableDto table) {
+        List<RateDto> rates = table.getRates();
+        Builder builder = new Builder(rates.size());
+        builder.table(table.getTable(), table.getCurrency(), table.getCode());
+        FixedPointRate rate = new FixedPointRate();
+        for (RateDto source : rates) {
+            rate.setNo(source.getNo());
+            rate.setEffectiveDate(source.getEffectiveDate());
+            rate.setBid(FixedPoint.toScaled(source.getBid()));
+            rate.setBidScale(FixedPoint.scaleOf(source.getBid()));
+            rate.setAsk(FixedPoint.toScaled(source.getAsk()));
+            rate.setAskScale(FixedPoint.scaleOf(source.getAsk()));
+            rate.setMid(FixedPoint.toScaled(source.getMid()));
+            rate.setMidScale(FixedPoint.scaleOf(source.getMid()));
+            builder.rate(rate);
+        }
+        return builder.result();
+    }
+
+    /**
+     * A builder presized for {@code expectedSize} quotations, up to the 255 NBP returns in a single response.
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(Math.min(expectedSize, MAX_PRESIZED_CAPACITY));
+    }
+
+    public static <R> RateCollector<R> collector(Function<RateWindow, R> computation) {
+        return collector(computation, range -> null);
+    }
+
+    /**
+     * Like {@link #collector(Function)}, but stored quotations are handed to {@code rangeComputation} as they are.
+     */
+    public static <R> RateCollector<R> collector(Function<RateWindow, R> computation, Function<SeriesRange, R> rangeComputation) {
+        Builder builder = new Builder(16);
+        return new RateCollector<>() {
+            @Override
+            public void table(String table, String currency, String code) {
+                builder.table(table, currency, code);
+            }
+
+            @Override
+            public void rate(FixedPointRate rate) {
+                builder.rate(rate);
+            }
+
+            @Override
+            public R result() {
+                return computation.apply(builder.result());
+            }
+
+            @Override
+            public R range(SeriesRange range) {
+                return rangeComputation.apply(range);
+            }
+        };
+    }
+
+    public RateDto rate(int index) {
+        return new RateDto(
+                no[index],
+                effectiveDate[index],
+                FixedPoint.toDecimal(bid[index], bidScale[index]),
+                FixedPoint.toDecimal(ask[index], askScale[index]),
+                FixedPoint.toDecimal(mid[index], midScale[index]));
+    }
+
+    /**
+     * Fills {@code rate} with the quotation at {@code index}, so a window can be replayed into a
+     * {@link RateCollector}.
+     */
+    public void copyTo(int index, FixedPointRate rate) {
+        rate.setNo(no[index]);
+        rate.setEffectiveDate(effectiveDate[index]);
+        rate.setBid(bid[index]);
+        rate.setBidScale(bidScale[index]);
+        rate.setAsk(ask[index]);
+        rate.setAskScale(askScale[index]);
+        rate.setMid(mid[index]);
+        rate.setMidScale(midScale[index]);
+    }
+
+    public static class Builder implements RateCollector<RateWindow> {
+        private String table;
+        private String currency;
+        private String code;
+        private int size;
+
+        private String[] no;
+        private String[] effectiveDate;
+        private long[] bid;
+        private long[] ask;
+        private long[] mid;
+        private byte[] bidScale;
+        private byte[] askScale;
+        private byte[] midScale;
+
+        public Builder(int capacity) {
+            no = new String[capacity];
+            effectiveDate = new String[capacity];
+            bid = new long[capacity];
+            ask = new long[capacity];
+            mid = new long[capacity];
+            bidScale = new byte[capacity];
+            askScale = new byte[capacity];
+            midScale = new byte[capacity];
+        }
+
+        @Override
+        public void table(String table, String currency, String code) {
+            this.table = table;
+            this.currency = currency;
+            this.code = code;
+        }
+
+        @Override
+        public void rate(FixedPointRate rate) {
+            if (size == no.length) {
+                grow();
+            }
+            no[size] = rate.getNo();
+            effectiveDate[size] = rate.getEffectiveDate();
+            bid[size] = rate.getBid();
+            ask[size] = rate.getAsk();
+            mid[size] = rate.getMid();
+            bidScale[size] = (byte) rate.getBidScale();
+            askScale[size] = (byte) rate.getAskScale();
+            midScale[size] = (byte) rate.getMidScale();
+            size++;
+        }
+
+        @Override
+        public RateWindow result() {
+            return new RateWindow(this);
+        }
+
+        private void grow() {
+            int capacity = Math.max(no.length * 2, 16);
+            no = Arrays.copyOf(no, capacity);
+            effectiveDate = Arrays.copyOf(effectiveDate, capacity);
+            bid = Arrays.copyOf(bid, capacity);
+            ask = Arrays.copyOf(ask, capacity);
+            mid = Arrays.copyOf(mid, capacity);
+            bidScale = Arrays.copyOf(bidScale, capacity);
+            askScale = Arrays.copyOf(askScale, capacity);
+            midScale = Arrays.copyOf(midScale, capacity);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.rate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The quotations of a {@link RateSeries} grouped by {@link Interval}. A period is aggregated once, when the first
+ * quotation of the next one is appended, and never changes after that; the last period is still open and is
+ * aggregated from the series whenever it is read.
+ * <p>
+ * Like the series, a rollup is a snapshot: {@link #extend} writes past the periods this one knows, into shared
+ * arrays when they have room, and returns a newer snapshot.
+ */
+final class Rollup {
+    private final Interval interval;
+    private final int periods;
+    private final int[] start;
+    private final int[] first;
+    private final int[] high;
+    private final int[] low;
+    private final long[] spreadSum;
+    private final int[] spreadCount;
+
+    private Rollup(Interval interval, int periods, int capacity, Rollup previous) {
+        this.interval = interval;
+        this.periods = periods;
+        if (previous != null && capacity <= previous.start.length) {
+            start = previous.start;
+            first = previous.first;
+            high = previous.high;
+            low = previous.low;
+            spreadSum = previous.spreadSum;
+            spreadCount = previous.spreadCount;
+        } else {
+            int length = previous == null ? capacity : Math.max(capacity, previous.start.length * 3 / 2);
+            start = previous == null ? new int[length] : Arrays.copyOf(previous.start, length);
+            first = previous == null ? new int[length] : Arrays.copyOf(previous.first, length);
+            high = previous == null ? new int[length] : Arrays.copyOf(previous.high, length);
+            low = previous == null ? new int[length] : Arrays.copyOf(previous.low, length);
+            spreadSum = previous == null ? new long[length] : Arrays.copyOf(previous.spreadSum, length);
+            spreadCount = previous == null ? new int[length] : Arrays.copyOf(previous.spreadCount, length);
+        }
+    }
+
+    static Rollup of(Interval interval, RateSeries series, int size) {
+        return new Rollup(interval, 0, 16, null).extend(series, 0, size);
+    }
+
+    /**
+     * A snapshot that also holds quotations {@code from} (the size this one was built for) to {@code to},
+     * exclusive, which are already written to the columns of {@code series}.
+     */
+    Rollup extend(RateSeries series, int from, int to) {
+        int count = periods;
+        int[] starts = new int[to - from];
+        int[] firsts = new int[to - from];
+        int added = 0;
+        int last = count == 0 ? Integer.MIN_VALUE : start[count - 1];
+        for (int i = from; i < to; i++) {
+            int periodStart = (int) interval.start(series.date(i)).toEpochDay();
+            if (periodStart != last) {
+                starts[added] = periodStart;
+                firsts[added++] = i;
+                last = periodStart;
+            }
+        }
+        if (added == 0) {
+            return new Rollup(interval, count, count, this);
+        }
+
+        Rollup extended = new Rollup(interval, count + added, count + added, this);
+        for (int k = 0; k < added; k++) {
+            extended.start[count + k] = starts[k];
+            extended.first[count + k] = firsts[k];
+        }
+        for (int k = Math.max(count - 1, 0); k < count + added - 1; k++) {
+            extended.close(series, k);
+        }
+        return extended;
+    }
+
+    /**
+     * Periods overlapping quotations {@code from} to {@code to}, both inclusive, of a series of {@code size}
+     * quotations. Periods cut by the range, and the open one, are aggregated from the series.
+     */
+    OhlcBar[] bars(RateSeries series, int size, int from, int to) {
+        int firstPeriod = period(from);
+        int lastPeriod = period(to);
+        OhlcBar[] bars = new OhlcBar[lastPeriod - firstPeriod + 1];
+        for (int k = firstPeriod; k <= lastPeriod; k++) {
+            int periodFirst = first[k];
+            int periodLast = k + 1 < periods ? first[k + 1] - 1 : size - 1;
+            if (k + 1 < periods && periodFirst >= from && periodLast <= to) {
+                bars[k - firstPeriod] = new OhlcBar(LocalDate.ofEpochDay(start[k]), periodFirst, periodLast,
+                        high[k], low[k], spreadSum[k], spreadCount[k]);
+            } else {
+                bars[k - firstPeriod] = aggregate(series, k, Math.max(periodFirst, from), Math.min(periodLast, to));
+            }
+        }
+        return bars;
+    }
+
+    private int period(int index) {
+        int period = Arrays.binarySearch(first, 0, periods, index);
+        return period < 0 ? -period - 2 : period;
+    }
+
+    private void close(RateSeries series, int period) {
+        OhlcBar bar = aggregate(series, period, first[period], first[period + 1] - 1);
+        high[period] = bar.high();
+        low[period] = bar.low();
+        spreadSum[period] = bar.spreadSum();
+        spreadCount[period] = bar.spreadCount();
+    }
+
+    private OhlcBar aggregate(RateSeries series, int period, int from, int to) {
+        int highest = from;
+        int lowest = from;
+        long sum = 0;
+        int spreads = 0;
+        for (int i = from; i <= to; i++) {
+            long price = series.price(i);
+            if (price > series.price(highest)) {
+                highest = i;
+            }
+            if (price < series.price(lowest)) {
+                lowest = i;
+            }
+            long spread = series.spread(i);
+            if (spread != FixedPoint.ABSENT) {
+                sum += spread;
+                spreads++;
+            }
+        }
+        return new OhlcBar(LocalDate.ofEpochDay(start[period]), from, to, highest, lowest, sum, spreads);
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.rate;
+
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDate;
+
+/**
+ * Quotations {@code from} to {@code to}, both inclusive, of a stored {@link RateSeries}.
+ */
+public record SeriesRange(String table, String currency, String code, RateSeries series, int from, int to) {
+
+    /**
+     * The quotations of {@code series} published from {@code from} to {@code to}, or {@code null} if there are none.
+     */
+    @Nullable
+    public static SeriesRange between(String table, String currency, String code, RateSeries series, LocalDate from, LocalDate to) {
+        int first = series.floorIndex(from.minusDays(1)) + 1;
+        int last = series.floorIndex(to);
+        return first > last ? null : new SeriesRange(table, currency, code, series, first, last);
+    }
+
+    public int size() {
+        return to - from + 1;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.rate;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public enum Statistic {
+    COUNT, MIN, MAX, MEAN, VARIANCE, FIRST, LAST;
+
+    public static final String NAMES = EnumSet.allOf(Statistic.class).stream()
+            .map(statistic -> statistic.name().toLowerCase(Locale.ROOT))
+            .collect(Collectors.joining(", "));
+
+    /**
+     * Parses a comma separated list such as {@code min,max,mean}. A blank list selects every statistic.
+     */
+    public static Set<Statistic> parse(String metrics) {
+        if (metrics == null || metrics.isBlank()) {
+            return EnumSet.allOf(Statistic.class);
+        }
+        EnumSet<Statistic> statistics = EnumSet.noneOf(Statistic.class);
+        for (String metric : metrics.split(",")) {
+            try {
+                statistics.add(valueOf(metric.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Metrics must be a comma separated list of: " + NAMES);
+            }
+        }
+        return statistics;
+    }
+}
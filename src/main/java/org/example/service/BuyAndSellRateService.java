@@ -3,6 +3,11 @@ package org.example.service;
 import org.example.dto.DifferenceDto;
 import org.example.dto.RateDto;
 import org.example.dto.TableDto;
+import org.example.jfr.RateComputationEvent;
+import org.example.rate.FixedPoint;
+import org.example.rate.RateSeries;
+import org.example.rate.RateWindow;
+import org.example.rate.SeriesRange;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -15,6 +20,7 @@ public class BuyAndSellRateService {
         if (table == null || !table.getTable().equals("C") || table.getRates().isEmpty()) {
             throw new IllegalStateException();
         }
+        RateComputationEvent event = RateComputationEvent.start();
         List<RateDto> rates = table.getRates();
 
         BigDecimal majorDifference = new BigDecimal(-1);
@@ -32,6 +38,60 @@ public class BuyAndSellRateService {
             }
         }
 
+        event.finish("majorDifference", table.getTable(), table.getCode(), rates.size());
         return new DifferenceDto(majorDifference, rateWithMajorDifference);
     }
+
+    public DifferenceDto computeMajorDifferenceOfWindow(RateWindow window) {
+        if (window == null || !"C".equals(window.getTable()) || window.getSize() == 0) {
+            throw new IllegalStateException();
+        }
+        RateComputationEvent event = RateComputationEvent.start();
+        long[] ask = window.getAsk();
+        long[] bid = window.getBid();
+
+        long majorDifference = -1;
+        int indexWithMajorDifference = -1;
+        for (int i = 0; i < window.getSize(); i++) {
+            if (ask[i] == FixedPoint.ABSENT || bid[i] == FixedPoint.ABSENT)
+                throw new IllegalStateException();
+
+            long currentDifference = Math.abs(ask[i] - bid[i]);
+            if (currentDifference > majorDifference) {
+                majorDifference = currentDifference;
+                indexWithMajorDifference = i;
+            }
+        }
+
+        int scale = Math.max(window.getAskScale()[indexWithMajorDifference], window.getBidScale()[indexWithMajorDifference]);
+        DifferenceDto result = new DifferenceDto(FixedPoint.toDecimal(majorDifference, scale), window.rate(indexWithMajorDifference));
+        event.finish("majorDifference", window.getTable(), window.getCode(), window.getSize());
+        return result;
+    }
+
+    /**
+     * The same result as {@link #computeMajorDifferenceOfWindow} from the spread index of a stored series, in
+     * O(log n) whatever the window size.
+     */
+    public DifferenceDto computeMajorDifferenceOfRange(SeriesRange range) {
+        if (!"C".equals(range.table()) || range.size() <= 0) {
+            throw new IllegalStateException();
+        }
+        RateComputationEvent event = RateComputationEvent.start();
+        RateSeries series = range.series();
+        int index = series.maxSpreadIndex(range.from(), range.to());
+        if (index < 0 || series.ask(index) == FixedPoint.ABSENT || series.bid(index) == FixedPoint.ABSENT) {
+            throw new IllegalStateException();
+        }
+
+        long majorDifference = Math.abs(series.ask(index) - series.bid(index));
+        int scale = Math.max(series.askScale(index), series.bidScale(index));
+        DifferenceDto result = new DifferenceDto(FixedPoint.toDecimal(majorDifference, scale), series.rate(index));
+        event.finish("majorDifference", range.table(), range.code(), range.size());
+        return result;
+    }
+
+    public RateCollector<DifferenceDto> majorDifferenceCollector() {
+        return RateWindow.collector(this::computeMajorDifferenceOfWindow, this::computeMajorDifferenceOfRange);
+    }
 }
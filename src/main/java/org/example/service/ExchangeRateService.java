@@ -1,13 +1,30 @@
 package org.example.service;
 
 import org.example.dto.MaxAndMinDto;
+import org.example.dto.OhlcBarDto;
+import org.example.dto.OhlcDto;
 import org.example.dto.RateDto;
+import org.example.dto.StatisticsDto;
 import org.example.dto.TableDto;
+import org.example.jfr.RateComputationEvent;
+import org.example.rate.FixedPoint;
+import org.example.rate.Interval;
+import org.example.rate.OhlcBar;
+import org.example.rate.RateSeries;
+import org.example.rate.RateStatistics;
+import org.example.rate.RateWindow;
+import org.example.rate.SeriesRange;
+import org.example.rate.Statistic;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ExchangeRateService {
@@ -16,6 +33,7 @@ public class ExchangeRateService {
         if (table == null || !table.getTable().equals("A") || table.getRates().isEmpty()) {
             throw new IllegalStateException();
         }
+        RateComputationEvent event = RateComputationEvent.start();
         List<RateDto> rates = table.getRates();
 
         RateDto maxRate = rates.stream()
@@ -26,6 +44,107 @@ public class ExchangeRateService {
                 .min(Comparator.comparing(rate -> Optional.ofNullable(rate.getMid()).orElseThrow(IllegalStateException::new)))
                 .orElseThrow(IllegalStateException::new);
 
+        event.finish("maxAndMin", table.getTable(), table.getCode(), rates.size());
         return new MaxAndMinDto(maxRate, minRate);
     }
+
+    public MaxAndMinDto computeMaxAndMinValueOfWindow(RateWindow window) {
+        validate(window);
+        RateComputationEvent event = RateComputationEvent.start();
+        RateStatistics statistics = RateStatistics.of(window.getMid(), window.getSize(), EnumSet.of(Statistic.MIN, Statistic.MAX));
+
+        MaxAndMinDto result = new MaxAndMinDto(window.rate(statistics.getMaxIndex()), window.rate(statistics.getMinIndex()));
+        event.finish("maxAndMin", window.getTable(), window.getCode(), window.getSize());
+        return result;
+    }
+
+    /**
+     * The same result as {@link #computeMaxAndMinValueOfWindow} from the range indexes of a stored series, in
+     * O(log n) whatever the window size.
+     */
+    public MaxAndMinDto computeMaxAndMinValueOfRange(SeriesRange range) {
+        if (!"A".equals(range.table()) || range.size() <= 0) {
+            throw new IllegalStateException();
+        }
+        RateComputationEvent event = RateComputationEvent.start();
+        RateSeries series = range.series();
+        int maxIndex = series.maxMidIndex(range.from(), range.to());
+        int minIndex = series.minMidIndex(range.from(), range.to());
+        if (maxIndex < 0 || series.mid(minIndex) == FixedPoint.ABSENT) {
+            throw new IllegalStateException();
+        }
+
+        MaxAndMinDto result = new MaxAndMinDto(series.rate(maxIndex), series.rate(minIndex));
+        event.finish("maxAndMin", range.table(), range.code(), range.size());
+        return result;
+    }
+
+    /**
+     * Open, high, low and close of every period of {@code interval} in a stored range, from the rollups of its series
+     * for the periods it covers whole. Table C has no mid rate, so its price is the middle of bid and ask.
+     */
+    public OhlcDto computeOhlc(SeriesRange range, Interval interval) {
+        if (!"A".equals(range.table()) && !"C".equals(range.table()) || range.size() <= 0) {
+            throw new IllegalStateException();
+        }
+        RateComputationEvent event = RateComputationEvent.start();
+        RateSeries series = range.series();
+        OhlcBar[] bars = series.bars(interval, range.from(), range.to());
+
+        List<OhlcBarDto> result = new ArrayList<>(bars.length);
+        for (OhlcBar bar : bars) {
+            if (series.price(bar.low()) == FixedPoint.ABSENT) {
+                throw new IllegalStateException();
+            }
+            result.add(new OhlcBarDto(
+                    bar.start().toString(),
+                    series.date(bar.first()).toString(),
+                    series.date(bar.last()).toString(),
+                    bar.count(),
+                    series.priceDecimal(bar.first()),
+                    series.priceDecimal(bar.high()),
+                    series.priceDecimal(bar.low()),
+                    series.priceDecimal(bar.last()),
+                    averageSpread(series, bar)));
+        }
+        event.finish("ohlc", range.table(), range.code(), range.size());
+        return new OhlcDto(range.table(), range.code(), interval.name().toLowerCase(), result);
+    }
+
+    public StatisticsDto computeStatistics(RateWindow window, Set<Statistic> selected) {
+        validate(window);
+        RateComputationEvent event = RateComputationEvent.start();
+        RateStatistics statistics = RateStatistics.of(window.getMid(), window.getSize(), selected);
+
+        StatisticsDto result = new StatisticsDto(
+                window.getCode(),
+                selected.contains(Statistic.COUNT) ? statistics.getCount() : null,
+                selected.contains(Statistic.MIN) ? window.rate(statistics.getMinIndex()) : null,
+                selected.contains(Statistic.MAX) ? window.rate(statistics.getMaxIndex()) : null,
+                statistics.getMean(),
+                statistics.getVariance(),
+                selected.contains(Statistic.FIRST) ? window.rate(statistics.getFirstIndex()) : null,
+                selected.contains(Statistic.LAST) ? window.rate(statistics.getLastIndex()) : null);
+        event.finish("statistics", window.getTable(), window.getCode(), window.getSize());
+        return result;
+    }
+
+    public RateCollector<MaxAndMinDto> maxAndMinCollector() {
+        return RateWindow.collector(this::computeMaxAndMinValueOfWindow, this::computeMaxAndMinValueOfRange);
+    }
+
+    private static BigDecimal averageSpread(RateSeries series, OhlcBar bar) {
+        if (bar.spreadCount() == 0) {
+            return null;
+        }
+        int scale = Math.max(series.bidScale(bar.last()), series.askScale(bar.last()));
+        return BigDecimal.valueOf(bar.spreadSum(), FixedPoint.SCALE)
+                .divide(BigDecimal.valueOf(bar.spreadCount()), scale, RoundingMode.HALF_UP);
+    }
+
+    private void validate(RateWindow window) {
+        if (window == null || !"A".equals(window.getTable()) || window.getSize() == 0) {
+            throw new IllegalStateException();
+        }
+    }
 }
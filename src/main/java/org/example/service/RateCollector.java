@@ -0,0 +1,28 @@
+package org.example.service;
+
+import org.example.rate.FixedPointRate;
+import org.example.rate.SeriesRange;
+import org.springframework.lang.Nullable;
+
+/**
+ * Receives NBP quotations one at a time, in the order they are read from a response, so a computation does not
+ * need the whole table in memory. {@link #table} is called once before the first rate. The same
+ * {@link FixedPointRate} instance is passed for every quotation, so it has to be copied to be kept.
+ */
+public interface RateCollector<R> {
+
+    void table(String table, String currency, String code);
+
+    void rate(FixedPointRate rate);
+
+    R result();
+
+    /**
+     * Computes the result straight from stored quotations, e.g. with the range indexes of the series. Returns
+     * {@code null} to have them passed one at a time to {@link #rate} instead, which is what collectors do by default.
+     */
+    @Nullable
+    default R range(SeriesRange range) {
+        return null;
+    }
+}
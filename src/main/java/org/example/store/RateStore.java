@@ -0,0 +1,510 @@
+package org.example.store;
+
+import org.example.client.NbpCalendar;
+import org.example.client.NbpTable;
+import org.example.dto.RateDto;
+import org.example.dto.TableDto;
+import org.example.rate.FixedPoint;
+import org.example.rate.FixedPointRate;
+import org.example.rate.RateSeries;
+import org.example.rate.RateWindow;
+import org.example.rate.SeriesRange;
+import org.example.service.RateCollector;
+import org.springframework.lang.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded store of every published quotation the service has fetched, kept in one append-only file per NBP table
+ * and held in memory as a {@link RateSeries} per currency. Published quotations never change, so the store only
+ * grows.
+ * <p>
+ * Besides the quotations it records which date ranges of a currency are complete, i.e. were fetched as a whole and
+ * so hold every quotation NBP published in them, and which dates were fetched as a whole table. Only complete
+ * ranges can answer "last N" windows.
+ * <p>
+ * Writers append and sync a batch under the table's lock before publishing a new series, so readers never wait
+ * and never see quotations that are not on disk. A line cut short by a crash is dropped when the file is replayed.
+ * A line that cannot be read ends the replay: it and every later line are dropped from the file and counted as a
+ * replay error, so no complete range outlives a quotation it covers. What they held is fetched again when needed.
+ * <p>
+ * File lines, tab separated: {@code Q code currency no date bid ask mid} for a quotation (empty for a missing
+ * value), {@code C code from to} for a complete range and {@code T date} for a whole table.
+ */
+public class RateStore implements Closeable {
+    private static final String SUFFIX = ".tsv";
+
+    private final Path directory;
+    private final Map<String, TableFile> tables = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+    private final LongAdder replayErrors = new LongAdder();
+
+    public RateStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        try (var files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                table(name.substring(0, name.length() - SUFFIX.length()));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (TableFile table : tables.values()) {
+            synchronized (table) {
+                table.channel.close();
+            }
+        }
+    }
+
+    @Nullable
+    public TableDto get(String table, String code, String date) {
+        Series series = series(table, code);
+        RateSeries quotes = series == null ? RateSeries.EMPTY : series.quotes;
+        int index = quotes.indexOf(LocalDate.parse(date));
+        if (index < 0) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new TableDto(table, series.currency, code, List.of(quotes.rate(index)));
+    }
+
+    @Nullable
+    public NbpTable getTable(String table, String date) {
+        TableFile file = tables.get(table);
+        LocalDate day = LocalDate.parse(date);
+        if (file == null || !file.wholeTables.contains(day)) {
+            misses.increment();
+            return null;
+        }
+        List<TableDto> rates = new ArrayList<>();
+        file.series.forEach((code, series) -> {
+            RateSeries quotes = series.quotes;
+            int index = quotes.indexOf(day);
+            if (index >= 0) {
+                rates.add(new TableDto(table, series.currency, code, List.of(quotes.rate(index))));
+            }
+        });
+        hits.increment();
+        return NbpTable.of(date, rates);
+    }
+
+    /**
+     * Hands the last {@code quotations} quotations of a currency to {@code collector}, as a {@link SeriesRange} or one
+     * at a time, if the store holds a complete range that reaches at least {@code latest}, the newest date NBP should
+     * have published by now. Returns {@code null} without touching the collector otherwise.
+     */
+    @Nullable
+    public <R> R collectLast(String table, String code, int quotations, LocalDate latest, RateCollector<R> collector) {
+        Series series = series(table, code);
+        // ranges are published after their quotations, so they have to be read first
+        Map.Entry<LocalDate, LocalDate> complete = series == null ? null : series.complete.floorEntry(latest);
+        if (complete == null || complete.getValue().isBefore(latest)) {
+            misses.increment();
+            return null;
+        }
+        RateSeries quotes = series.quotes;
+        int last = quotes.floorIndex(complete.getValue());
+        int first = last - quotations + 1;
+        if (first < 0 || quotes.date(first).isBefore(complete.getKey())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+
+        R indexed = collector.range(new SeriesRange(table, series.currency, code, quotes, first, last));
+        if (indexed != null) {
+            return indexed;
+        }
+        collector.table(table, series.currency, code);
+        FixedPointRate rate = new FixedPointRate();
+        for (int i = first; i <= last; i++) {
+            quotes.copyTo(i, rate);
+            collector.rate(rate);
+        }
+        return collector.result();
+    }
+
+    /**
+     * The parts of {@code from} to {@code to} that are not covered by complete ranges of a currency, in order, as
+     * start and end dates. Weekends and holidays alone are not reported, as NBP publishes nothing on them.
+     */
+    public Map<LocalDate, LocalDate> missing(String table, String code, LocalDate from, LocalDate to) {
+        Series series = series(table, code);
+        NavigableMap<LocalDate, LocalDate> complete = series == null ? Collections.emptyNavigableMap() : series.complete;
+        Map<LocalDate, LocalDate> missing = new LinkedHashMap<>();
+        LocalDate next = from;
+        Map.Entry<LocalDate, LocalDate> covering = complete.floorEntry(from);
+        if (covering != null && !covering.getValue().isBefore(from)) {
+            next = covering.getValue().plusDays(1);
+        }
+        for (Map.Entry<LocalDate, LocalDate> range : complete.subMap(from, false, to, true).entrySet()) {
+            addGap(missing, next, range.getKey().minusDays(1));
+            next = range.getValue().plusDays(1).isAfter(next) ? range.getValue().plusDays(1) : next;
+        }
+        addGap(missing, next, to);
+        if (missing.isEmpty()) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return missing;
+    }
+
+    /**
+     * The stored quotations of a currency from {@code from} to {@code to}, complete or not, or {@code null} if there
+     * are none.
+     */
+    @Nullable
+    public SeriesRange range(String table, String code, LocalDate from, LocalDate to) {
+        Series series = series(table, code);
+        return series == null ? null : SeriesRange.between(table, series.currency, code, series.quotes, from, to);
+    }
+
+    /**
+     * Stores the quotations of a window and marks {@code from} to {@code to} as complete for its currency.
+     */
+    public void ingest(RateWindow window, LocalDate from, LocalDate to) {
+        Batch batch = new Batch();
+        for (int i = 0; i < window.getSize(); i++) {
+            FixedPointRate rate = new FixedPointRate();
+            window.copyTo(i, rate);
+            batch.quotes.add(new Entry(window.getCode(), window.getCurrency(), LocalDate.parse(rate.getEffectiveDate()), rate));
+        }
+        batch.ranges.add(new Range(window.getCode(), from, to));
+        append(window.getTable(), batch);
+    }
+
+    /**
+     * Stores the quotation of a single date response as complete for that date.
+     */
+    public void ingest(TableDto rates) {
+        Batch batch = new Batch();
+        for (RateDto rate : rates.getRates()) {
+            LocalDate date = LocalDate.parse(rate.getEffectiveDate());
+            batch.quotes.add(new Entry(rates.getCode(), rates.getCurrency(), date, fixedPoint(rate)));
+            batch.ranges.add(new Range(rates.getCode(), date, date));
+        }
+        append(rates.getTable(), batch);
+    }
+
+    public void ingestTable(String table, String date, NbpTable rates) {
+        Batch batch = new Batch();
+        for (TableDto currency : rates.values()) {
+            for (RateDto rate : currency.getRates()) {
+                LocalDate day = LocalDate.parse(rate.getEffectiveDate());
+                batch.quotes.add(new Entry(currency.getCode(), currency.getCurrency(), day, fixedPoint(rate)));
+                batch.ranges.add(new Range(currency.getCode(), day, day));
+            }
+        }
+        batch.wholeTable = LocalDate.parse(date);
+        append(table, batch);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getWriteErrors() {
+        return writeErrors.sum();
+    }
+
+    public long getReplayErrors() {
+        return replayErrors.sum();
+    }
+
+    public long size() {
+        long size = 0;
+        for (TableFile table : tables.values()) {
+            size += table.size.sum();
+        }
+        return size;
+    }
+
+    /**
+     * A failed write is counted and otherwise ignored: the store only holds copies of NBP data, so whatever is missing
+     * is fetched again the next time it is needed.
+     */
+    private void append(String table, Batch batch) {
+        try {
+            write(table(table), batch);
+        } catch (IOException e) {
+            writeErrors.increment();
+        }
+    }
+
+    private void write(TableFile file, Batch batch) throws IOException {
+        synchronized (file) {
+            StringBuilder lines = new StringBuilder();
+            List<Entry> newQuotes = new ArrayList<>();
+            for (Entry entry : batch.quotes) {
+                Series series = file.series.get(entry.code());
+                if (series == null || series.quotes.indexOf(entry.date()) < 0) {
+                    newQuotes.add(entry);
+                    entry.write(lines);
+                }
+            }
+            List<Range> newRanges = new ArrayList<>();
+            for (Range range : batch.ranges) {
+                Series series = file.series.get(range.code());
+                if (range.from().isAfter(range.to())) {
+                    continue;
+                }
+                Map.Entry<LocalDate, LocalDate> covering = series == null ? null : series.complete.floorEntry(range.from());
+                if (covering == null || covering.getValue().isBefore(range.to())) {
+                    newRanges.add(range);
+                    range.write(lines);
+                }
+            }
+            boolean newTable = batch.wholeTable != null && !file.wholeTables.contains(batch.wholeTable);
+            if (newTable) {
+                lines.append("T\t").append(batch.wholeTable).append('\n');
+            }
+            if (lines.isEmpty()) {
+                return;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            long position = file.channel.position();
+            try {
+                while (buffer.hasRemaining()) {
+                    file.channel.write(buffer);
+                }
+                file.channel.force(false);
+            } catch (IOException e) {
+                file.channel.truncate(position);
+                throw e;
+            }
+
+            file.apply(newQuotes);
+            newRanges.forEach(file::apply);
+            if (newTable) {
+                file.wholeTables.add(batch.wholeTable);
+            }
+        }
+    }
+
+    @Nullable
+    private Series series(String table, String code) {
+        TableFile file = tables.get(table);
+        return file == null ? null : file.series.get(code);
+    }
+
+    private TableFile table(String table) throws IOException {
+        TableFile file = tables.get(table);
+        if (file != null) {
+            return file;
+        }
+        synchronized (tables) {
+            file = tables.get(table);
+            if (file == null) {
+                file = TableFile.replay(directory.resolve(table + SUFFIX), replayErrors);
+                tables.put(table, file);
+            }
+            return file;
+        }
+    }
+
+    private static class TableFile {
+        private final FileChannel channel;
+        private final Map<String, Series> series = new ConcurrentHashMap<>();
+        private final NavigableSet<LocalDate> wholeTables = new ConcurrentSkipListSet<>();
+        private final LongAdder size = new LongAdder();
+        // every currency of a table shares the table number of a date, so it is kept once
+        private final Map<String, String> numbers = new HashMap<>();
+
+        private TableFile(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        static TableFile replay(Path path, LongAdder errors) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            TableFile file = new TableFile(channel);
+            byte[] content = Files.readAllBytes(path);
+            int end = content.length;
+            while (end > 0 && content[end - 1] != '\n') {
+                end--;
+            }
+            List<Entry> quotes = new ArrayList<>();
+            int start = 0;
+            while (start < end) {
+                int next = start;
+                while (content[next] != '\n') {
+                    next++;
+                }
+                if (!file.replay(new String(content, start, next - start, StandardCharsets.UTF_8), quotes)) {
+                    errors.increment();
+                    end = start;
+                    break;
+                }
+                start = next + 1;
+            }
+            file.apply(quotes);
+            channel.truncate(end);
+            channel.position(end);
+            return file;
+        }
+
+        /**
+         * Restores one line, or returns {@code false} if it cannot be read.
+         */
+        private boolean replay(String line, List<Entry> quotes) {
+            String[] fields = line.split("\t", -1);
+            try {
+                switch (fields[0]) {
+                    case "Q" -> quotes.add(new Entry(fields[1], fields[2], LocalDate.parse(fields[4]),
+                            fixedPoint(new RateDto(fields[3], fields[4], decimal(fields[5]), decimal(fields[6]), decimal(fields[7])))));
+                    case "C" -> apply(new Range(fields[1], LocalDate.parse(fields[2]), LocalDate.parse(fields[3])));
+                    case "T" -> wholeTables.add(LocalDate.parse(fields[1]));
+                    default -> {
+                        // blank or unknown line, nothing to restore
+                    }
+                }
+            } catch (RuntimeException e) {
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Publishes one new series per currency, so a batch costs a single copy of each series it touches.
+         */
+        private void apply(List<Entry> quotes) {
+            Map<String, RateSeries.Builder> additions = new LinkedHashMap<>();
+            for (Entry entry : quotes) {
+                Series target = series.computeIfAbsent(entry.code(), code -> new Series());
+                target.currency = entry.currency();
+                entry.rate().setNo(numbers.computeIfAbsent(entry.rate().getNo(), no -> no));
+                additions.computeIfAbsent(entry.code(), code -> RateSeries.builder()).add(entry.date(), entry.rate());
+            }
+            additions.forEach((code, added) -> {
+                Series target = series.get(code);
+                int before = target.quotes.size();
+                target.quotes = target.quotes.merge(added);
+                size.add(target.quotes.size() - before);
+            });
+        }
+
+        private void apply(Range range) {
+            Series target = series.computeIfAbsent(range.code(), code -> new Series());
+            target.complete = merge(target.complete, range.from(), range.to());
+        }
+
+        @Nullable
+        private static BigDecimal decimal(String value) {
+            return value.isEmpty() ? null : new BigDecimal(value);
+        }
+    }
+
+    private static FixedPointRate fixedPoint(RateDto source) {
+        FixedPointRate rate = new FixedPointRate();
+        rate.setNo(source.getNo());
+        rate.setEffectiveDate(source.getEffectiveDate());
+        rate.setBid(FixedPoint.toScaled(source.getBid()));
+        rate.setBidScale(FixedPoint.scaleOf(source.getBid()));
+        rate.setAsk(FixedPoint.toScaled(source.getAsk()));
+        rate.setAskScale(FixedPoint.scaleOf(source.getAsk()));
+        rate.setMid(FixedPoint.toScaled(source.getMid()));
+        rate.setMidScale(FixedPoint.scaleOf(source.getMid()));
+        return rate;
+    }
+
+    private static void addGap(Map<LocalDate, LocalDate> missing, LocalDate from, LocalDate to) {
+        if (!NbpCalendar.nextPublicationDay(from.minusDays(1)).isAfter(to)) {
+            missing.put(from, to);
+        }
+    }
+
+    /**
+     * Adds a range to a copy of the complete ranges, joining it with ranges it overlaps or touches, also across a
+     * weekend or holiday, so that tables stored day by day make up one range.
+     */
+    private static NavigableMap<LocalDate, LocalDate> merge(NavigableMap<LocalDate, LocalDate> ranges, LocalDate from, LocalDate to) {
+        TreeMap<LocalDate, LocalDate> merged = new TreeMap<>(ranges);
+        Map.Entry<LocalDate, LocalDate> before = merged.floorEntry(from);
+        if (before != null && !NbpCalendar.nextPublicationDay(before.getValue()).isBefore(from)) {
+            from = before.getKey();
+            to = to.isAfter(before.getValue()) ? to : before.getValue();
+            merged.remove(before.getKey());
+        }
+        Map.Entry<LocalDate, LocalDate> after = merged.ceilingEntry(from);
+        while (after != null && !after.getKey().isAfter(NbpCalendar.nextPublicationDay(to))) {
+            to = to.isAfter(after.getValue()) ? to : after.getValue();
+            merged.remove(after.getKey());
+            after = merged.ceilingEntry(from);
+        }
+        merged.put(from, to);
+        return Collections.unmodifiableNavigableMap(merged);
+    }
+
+    private static class Series {
+        private volatile String currency;
+        private volatile RateSeries quotes = RateSeries.EMPTY;
+        private volatile NavigableMap<LocalDate, LocalDate> complete = Collections.emptyNavigableMap();
+    }
+
+    private static class Batch {
+        private final List<Entry> quotes = new ArrayList<>();
+        private final List<Range> ranges = new ArrayList<>();
+        private LocalDate wholeTable;
+    }
+
+    private record Entry(String code, String currency, LocalDate date, FixedPointRate rate) {
+        void write(StringBuilder lines) {
+            lines.append("Q\t").append(code).append('\t').append(clean(currency)).append('\t').append(clean(rate.getNo()))
+                    .append('\t').append(date)
+                    .append('\t').append(text(rate.getBid(), rate.getBidScale()))
+                    .append('\t').append(text(rate.getAsk(), rate.getAskScale()))
+                    .append('\t').append(text(rate.getMid(), rate.getMidScale()))
+                    .append('\n');
+        }
+
+        private static String text(long value, int scale) {
+            BigDecimal decimal = FixedPoint.toDecimal(value, scale);
+            return decimal == null ? "" : decimal.toPlainString();
+        }
+
+        private static String clean(String value) {
+            return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ');
+        }
+    }
+
+    private record Range(String code, LocalDate from, LocalDate to) {
+        void write(StringBuilder lines) {
+            lines.append("C\t").append(code).append('\t').append(from).append('\t').append(to).append('\n');
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.store;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Opens the {@link RateStore} in {@code nbp.store.directory} when {@code nbp.store.enabled} is set. Lookups are
+ * counted as {@code nbp.store.requests} by result, the stored quotations as the {@code nbp.store.quotations} gauge.
+ */
+@Configuration
+@ConditionalOnProperty(name = "nbp.store.enabled", havingValue = "true")
+public class RateStoreConfiguration {
+    @Value("${nbp.store.directory}")
+    private Path directory;
+
+    @Bean(initMethod = "open", destroyMethod = "close")
+    public RateStore rateStore(MeterRegistry meterRegistry) {
+        RateStore store = new RateStore(directory);
+        FunctionCounter.builder("nbp.store.requests", store, RateStore::getHits)
+                .description("Rate store lookups by result")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("nbp.store.requests", store, RateStore::getMisses)
+                .description("Rate store lookups by result")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("nbp.store.write.errors", store, RateStore::getWriteErrors)
+                .description("Rate store writes that failed")
+                .register(meterRegistry);
+        FunctionCounter.builder("nbp.store.replay.errors", store, RateStore::getReplayErrors)
+                .description("Rate store lines that could not be read back, dropped with every later line")
+                .register(meterRegistry);
+        Gauge.builder("nbp.store.quotations", store, RateStore::size)
+                .description("Quotations held by the rate store")
+                .register(meterRegistry);
+        return store;
+    }
+}
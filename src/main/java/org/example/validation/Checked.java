@@ -0,0 +1,39 @@
+package org.example.validation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Names the {@link RequestValidation} check of a handler method, so the {@link ValidationInterceptor} can make it
+ * before dispatch.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Checked {
+    Check value();
+
+    enum Check {
+        /**
+         * {@link RequestValidation#checkRate} of the {@code currency} and {@code date} path variables and the
+         * {@code fallback} parameter.
+         */
+        RATE,
+        /**
+         * {@link RequestValidation#checkRates} of the {@code date} path variable and the {@code currencies} and
+         * {@code fallback} parameters.
+         */
+        RATES,
+        /**
+         * {@link RequestValidation#checkQuotations} of the {@code currency} path variable and the
+         * {@code quotations} parameter.
+         */
+        QUOTATIONS,
+        /**
+         * {@link RequestValidation#checkOhlc} of the {@code currency} path variable and the {@code table},
+         * {@code interval}, {@code from} and {@code to} parameters.
+         */
+        OHLC
+    }
+}
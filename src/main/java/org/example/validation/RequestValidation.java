@@ -0,0 +1,241 @@
+package org.example.validation;
+
+import org.example.rate.Interval;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.temporal.ChronoUnit;
+import java.util.Currency;
+
+/**
+ * Checks for API parameters that neither compile a regex nor throw, so a rejected request costs a few comparisons.
+ * <p>
+ * Each {@code check} method makes all checks of one kind of endpoint in the order the controller needs them and
+ * returns the message of the first that fails, or {@code null}. The controllers throw it through
+ * {@link #require(String)} and the {@link ValidationInterceptor} writes it before dispatch, so both reject a request
+ * the same way. A required parameter that is {@code null} passes every check, as Spring rejects its absence before
+ * the controller runs.
+ */
+public final class RequestValidation {
+    public static final String INVALID_CURRENCY = "Currency must be in ISO-4217 standard";
+    public static final String INVALID_DATE = "Date must be in ISO-8601 standard";
+    public static final String INVALID_QUOTATIONS = "Quotations must be a positive integer";
+    public static final String INVALID_TABLE = "Table must be A or C";
+    public static final String INVALID_FALLBACK = "Fallback must be previous";
+    public static final String INVALID_RANGE = "Date from must not be after date to";
+
+    private static final int LETTERS = 26;
+    private static final boolean[] CURRENCIES = new boolean[LETTERS * LETTERS * LETTERS];
+
+    static {
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            int index = currencyIndex(currency.getCurrencyCode());
+            if (index >= 0) {
+                CURRENCIES[index] = true;
+            }
+        }
+    }
+
+    private RequestValidation() {
+    }
+
+    /**
+     * Whether {@code code} is an ISO-4217 currency code known to the JDK.
+     */
+    public static boolean isCurrency(String code) {
+        int index = currencyIndex(code);
+        return index >= 0 && CURRENCIES[index];
+    }
+
+    /**
+     * The date of a {@code yyyy-MM-dd} string, or {@code null} if it has another format or names no real day.
+     */
+    @Nullable
+    public static LocalDate parseDate(String date) {
+        if (date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return null;
+        }
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 7);
+        int day = digits(date, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * The number of quotations, 1 to 9 digits, or -1 if {@code quotations} is not such a number.
+     */
+    public static int parseQuotations(String quotations) {
+        if (quotations.isEmpty() || quotations.length() > 9) {
+            return -1;
+        }
+        return digits(quotations, 0, quotations.length());
+    }
+
+    /**
+     * Throws the {@code error} of a {@code check} method, if there is one.
+     */
+    public static void require(@Nullable String error) {
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    public static String tooManyQuotations(int maxQuotations) {
+        return "Quotations must not exceed " + maxQuotations;
+    }
+
+    public static String tooManyDays(int maxDays) {
+        return "Date range must not exceed " + maxDays + " days";
+    }
+
+    /**
+     * Checks the rate of one currency on a {@code date}, optionally falling back to an earlier one.
+     */
+    @Nullable
+    public static String checkRate(String currency, String date, @Nullable String fallback) {
+        if (!isCurrency(currency)) {
+            return INVALID_CURRENCY;
+        }
+        if (parseDate(date) == null) {
+            return INVALID_DATE;
+        }
+        return checkFallback(fallback);
+    }
+
+    /**
+     * Checks the rates of comma separated {@code currencies} on a {@code date}, optionally falling back to an earlier
+     * one.
+     */
+    @Nullable
+    public static String checkRates(String date, @Nullable String currencies, @Nullable String fallback) {
+        if (currencies == null) {
+            return null;
+        }
+        if (parseDate(date) == null) {
+            return INVALID_DATE;
+        }
+        if (!allCurrencies(currencies)) {
+            return INVALID_CURRENCY;
+        }
+        return checkFallback(fallback);
+    }
+
+    /**
+     * Checks the last {@code quotations} of a currency.
+     */
+    @Nullable
+    public static String checkQuotations(String currency, @Nullable String quotations, int maxQuotations) {
+        if (quotations == null) {
+            return null;
+        }
+        if (!isCurrency(currency)) {
+            return INVALID_CURRENCY;
+        }
+        int size = parseQuotations(quotations);
+        if (size < 0) {
+            return INVALID_QUOTATIONS;
+        }
+        if (size > maxQuotations) {
+            return tooManyQuotations(maxQuotations);
+        }
+        return null;
+    }
+
+    /**
+     * Checks bars of a currency by {@code interval} from one date to another, in table A unless {@code table} is
+     * given.
+     */
+    @Nullable
+    public static String checkOhlc(String currency, @Nullable String table, @Nullable String interval,
+                                   @Nullable String from, @Nullable String to, int maxDays) {
+        if (interval == null || from == null || to == null) {
+            return null;
+        }
+        if (!isCurrency(currency)) {
+            return INVALID_CURRENCY;
+        }
+        if (table != null && !table.equals("A") && !table.equals("C")) {
+            return INVALID_TABLE;
+        }
+        if (Interval.find(interval) == null) {
+            return Interval.INVALID;
+        }
+        LocalDate start = parseDate(from);
+        LocalDate end = parseDate(to);
+        if (start == null || end == null) {
+            return INVALID_DATE;
+        }
+        if (start.isAfter(end)) {
+            return INVALID_RANGE;
+        }
+        if (ChronoUnit.DAYS.between(start, end) + 1 > maxDays) {
+            return tooManyDays(maxDays);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static String checkFallback(@Nullable String fallback) {
+        if (fallback != null && !fallback.equals("previous")) {
+            return INVALID_FALLBACK;
+        }
+        return null;
+    }
+
+    /**
+     * Splits on commas like {@link String#split} does, so trailing empty codes are ignored as in the controller.
+     */
+    private static boolean allCurrencies(String currencies) {
+        if (currencies.isEmpty()) {
+            return false;
+        }
+        int length = currencies.length();
+        while (length > 0 && currencies.charAt(length - 1) == ',') {
+            length--;
+        }
+        int start = 0;
+        while (start < length) {
+            int end = currencies.indexOf(',', start);
+            if (end < 0 || end > length) {
+                end = length;
+            }
+            if (!isCurrency(currencies.substring(start, end))) {
+                return false;
+            }
+            start = end + 1;
+        }
+        return true;
+    }
+
+    private static int currencyIndex(String code) {
+        if (code.length() != 3) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = code.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return -1;
+            }
+            index = index * LETTERS + (c - 'A');
+        }
+        return index;
+    }
+
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
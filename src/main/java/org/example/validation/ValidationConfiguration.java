@@ -0,0 +1,37 @@
+package org.example.validation;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/**
+ * Rejects invalid {@code /api/**} requests before dispatch, unless {@code nbp.validation.fast-reject} is off. It runs
+ * after the stage timing interceptor, so rejected requests are still timed.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ValidationConfiguration implements WebMvcConfigurer {
+    @Autowired
+    private ObjectProvider<RequestMappingHandlerAdapter> adapter;
+
+    @Value("${nbp.validation.fast-reject}")
+    private boolean fastReject;
+
+    @Value("${nbp.quotations.max}")
+    private int maxQuotations;
+
+    @Value("${nbp.ohlc.max-days}")
+    private int maxOhlcDays;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (fastReject) {
+            registry.addInterceptor(new ValidationInterceptor(maxQuotations, maxOhlcDays, adapter)).addPathPatterns("/api/**").order(1);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.validation;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.HttpEntityMethodProcessor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Makes the {@link RequestValidation} check a handler method names with {@link Checked} before the controller is
+ * called. A rejected request gets the 400 {@code RestExceptionHandler} would give the controller's
+ * {@link IllegalArgumentException}, written by the same return value handler, without that exception being created.
+ * <p>
+ * Requests with a {@code detailed} flag Spring cannot convert are left to dispatch, as binding it fails before the
+ * controller's own checks.
+ */
+class ValidationInterceptor implements HandlerInterceptor {
+    private static final Set<String> BOOLEANS = Set.of("true", "false", "on", "off", "yes", "no", "1", "0", "");
+    private static final MethodParameter RETURN_TYPE = new MethodParameter(
+            ReflectionUtils.findMethod(ValidationInterceptor.class, "badRequest", String.class), -1);
+
+    private final int maxQuotations;
+    private final int maxOhlcDays;
+    private final ObjectProvider<RequestMappingHandlerAdapter> adapter;
+    private volatile HandlerMethodReturnValueHandler writer;
+
+    ValidationInterceptor(int maxQuotations, int maxOhlcDays, ObjectProvider<RequestMappingHandlerAdapter> adapter) {
+        this.maxQuotations = maxQuotations;
+        this.maxOhlcDays = maxOhlcDays;
+        this.adapter = adapter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Checked checked = handlerMethod.getMethodAnnotation(Checked.class);
+        if (checked == null || !isBoolean(request.getParameter("detailed"))) {
+            return true;
+        }
+        String error = check(checked.value(), request);
+        if (error == null) {
+            return true;
+        }
+        writer().handleReturnValue(badRequest(error), RETURN_TYPE, new ModelAndViewContainer(),
+                new ServletWebRequest(request, response));
+        return false;
+    }
+
+    private String check(Checked.Check check, HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return switch (check) {
+            case RATE -> RequestValidation.checkRate(variables.get("currency"), variables.get("date"),
+                    request.getParameter("fallback"));
+            case RATES -> RequestValidation.checkRates(variables.get("date"), request.getParameter("currencies"),
+                    request.getParameter("fallback"));
+            case QUOTATIONS -> RequestValidation.checkQuotations(variables.get("currency"),
+                    request.getParameter("quotations"), maxQuotations);
+            case OHLC -> RequestValidation.checkOhlc(variables.get("currency"), request.getParameter("table"),
+                    request.getParameter("interval"), request.getParameter("from"), request.getParameter("to"),
+                    maxOhlcDays);
+        };
+    }
+
+    private HandlerMethodReturnValueHandler writer() {
+        HandlerMethodReturnValueHandler handler = writer;
+        if (handler == null) {
+            handler = adapter.getObject().getReturnValueHandlers().stream()
+                    .filter(HttpEntityMethodProcessor.class::isInstance)
+                    .findFirst()
+                    .orElseThrow();
+            writer = handler;
+        }
+        return handler;
+    }
+
+    private static boolean isBoolean(String value) {
+        return value == null || BOOLEANS.contains(value.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static ResponseEntity<Object> badRequest(String error) {
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+}
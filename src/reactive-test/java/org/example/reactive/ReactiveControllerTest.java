@@ -0,0 +1,167 @@
+package org.example.reactive;
+
+import com.sun.net.httpserver.HttpServer;
+import org.example.cache.NbpResponseCache;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+public class ReactiveControllerTest {
+    private static final Map<String, String> RESPONSES = Map.of(
+            "/api/exchangerates/rates/A/GBP/last/3/",
+            "{\"table\":\"A\",\"currency\":\"funt szterling\",\"code\":\"GBP\",\"rates\":["
+                    + "{\"no\":\"174/A/NBP/2022\",\"effectiveDate\":\"2022-09-08\",\"mid\":5.4322},"
+                    + "{\"no\":\"175/A/NBP/2022\",\"effectiveDate\":\"2022-09-09\",\"mid\":5.3902},"
+                    + "{\"no\":\"176/A/NBP/2022\",\"effectiveDate\":\"2022-09-12\",\"mid\":5.4409}]}",
+            "/api/exchangerates/rates/C/GBP/last/2/",
+            "{\"table\":\"C\",\"currency\":\"funt szterling\",\"code\":\"GBP\",\"rates\":["
+                    + "{\"no\":\"078/C/NBP/2023\",\"effectiveDate\":\"2023-04-21\",\"bid\":5.2001,\"ask\":5.3051},"
+                    + "{\"no\":\"079/C/NBP/2023\",\"effectiveDate\":\"2023-04-24\",\"bid\":5.1540,\"ask\":5.2582}]}",
+            "/api/exchangerates/rates/A/GBP/2022-09-08/",
+            "{\"table\":\"A\",\"currency\":\"funt szterling\",\"code\":\"GBP\",\"rates\":["
+                    + "{\"no\":\"174/A/NBP/2022\",\"effectiveDate\":\"2022-09-08\",\"mid\":5.4322}]}");
+
+    private static final HttpServer NBP = startNbp();
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private NbpResponseCache cache;
+
+    @DynamicPropertySource
+    static void nbpProperties(DynamicPropertyRegistry registry) {
+        registry.add("nbp.api.url", () -> "http://localhost:" + NBP.getAddress().getPort() + "/api/exchangerates/");
+    }
+
+    @Before
+    public void setUp() {
+        cache.invalidateAll();
+    }
+
+    @AfterClass
+    public static void stopNbp() {
+        NBP.stop(0);
+    }
+
+    @Test
+    public void getExchangeRate_shouldReturnMid() {
+        client.get().uri("/api/exchange/GBP/2022-09-08").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("5.4322");
+
+        client.get().uri("/api/exchange/GBP/2022-09-08?detailed=true").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.rates[0].no").isEqualTo("174/A/NBP/2022");
+    }
+
+    @Test
+    public void getMaxAndMin_shouldReturnSameResponseAsServletStack() {
+        client.get().uri("/api/exchange/GBP/max-min?quotations=3").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Max rate: 5.4409, Min rate: 5.3902");
+
+        client.get().uri("/api/exchange/GBP/max-min?quotations=3&detailed=true").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"maxRate\":{\"no\":\"176/A/NBP/2022\",\"effectiveDate\":\"2022-09-12\",\"bid\":null,\"ask\":null,\"mid\":5.4409},"
+                        + "\"minRate\":{\"no\":\"175/A/NBP/2022\",\"effectiveDate\":\"2022-09-09\",\"bid\":null,\"ask\":null,\"mid\":5.3902}}");
+    }
+
+    @Test
+    public void getMajorDifference_shouldReturnSameResponseAsServletStack() {
+        client.get().uri("/api/buy-and-sell/GBP/difference?quotations=2&detailed=true").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"difference\":0.1050,\"rate\":{\"no\":\"078/C/NBP/2023\",\"effectiveDate\":\"2023-04-21\",\"bid\":5.2001,\"ask\":5.3051,\"mid\":null}}");
+    }
+
+    @Test
+    public void errors_shouldMapLikeServletStack() {
+        client.get().uri("/api/exchange/GBP/2008-04-05").exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("Data not found");
+
+        client.get().uri("/api/exchange/GBP/max-min?quotations=-3").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Quotations must be a positive integer");
+
+        client.get().uri("/api/buy-and-sell/GBPP/difference?quotations=2").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Currency must be in ISO-4217 standard");
+
+        client.get().uri("/api/exchange/GBP/max-min").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("quotations parameter is required in the path");
+    }
+
+    @Test
+    public void getExchangeRate_whenCurrencyIsNotIso_shouldReturn400LikeServletStack() {
+        client.get().uri("/api/exchange/XYZ/2022-09-08").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Currency must be in ISO-4217 standard");
+    }
+
+    @Test
+    public void getExchangeRate_whenDayDoesNotExist_shouldReturn400LikeServletStack() {
+        client.get().uri("/api/exchange/GBP/2023-02-29").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Date must be in ISO-8601 standard");
+    }
+
+    @Test
+    public void quotations_whenAboveMaximum_shouldReturn400() {
+        client.get().uri("/api/exchange/GBP/max-min?quotations=100000").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Quotations must not exceed 255");
+
+        client.get().uri("/api/buy-and-sell/GBP/difference?quotations=100000").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Quotations must not exceed 255");
+    }
+
+    @Test
+    public void quotations_whenAboveSingleNbpCall_shouldReturn400() {
+        client.get().uri("/api/exchange/GBP/max-min?quotations=300").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Quotations must not exceed 255");
+
+        client.get().uri("/api/buy-and-sell/GBP/difference?quotations=300").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Quotations must not exceed 255");
+    }
+
+    private static HttpServer startNbp() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                String body = RESPONSES.get(exchange.getRequestURI().getPath());
+                byte[] bytes = (body == null ? "404 NotFound" : body).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", body == null ? "text/plain" : "application/json");
+                exchange.sendResponseHeaders(body == null ? 404 : 200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
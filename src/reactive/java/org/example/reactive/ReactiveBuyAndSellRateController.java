@@ -0,0 +1,49 @@
+package org.example.reactive;
+
+import jakarta.annotation.PostConstruct;
+import org.example.client.NbpQuery;
+import org.example.dto.DifferenceDto;
+import org.example.service.BuyAndSellRateService;
+import org.example.validation.RequestValidation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/buy-and-sell")
+public class ReactiveBuyAndSellRateController {
+    @Autowired
+    private BuyAndSellRateService service;
+
+    @Autowired
+    private ReactiveNbpClient nbpClient;
+
+    @Value("${nbp.quotations.max}")
+    private int maxQuotations;
+
+    @PostConstruct
+    void init() {
+        maxQuotations = Math.min(maxQuotations, ReactiveNbpClient.MAX_QUOTATIONS);
+    }
+
+    @GetMapping("/{currency}/difference")
+    public Mono<ResponseEntity<?>> getMajorDifference(@PathVariable String currency, @RequestParam String quotations, @RequestParam(defaultValue = "false") Boolean detailed) {
+        RequestValidation.require(RequestValidation.checkQuotations(currency, quotations, maxQuotations));
+        int size = RequestValidation.parseQuotations(quotations);
+
+        NbpQuery query = NbpQuery.lastQuotations("C", currency, size);
+        return nbpClient.collectRates(query, DifferenceDto.class, service::majorDifferenceCollector)
+                .map(result -> {
+                    if (detailed) {
+                        return new ResponseEntity<>(result, HttpStatus.OK);
+                    } else {
+                        return new ResponseEntity<>(result.getDifference(), HttpStatus.OK);
+                    }
+                });
+    }
+}
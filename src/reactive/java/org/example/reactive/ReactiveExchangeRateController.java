@@ -0,0 +1,63 @@
+package org.example.reactive;
+
+import jakarta.annotation.PostConstruct;
+import org.example.client.NbpQuery;
+import org.example.dto.MaxAndMinDto;
+import org.example.service.ExchangeRateService;
+import org.example.validation.RequestValidation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/exchange")
+public class ReactiveExchangeRateController {
+    @Autowired
+    private ExchangeRateService service;
+
+    @Autowired
+    private ReactiveNbpClient nbpClient;
+
+    @Value("${nbp.quotations.max}")
+    private int maxQuotations;
+
+    @PostConstruct
+    void init() {
+        maxQuotations = Math.min(maxQuotations, ReactiveNbpClient.MAX_QUOTATIONS);
+    }
+
+    @GetMapping("/{currency}/{date}")
+    public Mono<ResponseEntity<?>> getExchangeRate(@PathVariable String currency, @PathVariable String date, @RequestParam(defaultValue = "false") Boolean detailed) {
+        RequestValidation.require(RequestValidation.checkRate(currency, date, null));
+
+        return nbpClient.getRates(NbpQuery.forDate("A", currency, date))
+                .map(responseTable -> {
+                    if (detailed) {
+                        return new ResponseEntity<>(responseTable, HttpStatus.OK);
+                    } else {
+                        return new ResponseEntity<>(responseTable.getRates().get(0).getMid(), HttpStatus.OK);
+                    }
+                });
+    }
+
+    @GetMapping("/{currency}/max-min")
+    public Mono<ResponseEntity<?>> getMaxAndMinValue(@PathVariable String currency, @RequestParam String quotations, @RequestParam(defaultValue = "false") Boolean detailed) {
+        RequestValidation.require(RequestValidation.checkQuotations(currency, quotations, maxQuotations));
+        int size = RequestValidation.parseQuotations(quotations);
+
+        NbpQuery query = NbpQuery.lastQuotations("A", currency, size);
+        return nbpClient.collectRates(query, MaxAndMinDto.class, service::maxAndMinCollector)
+                .map(result -> {
+                    if (detailed) {
+                        return new ResponseEntity<>(result, HttpStatus.OK);
+                    } else {
+                        return new ResponseEntity<>("Max rate: " + result.getMaxRate().getMid() + ", Min rate: " + result.getMinRate().getMid(), HttpStatus.OK);
+                    }
+                });
+    }
+}
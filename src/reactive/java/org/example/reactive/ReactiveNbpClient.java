@@ -0,0 +1,113 @@
+package org.example.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.example.cache.NbpResponseCache;
+import org.example.client.NbpQuery;
+import org.example.client.NbpRateReader;
+import org.example.dto.TableDto;
+import org.example.service.RateCollector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link org.example.client.NbpClient}: the same cache and URLs, with the NBP call made
+ * by {@link WebClient}. Concurrent identical calls share one upstream request. NBP 4xx responses are turned into
+ * {@link HttpClientErrorException}s, so errors map to the same responses as in the servlet stack.
+ * <p>
+ * Each query is a single NBP call, without the date range chunking of the servlet client, so it takes at most
+ * {@link #MAX_QUOTATIONS} quotations.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveNbpClient {
+    public static final int MAX_QUOTATIONS = NbpQuery.MAX_QUOTATIONS_PER_REQUEST;
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private NbpRateReader reader;
+
+    @Autowired
+    private NbpResponseCache cache;
+
+    @Value("${nbp.api.url}")
+    private String apiUrl;
+
+    private final Map<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    private WebClient webClient;
+
+    @PostConstruct
+    void init() {
+        webClient = webClientBuilder.build();
+    }
+
+    public Mono<TableDto> getRates(NbpQuery query) {
+        return cached(query, TableDto.class, body(query).map(buffer -> read(buffer, in -> mapper.readValue(in, TableDto.class))));
+    }
+
+    public <R> Mono<R> collectRates(NbpQuery query, Class<R> resultType, Supplier<RateCollector<R>> collector) {
+        return cached(query, resultType, body(query).map(buffer -> read(buffer, in -> reader.read(in, collector.get()))));
+    }
+
+    private <T> Mono<T> cached(NbpQuery query, Class<T> type, Mono<T> upstream) {
+        return Mono.defer(() -> {
+            T cached = cache.getIfPresent(query, type);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            String key = query.toUrl(apiUrl) + "#" + type.getName();
+            return inFlight.computeIfAbsent(key, k -> upstream
+                            .switchIfEmpty(Mono.error(IllegalStateException::new))
+                            .doOnNext(value -> cache.put(query, type, value))
+                            .doFinally(signal -> inFlight.remove(k))
+                            .cache())
+                    .map(type::cast);
+        });
+    }
+
+    private Mono<DataBuffer> body(NbpQuery query) {
+        return webClient.get()
+                .uri(query.toUrl(apiUrl))
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, response -> response.createException().map(this::toClientError))
+                .bodyToFlux(DataBuffer.class)
+                .as(DataBufferUtils::join);
+    }
+
+    private HttpClientErrorException toClientError(WebClientResponseException ex) {
+        return HttpClientErrorException.create(ex.getStatusCode(), ex.getStatusText(), ex.getHeaders(), ex.getResponseBodyAsByteArray(), null);
+    }
+
+    private <T> T read(DataBuffer buffer, BodyReader<T> bodyReader) {
+        try (InputStream in = buffer.asInputStream(true)) {
+            return bodyReader.read(in);
+        } catch (IOException e) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private interface BodyReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.server.MissingRequestValueException;
+
+/**
+ * The error mapping of {@link org.example.exception.RestExceptionHandler} for the reactive stack.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRestExceptionHandler {
+    @ExceptionHandler(value = {HttpClientErrorException.class})
+    protected ResponseEntity<Object> handleNbpApiException(HttpClientErrorException ex) {
+        if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
+            return new ResponseEntity<>("Data not found", HttpStatus.NOT_FOUND);
+        } else {
+            return new ResponseEntity<>(ex.getStatusText(), ex.getStatusCode());
+        }
+    }
+
+    @ExceptionHandler(value = {IllegalArgumentException.class})
+    protected ResponseEntity<Object> handleIllegalArgument(IllegalArgumentException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(value = {IllegalStateException.class})
+    protected ResponseEntity<Object> handleIllegalState(IllegalStateException ex) {
+        return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(value = {MissingRequestValueException.class})
+    protected ResponseEntity<Object> handleMissingRequestValue(MissingRequestValueException ex) {
+        String kind = "path variable".equals(ex.getLabel()) ? " variable" : " parameter";
+        return new ResponseEntity<>(ex.getName() + kind + " is required in the path", HttpStatus.BAD_REQUEST);
+    }
+}
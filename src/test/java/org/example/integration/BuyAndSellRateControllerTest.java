@@ -1,6 +1,8 @@
 package org.example.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cache.NbpResponseCache;
+import org.example.cache.ResponseBytesCache;
 import org.example.dto.RateDto;
 import org.example.dto.TableDto;
 import org.junit.Before;
@@ -46,8 +48,16 @@ public class BuyAndSellRateControllerTest {
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private NbpResponseCache responseCache;
+
+    @Autowired
+    private ResponseBytesCache responseBytesCache;
+
     @Before
     public void setUp() {
+        responseCache.invalidateAll();
+        responseBytesCache.invalidateAll();
         mockServer = MockRestServiceServer.createServer(restTemplate);
     }
 
@@ -156,18 +166,14 @@ public class BuyAndSellRateControllerTest {
     public void getMaxAndMin_whenQuotationsExceededSize_shouldReturn400() throws Exception {
         //Arrange
         String currency = "GBP";
-        Integer quotations = 256;
-        String url = getUrlWithQuotations(currency, quotations);
-
-        mockServer.expect(ExpectedCount.once(),
-                        requestTo(new URI(url)))
-                .andExpect(method(HttpMethod.GET))
-                .andRespond(withStatus(HttpStatus.BAD_REQUEST).body("Bad Request"));
+        Integer quotations = 1001;
 
         //Act and Assert
         mockMvc.perform(get("/api/buy-and-sell/" + currency + "/difference?quotations=" + quotations)
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().is(400));
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$", is("Quotations must not exceed 1000")));
+        mockServer.verify();
     }
 
     @Test
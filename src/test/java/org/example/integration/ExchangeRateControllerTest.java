@@ -1,6 +1,11 @@
 package org.example.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cache.NbpPublicationSchedule;
+import org.example.cache.NbpResponseCache;
+import org.example.cache.ResponseBytesCache;
+import org.example.dto.ExchangeTableDto;
+import org.example.dto.ExchangeTableRateDto;
 import org.example.dto.RateDto;
 import org.example.dto.TableDto;
 import org.junit.Before;
@@ -9,6 +14,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,17 +22,27 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -47,8 +63,16 @@ public class ExchangeRateControllerTest {
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private NbpResponseCache responseCache;
+
+    @Autowired
+    private ResponseBytesCache responseBytesCache;
+
     @Before
     public void setUp() {
+        responseCache.invalidateAll();
+        responseBytesCache.invalidateAll();
         mockServer = MockRestServiceServer.createServer(restTemplate);
     }
 
@@ -90,6 +114,85 @@ public class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$", is(rateDto.getMid().doubleValue())));
     }
 
+    @Test
+    public void getExchangeRate_whenRequestedTwice_shouldCallNbpOnce() throws Exception {
+        //Arrange
+        String currency = "GBP";
+        String date = "2022-09-08";
+        String url = getUrlWithDate(currency, date);
+
+        RateDto rateDto = new RateDto(
+                "174/A/NBP/2022",
+                date,
+                null,
+                null,
+                new BigDecimal("5.4322"));
+        TableDto tableDto = new TableDto(
+                "A",
+                "funt szterling",
+                currency,
+                List.of(rateDto));
+
+        mockServer.expect(ExpectedCount.once(),
+                        requestTo(new URI(url)))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(objectMapper.writeValueAsString(tableDto)));
+
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/" + currency + "/" + date)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/exchange/" + currency + "/" + date)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", is(rateDto.getMid().doubleValue())));
+
+        mockServer.verify();
+    }
+
+    @Test
+    public void getExchangeRate_whenETagSentBack_shouldReturn304WithoutBody() throws Exception {
+        //Arrange
+        String currency = "GBP";
+        String date = "2022-09-08";
+        String url = getUrlWithDate(currency, date);
+
+        RateDto rateDto = new RateDto(
+                "174/A/NBP/2022",
+                date,
+                null,
+                null,
+                new BigDecimal("5.4322"));
+        TableDto tableDto = new TableDto(
+                "A",
+                "funt szterling",
+                currency,
+                List.of(rateDto));
+
+        mockServer.expect(ExpectedCount.once(),
+                        requestTo(new URI(url)))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(objectMapper.writeValueAsString(tableDto)));
+
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/" + currency + "/" + date + "?detailed=true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"174/A/NBP/2022\""))
+                .andExpect(jsonPath("$.rates[0].no", is("174/A/NBP/2022")));
+
+        mockMvc.perform(get("/api/exchange/" + currency + "/" + date + "?detailed=true")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"174/A/NBP/2022\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockServer.verify();
+    }
+
     @Test
     public void getExchangeRate_whenResponseIs404_shouldReturn404() throws Exception {
         //Arrange
@@ -127,6 +230,17 @@ public class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$", is("Bad Request")));
     }
 
+    @Test
+    public void getExchangeRate_whenNoTableThatDay_shouldReturn404WithoutCallingNbp() throws Exception {
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/CZK/2008-04-05"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$", is("Data not found")));
+        mockMvc.perform(get("/api/exchange/CZK/2008-03-24"))
+                .andExpect(status().isNotFound());
+        mockServer.verify();
+    }
+
     @Test
     public void getExchangeRate_whenDateIsInvalid_shouldReturn400() throws Exception {
         //Arrange
@@ -151,6 +265,43 @@ public class ExchangeRateControllerTest {
                 .andExpect(status().is(400));
     }
 
+    @Test
+    public void getExchangeRates_whenResponseIsOk_shouldCallNbpOnce() throws Exception {
+        //Arrange
+        String date = "2022-09-08";
+        String url = "http://api.nbp.pl/api/exchangerates/tables/A/" + date + "/";
+
+        ExchangeTableDto tableDto = new ExchangeTableDto(
+                "A",
+                "174/A/NBP/2022",
+                null,
+                date,
+                List.of(new ExchangeTableRateDto("funt szterling", "GBP", null, null, new BigDecimal("5.4322")),
+                        new ExchangeTableRateDto("dolar amerykański", "USD", null, null, new BigDecimal("4.7468")),
+                        new ExchangeTableRateDto("euro", "EUR", null, null, new BigDecimal("4.7170"))));
+
+        mockServer.expect(ExpectedCount.once(),
+                        requestTo(new URI(url)))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(objectMapper.writeValueAsString(List.of(tableDto))));
+
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/" + date + "?currencies=EUR,GBP")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.EUR", is(4.7170)))
+                .andExpect(jsonPath("$.GBP", is(5.4322)));
+
+        mockMvc.perform(get("/api/exchange/" + date + "?currencies=USD&detailed=true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].rates[0].no", is("174/A/NBP/2022")))
+                .andExpect(jsonPath("$[0].rates[0].mid", is(4.7468)));
+        mockServer.verify();
+    }
+
     @Test
     public void getMaxAndMin_whenResponseIsOk_shouldReturnJson() throws Exception {
         //Arrange
@@ -202,6 +353,117 @@ public class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$", is("Max rate: " + rateDto3.getMid() + ", Min rate: " + rateDto2.getMid())));
     }
 
+    @Test
+    public void getMaxAndMin_whenGzipAccepted_shouldReturnGzippedCopy() throws Exception {
+        //Arrange
+        String currency = "GBP";
+        Integer quotations = 2;
+        String url = getUrlWithQuotations(currency, quotations);
+
+        RateDto rateDto1 = new RateDto(
+                "188/A/NBP/2022",
+                "2022-09-28",
+                null,
+                null,
+                new BigDecimal("5.0381"));
+        RateDto rateDto2 = new RateDto(
+                "189/A/NBP/2022",
+                "2022-09-29",
+                null,
+                null,
+                new BigDecimal("4.9997"));
+        TableDto tableDto = new TableDto(
+                "A",
+                "funt szterling",
+                currency,
+                List.of(rateDto1, rateDto2));
+
+        mockServer.expect(ExpectedCount.once(),
+                        requestTo(new URI(url)))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(objectMapper.writeValueAsString(tableDto)));
+        String path = "/api/exchange/" + currency + "/max-min?quotations=" + quotations + "&detailed=true";
+
+        //Act
+        String plain = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"188/A/NBP/2022,189/A/NBP/2022\""))
+                .andReturn().getResponse().getContentAsString();
+        MvcResult gzipped = mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"188/A/NBP/2022,189/A/NBP/2022-gzip\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+        mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip ; q=0.000"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, GZIP;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+        //Assert
+        byte[] body = gzipped.getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8), equalTo(plain));
+        }
+        assertThat(body.length < plain.length(), equalTo(true));
+        mockServer.verify();
+    }
+
+    @Test
+    public void getStatistics_whenResponseIsOk_shouldReturnJson() throws Exception {
+        //Arrange
+        String currency = "GBP";
+        Integer quotations = 3;
+        String url = getUrlWithQuotations(currency, quotations);
+
+        RateDto rateDto1 = new RateDto(
+                "174/A/NBP/2022",
+                "2022-09-08",
+                null,
+                null,
+                new BigDecimal("5.4000"));
+        RateDto rateDto2 = new RateDto(
+                "175/A/NBP/2022",
+                "2022-09-09",
+                null,
+                null,
+                new BigDecimal("5.3000"));
+        RateDto rateDto3 = new RateDto(
+                "176/A/NBP/2022",
+                "2022-09-12",
+                null,
+                null,
+                new BigDecimal("5.5000"));
+        TableDto tableDto = new TableDto(
+                "A",
+                "funt szterling",
+                currency,
+                List.of(rateDto1, rateDto2, rateDto3));
+
+        mockServer.expect(ExpectedCount.once(),
+                        requestTo(new URI(url)))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(objectMapper.writeValueAsString(tableDto)));
+
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/" + currency + "/stats?quotations=" + quotations)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(3)))
+                .andExpect(jsonPath("$.min.no", is(rateDto2.getNo())))
+                .andExpect(jsonPath("$.max.no", is(rateDto3.getNo())))
+                .andExpect(jsonPath("$.first.no", is(rateDto1.getNo())))
+                .andExpect(jsonPath("$.last.no", is(rateDto3.getNo())))
+                .andExpect(jsonPath("$.mean", is(5.4)));
+        mockServer.verify();
+    }
+
     @Test
     public void getMaxAndMin_whenResponseIs404_shouldReturn404() throws Exception {
         //Arrange
@@ -255,18 +517,91 @@ public class ExchangeRateControllerTest {
     public void getMaxAndMin_whenQuotationsExceededSize_shouldReturn400() throws Exception {
         //Arrange
         String currency = "GBP";
-        Integer quotations = 256;
-        String url = getUrlWithQuotations(currency, quotations);
-
-        mockServer.expect(ExpectedCount.once(),
-                        requestTo(new URI(url)))
-                .andExpect(method(HttpMethod.GET))
-                .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+        Integer quotations = 1001;
 
         //Act and Assert
         mockMvc.perform(get("/api/exchange/" + currency + "/max-min?quotations=" + quotations)
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().is(400));
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$", is("Quotations must not exceed 1000")));
+        mockServer.verify();
+    }
+
+    @Test
+    public void getMaxAndMin_whenQuotationsExceedOneNbpResponse_shouldMergeDateRangeChunks() throws Exception {
+        //Arrange
+        String currency = "GBP";
+        Integer quotations = 300;
+        mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+        LocalDate end = LocalDate.now(NbpPublicationSchedule.WARSAW);
+        for (int chunk = 0; chunk < 5; chunk++) {
+            List<RateDto> rates = new ArrayList<>();
+            for (int i = 0; i < 65; i++) {
+                rates.add(new RateDto("001/A/NBP/2022", "2022-01-01", null, null, new BigDecimal("4.5")));
+            }
+            if (chunk == 0) {
+                rates.set(64, new RateDto("300/A/NBP/2022", "2022-12-30", null, null, new BigDecimal("9.9")));
+            }
+            if (chunk == 4) {
+                rates.set(24, new RateDto("025/A/NBP/2021", "2021-02-01", null, null, new BigDecimal("0.5")));
+                rates.set(25, new RateDto("026/A/NBP/2021", "2021-02-02", null, null, new BigDecimal("1.0")));
+            }
+            String url = "http://api.nbp.pl/api/exchangerates/rates/A/" + currency + "/"
+                    + end.minusDays(92) + "/" + end + "/";
+            mockServer.expect(ExpectedCount.once(), requestTo(new URI(url)))
+                    .andExpect(method(HttpMethod.GET))
+                    .andRespond(withStatus(HttpStatus.OK)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(objectMapper.writeValueAsString(new TableDto("A", "funt szterling", currency, rates))));
+            end = end.minusDays(93);
+        }
+
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/" + currency + "/max-min?quotations=" + quotations + "&detailed=true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxRate.no", is("300/A/NBP/2022")))
+                .andExpect(jsonPath("$.minRate.no", is("026/A/NBP/2021")));
+        mockServer.verify();
+    }
+
+    @Test
+    public void getOhlc_whenPeriodExceedsOneRange_shouldFetchDateRangesAndReturnBars() throws Exception {
+        //Arrange
+        String currency = "GBP";
+        mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        List<RateDto> first = List.of(
+                new RateDto("001/C/NBP/2022", "2022-01-03", new BigDecimal("5.4000"), new BigDecimal("5.5000"), null),
+                new RateDto("040/C/NBP/2022", "2022-02-25", new BigDecimal("5.6000"), new BigDecimal("5.8000"), null),
+                new RateDto("060/C/NBP/2022", "2022-03-28", new BigDecimal("5.5000"), new BigDecimal("5.6000"), null));
+        List<RateDto> second = List.of(
+                new RateDto("065/C/NBP/2022", "2022-04-04", new BigDecimal("5.3000"), new BigDecimal("5.4000"), null),
+                new RateDto("125/C/NBP/2022", "2022-06-30", new BigDecimal("5.2000"), new BigDecimal("5.3000"), null));
+        for (List<String> range : List.of(List.of("2022-01-01", "2022-04-03"), List.of("2022-04-04", "2022-06-30"))) {
+            String url = "http://api.nbp.pl/api/exchangerates/rates/C/" + currency + "/" + range.get(0) + "/" + range.get(1) + "/";
+            mockServer.expect(ExpectedCount.once(), requestTo(new URI(url)))
+                    .andExpect(method(HttpMethod.GET))
+                    .andRespond(withStatus(HttpStatus.OK)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(objectMapper.writeValueAsString(new TableDto("C", "funt szterling", currency,
+                                    range.get(0).equals("2022-01-01") ? first : second))));
+        }
+
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/" + currency + "/ohlc?interval=year&from=2022-01-01&to=2022-06-30&table=C")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code", is(currency)))
+                .andExpect(jsonPath("$.bars.length()", is(1)))
+                .andExpect(jsonPath("$.bars[0].start", is("2022-01-01")))
+                .andExpect(jsonPath("$.bars[0].count", is(5)))
+                .andExpect(jsonPath("$.bars[0].open", is(5.45)))
+                .andExpect(jsonPath("$.bars[0].high", is(5.7)))
+                .andExpect(jsonPath("$.bars[0].low", is(5.25)))
+                .andExpect(jsonPath("$.bars[0].close", is(5.25)))
+                .andExpect(jsonPath("$.bars[0].averageSpread", is(0.12)));
+        mockServer.verify();
     }
 
     @Test
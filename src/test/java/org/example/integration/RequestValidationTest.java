@@ -0,0 +1,163 @@
+package org.example.integration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.web.client.RestTemplate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class RequestValidationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    private MockRestServiceServer mockServer;
+
+    @Before
+    public void setUp() {
+        mockServer = MockRestServiceServer.createServer(restTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        mockServer.verify();
+    }
+
+    private static ResultMatcher rejectedBeforeDispatch() {
+        return result -> assertThat(result.getResolvedException(), nullValue());
+    }
+
+    @Test
+    public void getExchangeRate_whenCurrencyIsNotIso_shouldReturn400WithoutCallingNbp() throws Exception {
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/XYZ/2022-09-08").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string("Currency must be in ISO-4217 standard"));
+    }
+
+    @Test
+    public void getExchangeRate_whenDayDoesNotExist_shouldReturn400WithoutCallingNbp() throws Exception {
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/USD/2023-02-29"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().contentType("text/plain;charset=UTF-8"))
+                .andExpect(content().string("Date must be in ISO-8601 standard"));
+    }
+
+    @Test
+    public void getExchangeRates_whenOneCurrencyIsInvalid_shouldReturn400WithoutCallingNbp() throws Exception {
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/2022-09-08?currencies=GBP,usd"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Currency must be in ISO-4217 standard"));
+    }
+
+    @Test
+    public void getMaxAndMin_whenQuotationsAreInvalid_shouldReturn400WithoutCallingNbp() throws Exception {
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/GBP/max-min?quotations=-3"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Quotations must be a positive integer"));
+        mockMvc.perform(get("/api/exchange/GBP/stats?quotations=1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Quotations must not exceed 1000"));
+        mockMvc.perform(get("/api/buy-and-sell/GBP/difference?quotations=10x"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Quotations must be a positive integer"));
+    }
+
+    @Test
+    public void getOhlc_whenRangeIsInvalid_shouldReturn400WithoutCallingNbp() throws Exception {
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/GBP/ohlc?interval=month&from=2022-02-30&to=2022-06-30"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Date must be in ISO-8601 standard"));
+        mockMvc.perform(get("/api/exchange/GBP/ohlc?interval=month&from=2022-01-01&to=2022-6-30"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Date must be in ISO-8601 standard"));
+        mockMvc.perform(get("/api/exchange/GBP/ohlc?interval=month&from=2022-06-30&to=2022-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Date from must not be after date to"));
+        mockMvc.perform(get("/api/exchange/GBP/ohlc?interval=month&from=2000-01-01&to=2022-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Date range must not exceed 3660 days"));
+    }
+
+    @Test
+    public void getOhlc_whenTableAndIntervalAreInvalid_shouldReportThemBeforeDates() throws Exception {
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/GBP/ohlc?interval=month&from=x&to=y&table=B"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Table must be A or C"));
+        mockMvc.perform(get("/api/exchange/GBP/ohlc?interval=day&from=x&to=y"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Interval must be one of: week, month, year"));
+    }
+
+    @Test
+    public void getExchangeRate_whenFallbackIsInvalid_shouldReturn400WithoutCallingNbp() throws Exception {
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/GBP/2022-09-10?fallback=next"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Fallback must be previous"));
+        mockMvc.perform(get("/api/exchange/2022-09-10?currencies=GBP,USD&fallback=next"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Fallback must be previous"));
+    }
+
+    @Test
+    public void getMaxAndMin_whenParameterCannotBeBound_shouldReportBindingErrorFirst() throws Exception {
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/XYZ/max-min"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("quotations parameter is required in the path"));
+        mockMvc.perform(get("/api/exchange/XYZ/max-min?quotations=10&detailed=maybe"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(not("Currency must be in ISO-4217 standard")));
+    }
+
+    @Test
+    public void getExchangeRate_whenCurrencyAndDateAreInvalid_shouldReportCurrencyFirst() throws Exception {
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/US/2022-9-8"))
+                .andExpect(status().isBadRequest())
+                .andExpect(rejectedBeforeDispatch())
+                .andExpect(content().string("Currency must be in ISO-4217 standard"));
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.cache.NbpResponseCache;
+import org.example.cache.ResponseBytesCache;
+import org.example.client.NbpQuery;
+import org.example.dto.RateDto;
+import org.example.dto.TableDto;
+import org.example.metrics.ServerTimingFilter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class StageMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private NbpResponseCache responseCache;
+
+    @Autowired
+    private ResponseBytesCache responseBytesCache;
+
+    private MockRestServiceServer mockServer;
+
+    @Before
+    public void setUp() {
+        responseCache.invalidateAll();
+        responseBytesCache.invalidateAll();
+        mockServer = MockRestServiceServer.createServer(restTemplate);
+    }
+
+    @Test
+    public void getMaxAndMinValue_whenResponseIsOk_shouldRecordEveryStage() throws Exception {
+        //Arrange
+        TableDto tableDto = new TableDto("A", "funt szterling", "GBP", List.of(
+                new RateDto("174/A/NBP/2022", "2022-09-08", null, null, new BigDecimal("5.4322")),
+                new RateDto("175/A/NBP/2022", "2022-09-09", null, null, new BigDecimal("5.3912"))));
+        mockServer.expect(requestTo(new URI(NbpQuery.lastQuotations("A", "GBP", 2).toUrl())))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(objectMapper.writeValueAsString(tableDto)));
+        List<String> stages = List.of("validation", "upstream", "deserialization", "computation", "serialization");
+        Map<String, Long> before = new HashMap<>();
+        stages.forEach(stage -> before.put(stage, stageCount("getMaxAndMinValue", stage, "A", "SUCCESS")));
+        double okBefore = upstreamCount("200");
+
+        //Act
+        mockMvc.perform(get("/api/exchange/GBP/max-min?quotations=2"))
+                .andExpect(status().isOk());
+
+        //Assert
+        for (String stage : stages) {
+            assertThat(stage, stageCount("getMaxAndMinValue", stage, "A", "SUCCESS"), equalTo(before.get(stage) + 1));
+        }
+        assertThat(upstreamCount("200"), equalTo(okBefore + 1));
+    }
+
+    @Test
+    public void getExchangeRate_whenCurrencyIsIncorrect_shouldRecordOnlyValidation() throws Exception {
+        //Arrange
+        long validationBefore = stageCount("getExchangeRate", "validation", "none", "CLIENT_ERROR");
+
+        //Act
+        mockMvc.perform(get("/api/exchange/gbp/2022-09-08"))
+                .andExpect(status().isBadRequest());
+
+        //Assert
+        assertThat(stageCount("getExchangeRate", "validation", "none", "CLIENT_ERROR"), equalTo(validationBefore + 1));
+        assertThat(stageCount("getExchangeRate", "upstream", "none", "CLIENT_ERROR"), equalTo(0L));
+    }
+
+    @Test
+    public void getExchangeRate_whenNbpReturnsNotFound_shouldCountUpstreamStatus() throws Exception {
+        //Arrange
+        mockServer.expect(requestTo(new URI(NbpQuery.forDate("A", "KPW", "2022-09-08").toUrl())))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+        double notFoundBefore = upstreamCount("404");
+        long upstreamBefore = stageCount("getExchangeRate", "upstream", "A", "CLIENT_ERROR");
+
+        //Act
+        mockMvc.perform(get("/api/exchange/KPW/2022-09-08"))
+                .andExpect(status().isNotFound());
+
+        //Assert
+        assertThat(upstreamCount("404"), equalTo(notFoundBefore + 1));
+        assertThat(stageCount("getExchangeRate", "upstream", "A", "CLIENT_ERROR"), equalTo(upstreamBefore + 1));
+    }
+
+    @Test
+    public void getExchangeRate_whenServerTimingIsRequested_shouldReportStagesAndCache() throws Exception {
+        //Arrange
+        TableDto tableDto = new TableDto("A", "funt szterling", "GBP", List.of(
+                new RateDto("174/A/NBP/2022", "2022-09-08", null, null, new BigDecimal("5.4322"))));
+        mockServer.expect(requestTo(new URI(NbpQuery.forDate("A", "GBP", "2022-09-08").toUrl())))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(objectMapper.writeValueAsString(tableDto)));
+
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/GBP/2022-09-08").header(ServerTimingFilter.REQUEST_HEADER, "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("5.4322"))
+                .andExpect(header().string(ServerTimingFilter.RESPONSE_HEADER, allOf(
+                        containsString("upstream;dur="),
+                        containsString("deserialization;dur="),
+                        containsString("serialization;dur="),
+                        containsString("cache;desc=miss"))));
+        mockMvc.perform(get("/api/exchange/GBP/2022-09-08").header(ServerTimingFilter.REQUEST_HEADER, "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerTimingFilter.RESPONSE_HEADER, allOf(
+                        not(containsString("upstream")),
+                        containsString("cache;desc=hit"))));
+    }
+
+    @Test
+    public void getExchangeRate_whenServerTimingIsNotRequested_shouldNotAddHeader() throws Exception {
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/gbp/2022-09-08"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(ServerTimingFilter.RESPONSE_HEADER));
+    }
+
+    @Test
+    public void prometheus_shouldExposeStageTimers() throws Exception {
+        //Arrange
+        mockMvc.perform(get("/api/exchange/gbp/2022-09-08"));
+
+        //Act and Assert
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("nbp_request_stage_seconds_bucket")));
+    }
+
+    private long stageCount(String endpoint, String stage, String table, String outcome) {
+        Timer timer = meterRegistry.find("nbp.request.stage")
+                .tag("endpoint", endpoint)
+                .tag("stage", stage)
+                .tag("table", table)
+                .tag("outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double upstreamCount(String status) {
+        Counter counter = meterRegistry.find("nbp.upstream.responses").tag("status", status).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
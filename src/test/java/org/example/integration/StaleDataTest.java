@@ -0,0 +1,202 @@
+package org.example.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.cache.NbpResponseCache;
+import org.example.client.CircuitBreaker;
+import org.example.dto.RateDto;
+import org.example.dto.TableDto;
+import org.example.metrics.StaleDataAdvice;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"nbp.response-cache.maximum-size=0", "nbp.upstream.latency-budget=200ms", "nbp.breaker.failure-threshold=2"})
+@AutoConfigureMockMvc
+public class StaleDataTest {
+    private static final String URL = "http://api.nbp.pl/api/exchangerates/rates/A/GBP/last/2/";
+    private static final String MAX_MIN = "/api/exchange/GBP/max-min?quotations=2";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private NbpResponseCache cache;
+
+    @Autowired
+    private CircuitBreaker breaker;
+
+    private MockRestServiceServer mockServer;
+
+    @Before
+    public void setUp() {
+        cache.invalidateAll();
+        breaker.reset();
+        mockServer = MockRestServiceServer.createServer(restTemplate);
+    }
+
+    @Test
+    public void getMaxAndMin_whenWindowExpiredAndNbpFails_shouldServeStaleData() throws Exception {
+        //Arrange
+        double staleBefore = count("nbp.responses.stale", "reason", "error");
+        mockServer.expect(ExpectedCount.once(), requestTo(new URI(URL)))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body()));
+        mockServer.expect(ExpectedCount.once(), requestTo(new URI(URL)))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        mockMvc.perform(get(MAX_MIN))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(StaleDataAdvice.RESPONSE_HEADER));
+        expireWindows();
+
+        //Act and Assert
+        mockMvc.perform(get(MAX_MIN))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StaleDataAdvice.RESPONSE_HEADER, "true"))
+                .andExpect(jsonPath("$", is("Max rate: 5.4409, Min rate: 5.3902")));
+        mockServer.verify();
+        assertThat(count("nbp.responses.stale", "reason", "error"), equalTo(staleBefore + 1));
+    }
+
+    @Test
+    public void nonApiResponse_afterStaleResponseOnSameThread_shouldNotBeMarkedStale() throws Exception {
+        //Arrange
+        mockServer.expect(ExpectedCount.once(), requestTo(new URI(URL)))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body()));
+        mockServer.expect(ExpectedCount.once(), requestTo(new URI(URL)))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        mockMvc.perform(get(MAX_MIN)).andExpect(status().isOk());
+        expireWindows();
+        mockMvc.perform(get(MAX_MIN))
+                .andExpect(header().string(StaleDataAdvice.RESPONSE_HEADER, "true"));
+
+        //Act and Assert
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(StaleDataAdvice.RESPONSE_HEADER));
+    }
+
+    @Test
+    public void getMaxAndMin_whenNbpSlowerThanLatencyBudget_shouldServeStaleDataAndRefreshInBackground() throws Exception {
+        //Arrange
+        double staleBefore = count("nbp.responses.stale", "reason", "timeout");
+        String body = body();
+        mockServer.expect(ExpectedCount.once(), requestTo(new URI(URL)))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body()));
+        mockServer.expect(ExpectedCount.once(), requestTo(new URI(URL)))
+                .andRespond(request -> {
+                    try {
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return withStatus(HttpStatus.OK)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(body)
+                            .createResponse(request);
+                });
+        mockMvc.perform(get(MAX_MIN)).andExpect(status().isOk());
+        expireWindows();
+
+        //Act and Assert
+        mockMvc.perform(get(MAX_MIN))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StaleDataAdvice.RESPONSE_HEADER, "true"));
+        assertThat(count("nbp.responses.stale", "reason", "timeout"), equalTo(staleBefore + 1));
+        mockServer.verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void getMaxAndMin_whenBreakerOpen_shouldServeStaleDataWithoutCallingNbp() throws Exception {
+        //Arrange
+        double staleBefore = count("nbp.responses.stale", "reason", "breaker_open");
+        double openedBefore = count("nbp.breaker.transitions", "state", "open");
+        mockServer.expect(ExpectedCount.once(), requestTo(new URI(URL)))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body()));
+        mockServer.expect(ExpectedCount.twice(), requestTo(new URI("http://api.nbp.pl/api/exchangerates/rates/A/USD/last/2/")))
+                .andRespond(withStatus(HttpStatus.BAD_GATEWAY));
+        mockMvc.perform(get(MAX_MIN)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/exchange/USD/max-min?quotations=2"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$", is("NBP API unavailable")));
+        mockMvc.perform(get("/api/exchange/USD/max-min?quotations=2"))
+                .andExpect(status().isServiceUnavailable());
+        expireWindows();
+
+        //Act and Assert
+        mockMvc.perform(get(MAX_MIN))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StaleDataAdvice.RESPONSE_HEADER, "true"));
+        mockMvc.perform(get("/api/exchange/USD/max-min?quotations=2"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(content().string("NBP API unavailable"));
+        mockServer.verify();
+        assertThat(count("nbp.responses.stale", "reason", "breaker_open"), equalTo(staleBefore + 1));
+        assertThat(count("nbp.breaker.transitions", "state", "open"), equalTo(openedBefore + 1));
+    }
+
+    private double count(String name, String tag, String value) {
+        Counter counter = meterRegistry.find(name).tag(tag, value).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private void expireWindows() {
+        doReturn(null).when(cache).getIfPresent(any(), any());
+    }
+
+    private String body() throws Exception {
+        return objectMapper.writeValueAsString(new TableDto("A", "funt szterling", "GBP", List.of(
+                new RateDto("174/A/NBP/2022", "2022-09-08", null, null, new BigDecimal("5.4409")),
+                new RateDto("175/A/NBP/2022", "2022-09-09", null, null, new BigDecimal("5.3902")))));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.unit.cache;
+
+import org.example.cache.NbpPublicationSchedule;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class NbpPublicationScheduleTest {
+
+    private final NbpPublicationSchedule schedule = new NbpPublicationSchedule();
+
+    @Test
+    public void nextPublication_whenBeforePublicationTime_shouldReturnSameDay() {
+        //Arrange
+        Instant now = warsaw(LocalDateTime.of(2023, 4, 24, 10, 0));
+
+        //Act and Assert
+        assertThat(schedule.nextPublication("A", now), equalTo(warsaw(LocalDateTime.of(2023, 4, 24, 12, 15))));
+    }
+
+    @Test
+    public void nextPublication_whenAfterPublicationTime_shouldReturnNextDay() {
+        //Arrange
+        Instant now = warsaw(LocalDateTime.of(2023, 4, 24, 10, 0));
+
+        //Act and Assert
+        assertThat(schedule.nextPublication("C", now), equalTo(warsaw(LocalDateTime.of(2023, 4, 25, 8, 15))));
+    }
+
+    @Test
+    public void nextPublication_whenFridayAfterPublication_shouldSkipWeekend() {
+        //Arrange
+        Instant now = warsaw(LocalDateTime.of(2023, 4, 21, 12, 15));
+
+        //Act and Assert
+        assertThat(schedule.nextPublication("A", now), equalTo(warsaw(LocalDateTime.of(2023, 4, 24, 12, 15))));
+    }
+
+    @Test
+    public void latestPublicationDate_whenBeforePublicationTime_shouldReturnPreviousBusinessDay() {
+        //Arrange
+        Instant now = warsaw(LocalDateTime.of(2023, 4, 24, 12, 14));
+
+        //Act and Assert
+        assertThat(schedule.latestPublicationDate("A", now), equalTo(LocalDate.of(2023, 4, 21)));
+    }
+
+    @Test
+    public void latestPublicationDate_whenAfterPublicationTime_shouldReturnSameDay() {
+        //Arrange
+        Instant now = warsaw(LocalDateTime.of(2023, 4, 24, 8, 15));
+
+        //Act and Assert
+        assertThat(schedule.latestPublicationDate("C", now), equalTo(LocalDate.of(2023, 4, 24)));
+    }
+
+    @Test
+    public void isPublicationDay_whenWeekend_shouldReturnFalse() {
+        assertThat(schedule.isPublicationDay(LocalDate.of(2008, 4, 5)), is(false));
+        assertThat(schedule.isPublicationDay(LocalDate.of(2008, 4, 4)), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void publicationTime_whenUnknownTable_shouldThrowException() {
+        schedule.publicationTime("B");
+    }
+
+    private Instant warsaw(LocalDateTime dateTime) {
+        return dateTime.atZone(NbpPublicationSchedule.WARSAW).toInstant();
+    }
+}
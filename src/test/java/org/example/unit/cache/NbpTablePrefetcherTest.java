@@ -0,0 +1,130 @@
+package org.example.unit.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.cache.NbpPublicationSchedule;
+import org.example.cache.NbpTablePrefetcher;
+import org.example.client.NbpClient;
+import org.example.client.NbpTable;
+import org.example.dto.ExchangeTableDto;
+import org.example.dto.ExchangeTableRateDto;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"nbp.prefetch.enabled=true", "nbp.prefetch.tables=", "nbp.prefetch.max-attempts=3"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class NbpTablePrefetcherTest {
+
+    @Autowired
+    private NbpTablePrefetcher prefetcher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private NbpClient nbpClient;
+
+    @Test
+    public void prefetch_whenTableIsPublished_shouldWaitForNextPublication() {
+        //Arrange
+        useClock(LocalDateTime.of(2023, 4, 24, 12, 16));
+        given(nbpClient.prefetchTable("A", "2023-04-24")).willReturn(table("2023-04-24"));
+
+        //Act
+        Instant next = prefetcher.prefetch("A");
+
+        //Assert
+        assertThat(next, equalTo(warsaw(LocalDateTime.of(2023, 4, 25, 12, 16))));
+        assertThat(meterRegistry.get("nbp.prefetch.table.age").tag("table", "A").gauge().value(), equalTo(60.0));
+        assertThat(meterRegistry.get("nbp.prefetch.attempts").tag("outcome", "loaded").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    public void prefetch_whenTableIsNotPublished_shouldRetryWithBackoff() {
+        //Arrange
+        useClock(LocalDateTime.of(2023, 4, 24, 12, 16));
+        given(nbpClient.prefetchTable("A", "2023-04-24")).willThrow(notFound());
+        Instant now = warsaw(LocalDateTime.of(2023, 4, 24, 12, 16));
+
+        //Act and Assert
+        assertThat(prefetcher.prefetch("A"), equalTo(now.plus(Duration.ofMinutes(1))));
+        assertThat(prefetcher.prefetch("A"), equalTo(now.plus(Duration.ofMinutes(2))));
+        assertThat(meterRegistry.get("nbp.prefetch.attempts").tag("outcome", "not_published").counter().count(), equalTo(2.0));
+        assertThat(Double.isNaN(meterRegistry.get("nbp.prefetch.table.age").tag("table", "A").gauge().value()), equalTo(true));
+    }
+
+    @Test
+    public void prefetch_whenMaxAttemptsReached_shouldWaitForNextPublication() {
+        //Arrange
+        useClock(LocalDateTime.of(2023, 4, 24, 12, 16));
+        given(nbpClient.prefetchTable("A", "2023-04-24")).willThrow(new IllegalStateException());
+
+        //Act
+        prefetcher.prefetch("A");
+        prefetcher.prefetch("A");
+        Instant next = prefetcher.prefetch("A");
+
+        //Assert
+        assertThat(next, equalTo(warsaw(LocalDateTime.of(2023, 4, 25, 12, 16))));
+        assertThat(meterRegistry.get("nbp.prefetch.attempts").tag("outcome", "error").counter().count(), equalTo(3.0));
+    }
+
+    @Test
+    public void firstRun_whenTodaysTableIsDue_shouldRunImmediately() {
+        //Arrange
+        useClock(LocalDateTime.of(2023, 4, 24, 15, 0));
+
+        //Act and Assert
+        assertThat(prefetcher.firstRun("A"), equalTo(warsaw(LocalDateTime.of(2023, 4, 24, 15, 0))));
+    }
+
+    @Test
+    public void firstRun_whenWeekend_shouldWaitForMonday() {
+        //Arrange
+        useClock(LocalDateTime.of(2023, 4, 23, 10, 0));
+
+        //Act and Assert
+        assertThat(prefetcher.firstRun("C"), equalTo(warsaw(LocalDateTime.of(2023, 4, 24, 8, 16))));
+    }
+
+    private void useClock(LocalDateTime time) {
+        ReflectionTestUtils.setField(prefetcher, "clock", clockAt(time));
+    }
+
+    private static Clock clockAt(LocalDateTime time) {
+        return Clock.fixed(warsaw(time), NbpPublicationSchedule.WARSAW);
+    }
+
+    private static Instant warsaw(LocalDateTime time) {
+        return time.atZone(NbpPublicationSchedule.WARSAW).toInstant();
+    }
+
+    private NbpTable table(String date) {
+        return NbpTable.of(new ExchangeTableDto("A", "078/A/NBP/2023", null, date, List.of(
+                new ExchangeTableRateDto("funt szterling", "GBP", null, null, new BigDecimal("5.2231")))));
+    }
+
+    private HttpClientErrorException notFound() {
+        return HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY, null, null);
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.unit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.client.CircuitBreaker;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThrows;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"nbp.breaker.failure-threshold=3", "nbp.breaker.open-duration=30s", "nbp.upstream.latency-budget=50ms"})
+public class CircuitBreakerTest {
+    private static final Instant NOW = Instant.parse("2023-04-24T10:00:00Z");
+
+    @Autowired
+    private CircuitBreaker breaker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() {
+        useClock(NOW);
+        breaker.reset();
+    }
+
+    @Test
+    public void call_whenFailuresReachThreshold_shouldOpenAndFailFast() {
+        //Arrange
+        AtomicInteger calls = new AtomicInteger();
+        double openedBefore = transitions("open");
+
+        //Act
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpServerErrorException.class, () -> breaker.call(() -> {
+                calls.incrementAndGet();
+                throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+            }));
+        }
+        HttpServerErrorException rejected = assertThrows(HttpServerErrorException.class,
+                () -> breaker.call(calls::incrementAndGet));
+
+        //Assert
+        assertThat(calls.get(), equalTo(3));
+        assertThat(rejected.getStatusCode(), equalTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(breaker.isCallPermitted(), equalTo(false));
+        assertThat(transitions("open"), equalTo(openedBefore + 1));
+        assertThat(meterRegistry.get("nbp.breaker.state").tag("state", "open").gauge().value(), equalTo(1.0));
+        assertThat(meterRegistry.get("nbp.breaker.state").tag("state", "closed").gauge().value(), equalTo(0.0));
+    }
+
+    @Test
+    public void call_whenClientErrorsOrSuccessInBetween_shouldStayClosed() {
+        //Act
+        for (int i = 0; i < 2; i++) {
+            assertThrows(ResourceAccessException.class, () -> breaker.call(() -> {
+                throw new ResourceAccessException("Connection refused");
+            }));
+        }
+        assertThrows(HttpClientErrorException.class, () -> breaker.call(() -> {
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }));
+        assertThrows(ResourceAccessException.class, () -> breaker.call(() -> {
+            throw new ResourceAccessException("Connection refused");
+        }));
+
+        //Assert
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void call_whenOpenDurationElapsed_shouldLetOneTrialThroughAndClose() {
+        //Arrange
+        double halfOpenedBefore = transitions("half_open");
+        double closedBefore = transitions("closed");
+        open();
+        useClock(NOW.plus(Duration.ofSeconds(30)));
+
+        //Act
+        String result = breaker.call(() -> "ok");
+
+        //Assert
+        assertThat(result, equalTo("ok"));
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.CLOSED));
+        assertThat(transitions("half_open"), equalTo(halfOpenedBefore + 1));
+        assertThat(transitions("closed"), equalTo(closedBefore + 1));
+    }
+
+    @Test
+    public void call_whenTrialFails_shouldOpenAgain() {
+        //Arrange
+        double openedBefore = transitions("open");
+        open();
+        useClock(NOW.plus(Duration.ofSeconds(30)));
+
+        //Act
+        assertThrows(HttpServerErrorException.class, () -> breaker.call(() -> {
+            throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }));
+
+        //Assert
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(breaker.isCallPermitted(), equalTo(false));
+        assertThat(transitions("open"), equalTo(openedBefore + 2));
+    }
+
+    @Test
+    public void call_whenSlowerThanLatencyBudget_shouldCountAsFailure() {
+        //Act
+        for (int i = 0; i < 3; i++) {
+            breaker.call(() -> {
+                sleep(60);
+                return "late";
+            });
+        }
+
+        //Assert
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpServerErrorException.class, () -> breaker.call(() -> {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }));
+        }
+    }
+
+    private double transitions(String state) {
+        return meterRegistry.get("nbp.breaker.transitions").tag("state", state).counter().count();
+    }
+
+    private void useClock(Instant now) {
+        ReflectionTestUtils.setField(breaker, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
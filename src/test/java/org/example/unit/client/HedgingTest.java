@@ -0,0 +1,214 @@
+package org.example.unit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.client.Hedging;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThrows;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"nbp.hedge.enabled=true", "nbp.hedge.min-delay=20ms", "nbp.hedge.budget=0.5"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class HedgingTest {
+    private static final String BODY = "{\"table\":\"A\",\"currency\":\"funt szterling\",\"code\":\"GBP\",\"rates\":["
+            + "{\"no\":\"174/A/NBP/2022\",\"effectiveDate\":\"2022-09-08\",\"mid\":%s},"
+            + "{\"no\":\"175/A/NBP/2022\",\"effectiveDate\":\"2022-09-09\",\"mid\":5.3902}]}";
+
+    @Autowired
+    private Hedging hedging;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Test
+    public void call_whenTooFewLatenciesKnown_shouldNotHedge() {
+        //Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        //Act
+        String result = hedging.call(() -> {
+            attempts.incrementAndGet();
+            sleep(100);
+            return "slow";
+        });
+
+        //Assert
+        assertThat(result, equalTo("slow"));
+        assertThat(attempts.get(), equalTo(1));
+        assertThat(hedging.getDelay().isNegative(), equalTo(true));
+    }
+
+    @Test
+    public void call_whenFirstAttemptSlowerThanPercentile_shouldTakeHedge() {
+        //Arrange
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+        long started = System.nanoTime();
+
+        //Act
+        String result = hedging.call(() -> {
+            if (attempts.getAndIncrement() == 0) {
+                sleep(1000);
+                return "primary";
+            }
+            return "hedge";
+        });
+
+        //Assert
+        assertThat(result, equalTo("hedge"));
+        assertThat(System.nanoTime() - started, lessThan(Duration.ofMillis(500).toNanos()));
+        assertThat(hedging.getDelay(), equalTo(Duration.ofMillis(20)));
+        assertThat(meterRegistry.get("nbp.hedge.sent").counter().count(), equalTo(1.0));
+        assertThat(meterRegistry.get("nbp.hedge.wins").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    public void call_whenAttemptLosesClaim_shouldTakeOtherAttempt() {
+        //Arrange
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        //Act
+        String result = hedging.call(() -> {
+            if (attempts.getAndIncrement() == 0) {
+                sleep(100);
+                return "primary";
+            }
+            return null;
+        });
+
+        //Assert
+        assertThat(result, equalTo("primary"));
+        assertThat(meterRegistry.get("nbp.hedge.wins").counter().count(), equalTo(0.0));
+    }
+
+    @Test
+    public void call_whenHedgeFails_shouldWaitForFirstAttempt() {
+        //Arrange
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        //Act
+        String result = hedging.call(() -> {
+            if (attempts.getAndIncrement() == 0) {
+                sleep(100);
+                return "primary";
+            }
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        });
+
+        //Assert
+        assertThat(result, equalTo("primary"));
+    }
+
+    @Test
+    public void call_whenBothAttemptsFail_shouldThrowFirstFailure() {
+        //Arrange
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        //Act and Assert
+        HttpServerErrorException thrown = assertThrows(HttpServerErrorException.class, () -> hedging.call(() -> {
+            if (attempts.getAndIncrement() == 0) {
+                sleep(100);
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        }));
+        assertThat(thrown.getStatusCode(), equalTo(HttpStatus.BAD_GATEWAY));
+    }
+
+    @Test
+    public void call_whenBudgetSpent_shouldNotHedge() {
+        //Arrange
+        warmUp();
+        ReflectionTestUtils.setField(hedging, "tokens", 0.0);
+        ReflectionTestUtils.setField(hedging, "budget", 0.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //Act
+        String result = hedging.call(() -> {
+            attempts.incrementAndGet();
+            sleep(100);
+            return "slow";
+        });
+
+        //Assert
+        assertThat(result, equalTo("slow"));
+        assertThat(attempts.get(), equalTo(1));
+        assertThat(meterRegistry.get("nbp.hedge.sent").counter().count(), equalTo(0.0));
+        assertThat(meterRegistry.get("nbp.hedge.throttled").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    public void getMaxAndMin_whenNbpSlow_shouldStreamFromHedgedCall() throws Exception {
+        //Arrange
+        warmUp();
+        MockRestServiceServer mockServer = MockRestServiceServer.createServer(restTemplate);
+        URI url = new URI("http://api.nbp.pl/api/exchangerates/rates/A/GBP/last/2/");
+        mockServer.expect(ExpectedCount.once(), requestTo(url))
+                .andRespond(request -> {
+                    sleep(500);
+                    return withStatus(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON)
+                            .body(String.format(BODY, "5.1111")).createResponse(request);
+                });
+        mockServer.expect(ExpectedCount.once(), requestTo(url))
+                .andRespond(withStatus(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON)
+                        .body(String.format(BODY, "5.4409")));
+
+        //Act and Assert
+        mockMvc.perform(get("/api/exchange/GBP/max-min?quotations=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", is("Max rate: 5.4409, Min rate: 5.3902")));
+        mockServer.verify(Duration.ofSeconds(2));
+        assertThat(meterRegistry.get("nbp.hedge.wins").counter().count(), equalTo(1.0));
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < 20; i++) {
+            hedging.call(() -> "fast");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.unit.client;
+
+import org.example.client.NbpCalendar;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class NbpCalendarTest {
+
+    @Test
+    public void isPublicationDay_whenEasterBasedHoliday_shouldReturnFalse() {
+        //Act and Assert
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2024, 3, 29)), is(true));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2024, 4, 1)), is(false));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2024, 5, 30)), is(false));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2025, 4, 21)), is(false));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2025, 6, 19)), is(false));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2008, 3, 24)), is(false));
+    }
+
+    @Test
+    public void isPublicationDay_whenFixedHoliday_shouldReturnFalse() {
+        //Act and Assert
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2022, 11, 1)), is(false));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2022, 11, 11)), is(false));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2023, 5, 3)), is(false));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2023, 8, 15)), is(false));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2018, 11, 12)), is(false));
+    }
+
+    @Test
+    public void isPublicationDay_whenHolidayIntroducedLater_shouldDependOnYear() {
+        //Act and Assert
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2010, 1, 6)), is(true));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2012, 1, 6)), is(false));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2024, 12, 24)), is(true));
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2025, 12, 24)), is(false));
+    }
+
+    @Test
+    public void isPublicationDay_whenBeforeFirstPublication_shouldReturnFalse() {
+        //Act and Assert
+        assertThat(NbpCalendar.isPublicationDay(LocalDate.of(2001, 12, 31)), is(false));
+        assertThat(NbpCalendar.isPublicationDay(NbpCalendar.FIRST_PUBLICATION), is(true));
+    }
+
+    @Test
+    public void onOrBefore_shouldSkipWeekendsAndHolidays() {
+        //Act and Assert
+        assertThat(NbpCalendar.onOrBefore(LocalDate.of(2024, 4, 1)), equalTo(LocalDate.of(2024, 3, 29)));
+        assertThat(NbpCalendar.onOrBefore(LocalDate.of(2008, 4, 5)), equalTo(LocalDate.of(2008, 4, 4)));
+        assertThat(NbpCalendar.onOrBefore(LocalDate.of(2022, 9, 8)), equalTo(LocalDate.of(2022, 9, 8)));
+        assertThat(NbpCalendar.onOrBefore(LocalDate.of(2002, 1, 1)), nullValue());
+    }
+
+    @Test
+    public void nextPublicationDay_shouldSkipWeekendsAndHolidays() {
+        //Act and Assert
+        assertThat(NbpCalendar.nextPublicationDay(LocalDate.of(2024, 3, 29)), equalTo(LocalDate.of(2024, 4, 2)));
+        assertThat(NbpCalendar.nextPublicationDay(LocalDate.of(2022, 12, 23)), equalTo(LocalDate.of(2022, 12, 27)));
+    }
+}
@@ -0,0 +1,301 @@
+package org.example.unit.client;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.cache.NbpResponseCache;
+import org.example.client.NbpClient;
+import org.example.client.NbpQuery;
+import org.example.client.NbpTable;
+import org.example.dto.TableDto;
+import org.example.store.RateStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "nbp.cache.recheck-missing-after=200ms")
+public class NbpClientTest {
+    private static final String BODY = "{\"table\":\"A\",\"currency\":\"funt szterling\",\"code\":\"GBP\",\"rates\":"
+            + "[{\"no\":\"174/A/NBP/2022\",\"effectiveDate\":\"2022-09-08\",\"mid\":5.3742}]}";
+
+    private static final String TABLE_BODY = "[{\"table\":\"A\",\"no\":\"174/A/NBP/2022\",\"effectiveDate\":\"2022-09-08\",\"rates\":"
+            + "[{\"currency\":\"funt szterling\",\"code\":\"GBP\",\"mid\":5.3742},"
+            + "{\"currency\":\"dolar amerykański\",\"code\":\"USD\",\"mid\":4.7468}]}]";
+
+    @Autowired
+    private NbpClient client;
+
+    @Autowired
+    private NbpResponseCache cache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Map<String, Object> clientFields;
+    private Object cacheSize;
+
+    @Before
+    public void setUp() {
+        cache.invalidateAll();
+        clientFields = new HashMap<>();
+        for (String field : List.of("clock", "tableFetch", "store")) {
+            clientFields.put(field, ReflectionTestUtils.getField(client, field));
+        }
+        cacheSize = ReflectionTestUtils.getField(cache, "maximumSize");
+    }
+
+    @After
+    public void tearDown() {
+        clientFields.forEach((field, value) -> ReflectionTestUtils.setField(client, field, value));
+        ReflectionTestUtils.setField(cache, "maximumSize", cacheSize);
+    }
+
+    @Test
+    public void getRates_whenDateQueried_shouldCallNbpUrlAndMapBody() {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/rates/A/GBP/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willReturn(new ResponseEntity<>(BODY, HttpStatusCode.valueOf(200)));
+
+        //Act
+        TableDto result = client.getRates(NbpQuery.forDate("A", "GBP", "2022-09-08"));
+
+        //Assert
+        assertThat(result.getCode(), equalTo("GBP"));
+        assertThat(result.getRates().get(0).getMid(), comparesEqualTo(new BigDecimal("5.3742")));
+    }
+
+    @Test
+    public void getRates_whenSameQueryRepeated_shouldCallNbpOnce() {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/rates/A/GBP/last/10/";
+        given(restTemplate.getForEntity(url, String.class)).willReturn(new ResponseEntity<>(BODY, HttpStatusCode.valueOf(200)));
+        CacheStats before = cache.stats();
+
+        //Act
+        client.getRates(NbpQuery.lastQuotations("A", "GBP", 10));
+        client.getRates(NbpQuery.lastQuotations("A", "GBP", 10));
+
+        //Assert
+        verify(restTemplate, times(1)).getForEntity(url, String.class);
+        CacheStats stats = cache.stats().minus(before);
+        assertThat(stats.hitCount(), equalTo(1L));
+        assertThat(stats.missCount(), equalTo(1L));
+    }
+
+    @Test
+    public void getRates_whenNbpReturnsError_shouldNotCacheIt() {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/rates/A/GBP/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willThrow(new HttpClientErrorException(HttpStatusCode.valueOf(400)));
+        NbpQuery query = NbpQuery.forDate("A", "GBP", "2022-09-08");
+
+        //Act
+        assertThrows(HttpClientErrorException.class, () -> client.getRates(query));
+        assertThrows(HttpClientErrorException.class, () -> client.getRates(query));
+
+        //Assert
+        verify(restTemplate, times(2)).getForEntity(url, String.class);
+    }
+
+    @Test
+    public void getRates_whenNbpReturns404ForPublishedDate_shouldRememberIt() {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/rates/A/XYZ/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willThrow(new HttpClientErrorException(HttpStatusCode.valueOf(404)));
+        NbpQuery query = NbpQuery.forDate("A", "XYZ", "2022-09-08");
+        double remembered = noData("negative_cache");
+
+        //Act
+        assertThrows(HttpClientErrorException.class, () -> client.getRates(query));
+        HttpClientErrorException cached = assertThrows(HttpClientErrorException.class, () -> client.getRates(query));
+
+        //Assert
+        assertThat(cached.getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        verify(restTemplate, times(1)).getForEntity(url, String.class);
+        assertThat(noData("negative_cache"), equalTo(remembered + 1));
+    }
+
+    @Test
+    public void getRates_whenNbpReturns404BeforeTableIsDue_shouldNotRememberIt() {
+        //Arrange
+        ReflectionTestUtils.setField(client, "clock", Clock.fixed(Instant.parse("2022-09-08T08:00:00Z"), ZoneOffset.UTC));
+        String url = "http://api.nbp.pl/api/exchangerates/rates/A/GBP/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willThrow(new HttpClientErrorException(HttpStatusCode.valueOf(404)));
+        NbpQuery query = NbpQuery.forDate("A", "GBP", "2022-09-08");
+
+        //Act
+        assertThrows(HttpClientErrorException.class, () -> client.getRates(query));
+        assertThrows(HttpClientErrorException.class, () -> client.getRates(query));
+
+        //Assert
+        verify(restTemplate, times(2)).getForEntity(url, String.class);
+    }
+
+    @Test
+    public void getTable_whenLatestDueTableIsLate_shouldAskNbpAgainAfterRecheckDelay() throws InterruptedException {
+        //Arrange
+        ReflectionTestUtils.setField(client, "clock", Clock.fixed(Instant.parse("2022-09-08T11:00:00Z"), ZoneOffset.UTC));
+        String url = "http://api.nbp.pl/api/exchangerates/tables/A/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class))
+                .willThrow(new HttpClientErrorException(HttpStatusCode.valueOf(404)))
+                .willReturn(new ResponseEntity<>(TABLE_BODY, HttpStatusCode.valueOf(200)));
+
+        //Act
+        assertThrows(HttpClientErrorException.class, () -> client.getTable("A", "2022-09-08"));
+        assertThrows(HttpClientErrorException.class, () -> client.getTable("A", "2022-09-08"));
+        Thread.sleep(300);
+        NbpTable result = client.getTable("A", "2022-09-08");
+
+        //Assert
+        assertThat(result.get("GBP").getRates().get(0).getMid(), comparesEqualTo(new BigDecimal("5.3742")));
+        verify(restTemplate, times(2)).getForEntity(url, String.class);
+    }
+
+    @Test
+    public void getRates_whenNoTableThatDay_shouldAnswer404WithoutCallingNbp() {
+        //Arrange
+        ReflectionTestUtils.setField(client, "clock", Clock.fixed(Instant.parse("2022-09-08T12:00:00Z"), ZoneOffset.UTC));
+        double skipped = noData("calendar");
+
+        //Act and Assert
+        for (String date : List.of("2022-09-10", "2022-11-01", "2022-06-16", "2001-12-31", "2022-09-12")) {
+            HttpClientErrorException thrown = assertThrows(HttpClientErrorException.class,
+                    () -> client.getRates(NbpQuery.forDate("A", "GBP", date)));
+            assertThat(thrown.getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        }
+        verifyNoInteractions(restTemplate);
+        assertThat(noData("calendar"), equalTo(skipped + 5));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getRates_whenBodyIsNotJson_shouldThrowException() {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/rates/A/GBP/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willReturn(new ResponseEntity<>("<html/>", HttpStatusCode.valueOf(200)));
+
+        //Act
+        client.getRates(NbpQuery.forDate("A", "GBP", "2022-09-08"));
+    }
+
+    @Test
+    public void getTable_shouldIndexWholeTableByCode() {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/tables/A/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willReturn(new ResponseEntity<>(TABLE_BODY, HttpStatusCode.valueOf(200)));
+
+        //Act
+        NbpTable result = client.getTable("A", "2022-09-08");
+
+        //Assert
+        assertThat(result.size(), equalTo(2));
+        TableDto usd = result.get("USD");
+        assertThat(usd.getTable(), equalTo("A"));
+        assertThat(usd.getCurrency(), equalTo("dolar amerykański"));
+        assertThat(usd.getRates().get(0).getNo(), equalTo("174/A/NBP/2022"));
+        assertThat(usd.getRates().get(0).getEffectiveDate(), equalTo("2022-09-08"));
+        assertThat(usd.getRates().get(0).getMid(), comparesEqualTo(new BigDecimal("4.7468")));
+        assertThat(result.get("EUR"), nullValue());
+    }
+
+    @Test
+    public void getRates_whenTableFetchEnabled_shouldServeCurrenciesFromOneTableCall() {
+        //Arrange
+        ReflectionTestUtils.setField(client, "tableFetch", true);
+        String url = "http://api.nbp.pl/api/exchangerates/tables/A/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willReturn(new ResponseEntity<>(TABLE_BODY, HttpStatusCode.valueOf(200)));
+
+        //Act
+        TableDto gbp = client.getRates(NbpQuery.forDate("A", "GBP", "2022-09-08"));
+        TableDto usd = client.getRates(NbpQuery.forDate("A", "USD", "2022-09-08"));
+
+        //Assert
+        assertThat(gbp.getRates().get(0).getMid(), comparesEqualTo(new BigDecimal("5.3742")));
+        assertThat(usd.getRates().get(0).getMid(), comparesEqualTo(new BigDecimal("4.7468")));
+        assertThrows(HttpClientErrorException.class, () -> client.getRates(NbpQuery.forDate("A", "EUR", "2022-09-08")));
+        verify(restTemplate, times(1)).getForEntity(url, String.class);
+    }
+
+    @Test
+    public void prefetchTable_shouldServeSingleDateQueriesFromCache() {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/tables/A/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willReturn(new ResponseEntity<>(TABLE_BODY, HttpStatusCode.valueOf(200)));
+
+        //Act
+        client.prefetchTable("A", "2022-09-08");
+        TableDto usd = client.getRates(NbpQuery.forDate("A", "USD", "2022-09-08"));
+
+        //Assert
+        assertThat(usd.getRates().get(0).getMid(), comparesEqualTo(new BigDecimal("4.7468")));
+        verify(restTemplate, times(1)).getForEntity(url, String.class);
+    }
+
+    @Test
+    public void getRates_whenStoreEnabled_shouldFetchDateOnceAcrossRestarts() throws IOException {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/rates/A/GBP/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willReturn(new ResponseEntity<>(BODY, HttpStatusCode.valueOf(200)));
+        RateStore store = new RateStore(folder.getRoot().toPath());
+        store.open();
+        ReflectionTestUtils.setField(client, "store", store);
+        client.getRates(NbpQuery.forDate("A", "GBP", "2022-09-08"));
+        store.close();
+        ReflectionTestUtils.setField(cache, "maximumSize", 0L);
+
+        //Act
+        RateStore reopened = new RateStore(folder.getRoot().toPath());
+        reopened.open();
+        ReflectionTestUtils.setField(client, "store", reopened);
+        TableDto result = client.getRates(NbpQuery.forDate("A", "GBP", "2022-09-08"));
+        reopened.close();
+
+        //Assert
+        assertThat(result.getRates().get(0).getNo(), equalTo("174/A/NBP/2022"));
+        assertThat(result.getRates().get(0).getMid(), comparesEqualTo(new BigDecimal("5.3742")));
+        verify(restTemplate, times(1)).getForEntity(url, String.class);
+    }
+
+    private double noData(String reason) {
+        Counter counter = meterRegistry.find("nbp.responses.no-data").tag("reason", reason).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.unit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"nbp.http.max-connections=20", "nbp.http.max-connections-per-host=5"})
+public class NbpHttpClientConfigurationTest {
+    private static final String BODY = "{\"table\":\"A\",\"currency\":\"funt szterling\",\"code\":\"GBP\",\"rates\":[]}";
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private HttpServer server;
+
+    private volatile String acceptEncoding;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+                out.write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void restTemplate_shouldRequestAndDecodeGzip() {
+        //Act
+        String result = restTemplate.getForObject(url(), String.class);
+
+        //Assert
+        assertThat(result, equalTo(BODY));
+        assertThat(acceptEncoding, containsString("gzip"));
+    }
+
+    @Test
+    public void restTemplate_shouldPublishPoolMetrics() {
+        //Act
+        restTemplate.getForObject(url(), String.class);
+        restTemplate.getForObject(url(), String.class);
+
+        //Assert
+        assertThat(meterRegistry.get("nbp.upstream.connection.acquire").timer().count(), greaterThanOrEqualTo(2L));
+        assertThat(meterRegistry.get("nbp.upstream.pool.max").gauge().value(), equalTo(20.0));
+        assertThat(meterRegistry.get("nbp.upstream.pool.available").gauge().value(), greaterThanOrEqualTo(1.0));
+        assertThat(meterRegistry.get("nbp.upstream.pool.leased").gauge().value(), equalTo(0.0));
+    }
+
+    @Test
+    public void hedgeExecutor_whenHedgingDisabled_shouldNotBeCreated() {
+        //Act
+        boolean created = context.containsBean("nbpHedgeExecutor");
+
+        //Assert
+        assertThat(created, equalTo(false));
+    }
+
+    private String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/api/exchangerates/rates/A/GBP/last/1/";
+    }
+}
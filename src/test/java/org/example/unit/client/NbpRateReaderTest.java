@@ -0,0 +1,116 @@
+package org.example.unit.client;
+
+import org.example.client.NbpRateReader;
+import org.example.dto.DifferenceDto;
+import org.example.dto.MaxAndMinDto;
+import org.example.service.BuyAndSellRateService;
+import org.example.service.ExchangeRateService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class NbpRateReaderTest {
+
+    @Autowired
+    private NbpRateReader reader;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private BuyAndSellRateService buyAndSellRateService;
+
+    @Test
+    public void read_whenTableA_shouldFeedEveryRateToCollector() throws IOException {
+        //Arrange
+        InputStream body = body("{\"table\":\"A\",\"currency\":\"dolar amerykański\",\"code\":\"USD\",\"rates\":["
+                + "{\"no\":\"078/A/NBP/2023\",\"effectiveDate\":\"2023-04-21\",\"mid\":4.1924},"
+                + "{\"no\":\"079/A/NBP/2023\",\"effectiveDate\":\"2023-04-24\",\"mid\":4.2005},"
+                + "{\"no\":\"080/A/NBP/2023\",\"effectiveDate\":\"2023-04-25\",\"mid\":4.1649}]}");
+
+        //Act
+        MaxAndMinDto result = reader.read(body, exchangeRateService.maxAndMinCollector());
+
+        //Assert
+        assertThat(result.getMaxRate().getNo(), equalTo("079/A/NBP/2023"));
+        assertThat(result.getMaxRate().getMid(), comparesEqualTo(new BigDecimal("4.2005")));
+        assertThat(result.getMaxRate().getBid(), nullValue());
+        assertThat(result.getMinRate().getEffectiveDate(), equalTo("2023-04-25"));
+        assertThat(result.getMinRate().getMid(), comparesEqualTo(new BigDecimal("4.1649")));
+    }
+
+    @Test
+    public void read_whenTableC_shouldReadBidAndAsk() throws IOException {
+        //Arrange
+        InputStream body = body("{\"table\":\"C\",\"currency\":\"funt szterling\",\"code\":\"GBP\",\"rates\":["
+                + "{\"no\":\"078/C/NBP/2023\",\"effectiveDate\":\"2023-04-21\",\"bid\":5.1621,\"ask\":5.2663},"
+                + "{\"no\":\"079/C/NBP/2023\",\"effectiveDate\":\"2023-04-24\",\"bid\":5.1540,\"ask\":5.2582}]}");
+
+        //Act
+        DifferenceDto result = reader.read(body, buyAndSellRateService.majorDifferenceCollector());
+
+        //Assert
+        assertThat(result.getDifference(), comparesEqualTo(new BigDecimal("0.1042")));
+        assertThat(result.getRate().getNo(), equalTo("078/C/NBP/2023"));
+        assertThat(result.getRate().getAsk(), comparesEqualTo(new BigDecimal("5.2663")));
+    }
+
+    @Test
+    public void read_whenUnknownFieldsPresent_shouldSkipThem() throws IOException {
+        //Arrange
+        InputStream body = body("{\"table\":\"A\",\"extra\":{\"nested\":[1,2]},\"rates\":["
+                + "{\"no\":\"078/A/NBP/2023\",\"unknown\":[{}],\"effectiveDate\":\"2023-04-21\",\"mid\":4.1924}]}");
+
+        //Act
+        MaxAndMinDto result = reader.read(body, exchangeRateService.maxAndMinCollector());
+
+        //Assert
+        assertThat(result.getMaxRate().getMid(), comparesEqualTo(new BigDecimal("4.1924")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void read_whenTableDoesNotMatchCollector_shouldThrowException() throws IOException {
+        //Arrange
+        InputStream body = body("{\"table\":\"C\",\"rates\":[{\"no\":\"078/C/NBP/2023\",\"bid\":5.1621,\"ask\":5.2663}]}");
+
+        //Act
+        reader.read(body, exchangeRateService.maxAndMinCollector());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void read_whenRatesAreEmpty_shouldThrowException() throws IOException {
+        //Arrange
+        InputStream body = body("{\"table\":\"A\",\"rates\":[]}");
+
+        //Act
+        reader.read(body, exchangeRateService.maxAndMinCollector());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void read_whenBodyIsNotAnObject_shouldThrowException() throws IOException {
+        //Arrange
+        InputStream body = body("[]");
+
+        //Act
+        reader.read(body, exchangeRateService.maxAndMinCollector());
+    }
+
+    private InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
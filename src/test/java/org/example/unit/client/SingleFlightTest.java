@@ -0,0 +1,115 @@
+package org.example.unit.client;
+
+import org.example.client.SingleFlight;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThrows;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class SingleFlightTest {
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Test
+    public void execute_whenCallsOverlap_shouldCallUpstreamOnce() throws Exception {
+        //Arrange
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        double deduplicatedBefore = singleFlight.deduplicatedCount();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+        //Act
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("overlap", () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "rates";
+            })));
+        }
+        waitForFollowers(deduplicatedBefore);
+        release.countDown();
+
+        //Assert
+        for (Future<String> result : results) {
+            assertThat(result.get(), equalTo("rates"));
+        }
+        assertThat(calls.get(), equalTo(1));
+        executor.shutdown();
+    }
+
+    @Test
+    public void execute_whenLeaderFails_shouldShareFailure() throws Exception {
+        //Arrange
+        HttpServerErrorException failure = new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        CountDownLatch release = new CountDownLatch(1);
+        double deduplicatedBefore = singleFlight.deduplicatedCount();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+        //Act
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.<String>execute("failure", () -> {
+                await(release);
+                throw failure;
+            })));
+        }
+        waitForFollowers(deduplicatedBefore);
+        release.countDown();
+
+        //Assert
+        for (Future<String> result : results) {
+            ExecutionException thrown = assertThrows(ExecutionException.class, result::get);
+            assertThat(thrown.getCause(), sameInstance(failure));
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void execute_whenCallsDoNotOverlap_shouldCallUpstreamEachTime() {
+        //Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        //Act
+        singleFlight.execute("sequential", calls::incrementAndGet);
+        singleFlight.execute("sequential", calls::incrementAndGet);
+
+        //Assert
+        assertThat(calls.get(), equalTo(2));
+    }
+
+    private void waitForFollowers(double deduplicatedBefore) throws InterruptedException {
+        while (singleFlight.deduplicatedCount() - deduplicatedBefore < CALLERS - 1) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.example.unit.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.cache.NbpResponseCache;
+import org.example.client.NbpClient;
+import org.example.client.NbpQuery;
+import org.example.client.TableBatcher;
+import org.example.dto.TableDto;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"nbp.batch.enabled=true", "nbp.batch.window=200ms"})
+public class TableBatcherTest {
+    private static final String BODY = "{\"table\":\"A\",\"currency\":\"funt szterling\",\"code\":\"GBP\",\"rates\":"
+            + "[{\"no\":\"174/A/NBP/2022\",\"effectiveDate\":\"2022-09-08\",\"mid\":5.3742}]}";
+
+    private static final String TABLE_BODY = "[{\"table\":\"A\",\"no\":\"174/A/NBP/2022\",\"effectiveDate\":\"2022-09-08\",\"rates\":"
+            + "[{\"currency\":\"funt szterling\",\"code\":\"GBP\",\"mid\":5.3742},"
+            + "{\"currency\":\"dolar amerykański\",\"code\":\"USD\",\"mid\":4.7468}]}]";
+
+    private static final String TABLE_URL = "http://api.nbp.pl/api/exchangerates/tables/A/2022-09-08/";
+
+    @Autowired
+    private NbpClient client;
+
+    @Autowired
+    private TableBatcher batcher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private NbpResponseCache cache;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @Before
+    public void setUp() {
+        cache.invalidateAll();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void getRates_whenCurrenciesOfSameDateLookedUpTogether_shouldFetchTableOnce() throws Exception {
+        //Arrange
+        given(restTemplate.getForEntity(TABLE_URL, String.class)).willReturn(new ResponseEntity<>(TABLE_BODY, HttpStatusCode.valueOf(200)));
+        DistributionSummary sizes = meterRegistry.get("nbp.batch.size").summary();
+        long batchesBefore = sizes.count();
+        double lookupsBefore = sizes.totalAmount();
+        long delaysBefore = meterRegistry.get("nbp.batch.delay").timer().count();
+
+        //Act
+        Future<TableDto> gbp = executor.submit(() -> client.getRates(NbpQuery.forDate("A", "GBP", "2022-09-08")));
+        Future<TableDto> usd = executor.submit(() -> client.getRates(NbpQuery.forDate("A", "USD", "2022-09-08")));
+
+        //Assert
+        assertThat(gbp.get().getRates().get(0).getMid(), comparesEqualTo(new BigDecimal("5.3742")));
+        assertThat(usd.get().getRates().get(0).getMid(), comparesEqualTo(new BigDecimal("4.7468")));
+        verify(restTemplate, times(1)).getForEntity(TABLE_URL, String.class);
+        verify(restTemplate, never()).getForEntity(contains("/rates/"), eq(String.class));
+        assertThat(sizes.count(), equalTo(batchesBefore + 1));
+        assertThat(sizes.totalAmount(), equalTo(lookupsBefore + 2));
+        assertThat(meterRegistry.get("nbp.batch.delay").timer().count(), equalTo(delaysBefore + 2));
+    }
+
+    @Test
+    public void getRates_whenCurrencyLookedUpAlone_shouldFetchOnlyThatCurrency() {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/rates/A/GBP/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willReturn(new ResponseEntity<>(BODY, HttpStatusCode.valueOf(200)));
+        DistributionSummary sizes = meterRegistry.get("nbp.batch.size").summary();
+        long batchesBefore = sizes.count();
+        double lookupsBefore = sizes.totalAmount();
+
+        //Act
+        TableDto gbp = client.getRates(NbpQuery.forDate("A", "GBP", "2022-09-08"));
+
+        //Assert
+        assertThat(gbp.getCode(), equalTo("GBP"));
+        verify(restTemplate, never()).getForEntity(TABLE_URL, String.class);
+        assertThat(sizes.count(), equalTo(batchesBefore + 1));
+        assertThat(sizes.totalAmount(), equalTo(lookupsBefore + 1));
+    }
+
+    @Test
+    public void getRates_whenBatchedCurrencyNotInTable_shouldReturn404OnlyToThatLookup() throws Exception {
+        //Arrange
+        given(restTemplate.getForEntity(TABLE_URL, String.class)).willReturn(new ResponseEntity<>(TABLE_BODY, HttpStatusCode.valueOf(200)));
+
+        //Act
+        Future<TableDto> gbp = executor.submit(() -> client.getRates(NbpQuery.forDate("A", "GBP", "2022-09-08")));
+        Future<TableDto> eur = executor.submit(() -> client.getRates(NbpQuery.forDate("A", "EUR", "2022-09-08")));
+
+        //Assert
+        assertThat(gbp.get().getCode(), equalTo("GBP"));
+        ExecutionException error = assertThrows(ExecutionException.class, eur::get);
+        assertThat(((HttpClientErrorException) error.getCause()).getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(String.class));
+    }
+
+    @Test
+    public void get_whenLeaderInterrupted_shouldFailFollowersAndOpenNewBatch() throws Exception {
+        //Arrange
+        NbpQuery gbp = NbpQuery.forDate("A", "GBP", "2022-09-08");
+        NbpQuery usd = NbpQuery.forDate("A", "USD", "2022-09-08");
+        TableDto single = new TableDto("A", "funt szterling", "GBP", List.of());
+        AtomicReference<RuntimeException> leaderError = new AtomicReference<>();
+        AtomicBoolean leaderInterrupted = new AtomicBoolean();
+        Thread leader = new Thread(() -> {
+            try {
+                batcher.get(gbp, () -> single, () -> null);
+            } catch (RuntimeException e) {
+                leaderError.set(e);
+                leaderInterrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+
+        //Act
+        leader.start();
+        Thread.sleep(50);
+        Future<TableDto> follower = executor.submit(() -> batcher.get(usd, () -> null, () -> null));
+        Thread.sleep(50);
+        leader.interrupt();
+        leader.join();
+        ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(1, TimeUnit.SECONDS));
+        TableDto later = batcher.get(gbp, () -> single, () -> null);
+
+        //Assert
+        assertThat(leaderError.get(), instanceOf(IllegalStateException.class));
+        assertThat(leaderInterrupted.get(), is(true));
+        assertThat(followerError.getCause(), instanceOf(IllegalStateException.class));
+        assertThat(later, equalTo(single));
+    }
+
+    @Test
+    public void getRates_whenLastQuotationsQueried_shouldNotBatch() {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/rates/A/GBP/last/1/";
+        given(restTemplate.getForEntity(url, String.class)).willReturn(new ResponseEntity<>(BODY, HttpStatusCode.valueOf(200)));
+        long batchesBefore = meterRegistry.get("nbp.batch.size").summary().count();
+
+        //Act
+        client.getRates(NbpQuery.lastQuotations("A", "GBP", 1));
+
+        //Assert
+        assertThat(meterRegistry.get("nbp.batch.size").summary().count(), equalTo(batchesBefore));
+    }
+}
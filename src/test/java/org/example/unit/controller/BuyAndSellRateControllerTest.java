@@ -1,35 +1,38 @@
 package org.example.unit.controller;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.cache.NbpPublicationSchedule;
+import org.example.cache.ResponseBytesCache;
+import org.example.client.NbpClient;
+import org.example.client.NbpQuery;
 import org.example.controller.BuyAndSellRateController;
 import org.example.dto.DifferenceDto;
 import org.example.dto.RateDto;
-import org.example.dto.TableDto;
 import org.example.service.BuyAndSellRateService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatusCode;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
-@WebMvcTest(BuyAndSellRateController.class)
+@WebMvcTest(value = BuyAndSellRateController.class, properties = "nbp.response-cache.maximum-size=0")
+@Import({ResponseBytesCache.class, NbpPublicationSchedule.class, SimpleMeterRegistry.class})
 public class BuyAndSellRateControllerTest {
     @Autowired
     private MockMvc mvc;
@@ -38,10 +41,7 @@ public class BuyAndSellRateControllerTest {
     private BuyAndSellRateService service;
 
     @MockBean
-    private RestTemplate restTemplate;
-
-    @MockBean
-    private ObjectMapper mapper;
+    private NbpClient nbpClient;
 
     @Test
     public void getMajorDifference_whenValidData_ShouldReturnJson() throws Exception {
@@ -60,20 +60,10 @@ public class BuyAndSellRateControllerTest {
                 new BigDecimal("1.7"),
                 null
         );
-        TableDto tableDto = new TableDto(
-                "C",
-                "funt szterling",
-                "GBP",
-                List.of(firstRate, secondRate)
-        );
-
         String currency = "GBP";
         Integer quotations = 2;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
-        String responseBody = "Value needed for mock";
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willReturn(new ResponseEntity<>(responseBody, HttpStatusCode.valueOf(200)));
-        given(mapper.readValue(responseBody, TableDto.class)).willReturn(tableDto);
-        given(service.computeMajorDifference(tableDto)).willReturn(new DifferenceDto(new BigDecimal("0.1"), firstRate));
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
+        given(nbpClient.collectRates(eq(query), eq(DifferenceDto.class), any())).willReturn(new DifferenceDto(new BigDecimal("0.1"), firstRate));
 
         //Act and Assert
         mvc.perform(get("/api/buy-and-sell/" + currency + "/difference?quotations=" + quotations + "&detailed=true"))
@@ -119,11 +109,11 @@ public class BuyAndSellRateControllerTest {
         //Arrange
         String currency = "GBP";
         Integer quotations = 256;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
 
         String errorText = "Przekroczony limit 255 wyników / Maximum size of 255 data series has been exceeded";
         HttpClientErrorException exception = new HttpClientErrorException(HttpStatusCode.valueOf(400), errorText);
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willThrow(exception);
+        given(nbpClient.collectRates(eq(query), eq(DifferenceDto.class), any())).willThrow(exception);
 
         //Act and Assert
         mvc.perform(get("/api/buy-and-sell/" + currency + "/difference?quotations=" + quotations))
@@ -136,10 +126,10 @@ public class BuyAndSellRateControllerTest {
         //Arrange
         String currency = "GBP";
         Integer quotations = 2;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
 
         HttpClientErrorException exception = new HttpClientErrorException(HttpStatusCode.valueOf(404));
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willThrow(exception);
+        given(nbpClient.collectRates(eq(query), eq(DifferenceDto.class), any())).willThrow(exception);
 
         //Act and Assert
         mvc.perform(get("/api/buy-and-sell/" + currency + "/difference?quotations=" + quotations))
@@ -148,15 +138,13 @@ public class BuyAndSellRateControllerTest {
     }
 
     @Test
-    public void getMajorDifference_whenMapperThrowsException_shouldReturn500code() throws Exception {
+    public void getMajorDifference_whenClientThrowsException_shouldReturn500code() throws Exception {
         //Arrange
         String currency = "GBP";
         Integer quotations = 2;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
 
-        String responseBody = "Value needed for mock";
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willReturn(new ResponseEntity<>(responseBody, HttpStatusCode.valueOf(200)));
-        given(mapper.readValue(responseBody, TableDto.class)).willThrow(JsonProcessingException.class);
+        given(nbpClient.collectRates(eq(query), eq(DifferenceDto.class), any())).willThrow(IllegalStateException.class);
 
         //Act and Assert
         mvc.perform(get("/api/buy-and-sell/" + currency + "/difference?quotations=" + quotations))
@@ -168,13 +156,8 @@ public class BuyAndSellRateControllerTest {
         //Arrange
         String currency = "GBP";
         Integer quotations = 2;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
-        TableDto tableDto = new TableDto();
-
-        String responseBody = "Value needed for mock";
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willReturn(new ResponseEntity<>(responseBody, HttpStatusCode.valueOf(200)));
-        given(mapper.readValue(responseBody, TableDto.class)).willReturn(tableDto);
-        given(service.computeMajorDifference(tableDto)).willThrow(IllegalStateException.class);
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
+        given(nbpClient.collectRates(eq(query), eq(DifferenceDto.class), any())).willThrow(IllegalStateException.class);
 
         //Act and Assert
         mvc.perform(get("/api/buy-and-sell/" + currency + "/difference?quotations=" + quotations))
@@ -186,20 +169,15 @@ public class BuyAndSellRateControllerTest {
         //Arrange
         String currency = "GBP";
         Integer quotations = 2;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
-        TableDto tableDto = new TableDto();
-
-        String responseBody = "Value needed for mock";
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willReturn(new ResponseEntity<>(responseBody, HttpStatusCode.valueOf(200)));
-        given(mapper.readValue(responseBody, TableDto.class)).willReturn(tableDto);
-        given(service.computeMajorDifference(tableDto)).willReturn(null);
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
+        given(nbpClient.collectRates(eq(query), eq(DifferenceDto.class), any())).willReturn(null);
 
         //Act and Assert
         mvc.perform(get("/api/buy-and-sell/" + currency + "/difference?quotations=" + quotations))
                 .andExpect(status().is(500));
     }
 
-    private String getUrlWithQuotations(String currency, Integer quotations) {
-        return "http://api.nbp.pl/api/exchangerates/rates/C/" + currency + "/last/" + quotations + "/";
+    private NbpQuery getQueryWithQuotations(String currency, Integer quotations) {
+        return NbpQuery.lastQuotations("C", currency, quotations);
     }
 }
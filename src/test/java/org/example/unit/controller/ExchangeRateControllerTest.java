@@ -1,36 +1,54 @@
 package org.example.unit.controller;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.cache.NbpPublicationSchedule;
+import org.example.cache.ResponseBytesCache;
+import org.example.client.NbpClient;
+import org.example.client.NbpQuery;
+import org.example.client.NbpTable;
 import org.example.controller.ExchangeRateController;
+import org.example.dto.ExchangeTableDto;
 import org.example.dto.MaxAndMinDto;
+import org.example.dto.OhlcBarDto;
+import org.example.dto.OhlcDto;
 import org.example.dto.RateDto;
+import org.example.dto.StatisticsDto;
 import org.example.dto.TableDto;
+import org.example.rate.Interval;
+import org.example.rate.RateSeries;
+import org.example.rate.RateWindow;
+import org.example.rate.SeriesRange;
+import org.example.rate.Statistic;
 import org.example.service.ExchangeRateService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatusCode;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
-@WebMvcTest(ExchangeRateController.class)
+@WebMvcTest(value = ExchangeRateController.class, properties = "nbp.response-cache.maximum-size=0")
+@Import({ResponseBytesCache.class, NbpPublicationSchedule.class, SimpleMeterRegistry.class})
 public class ExchangeRateControllerTest {
     @Autowired
     private MockMvc mvc;
@@ -39,10 +57,7 @@ public class ExchangeRateControllerTest {
     private ExchangeRateService service;
 
     @MockBean
-    private RestTemplate restTemplate;
-
-    @MockBean
-    private ObjectMapper mapper;
+    private NbpClient nbpClient;
 
     @Test
     public void getExchangeRate_whenValidData_ShouldReturnJson() throws Exception {
@@ -63,10 +78,8 @@ public class ExchangeRateControllerTest {
 
         String currency = "GBP";
         String date = "2022-09-08";
-        String nbpUrl = getUrlWithDate(currency, date);
-        String responseBody = "Value needed for mock";
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willReturn(new ResponseEntity<>(responseBody, HttpStatusCode.valueOf(200)));
-        given(mapper.readValue(responseBody, TableDto.class)).willReturn(tableDto);
+        NbpQuery query = getQueryWithDate(currency, date);
+        given(nbpClient.getRates(query)).willReturn(tableDto);
 
         //Act and Assert
         mvc.perform(get("/api/exchange/" + currency + "/" + date))
@@ -78,6 +91,35 @@ public class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$.rates[0].mid", is(1.6)));
     }
 
+    @Test
+    public void getExchangeRate_whenFallbackPrevious_shouldAskForNearestEarlierTable() throws Exception {
+        //Arrange
+        RateDto rate = new RateDto("211/A/NBP/2022", "2022-10-31", null, null, new BigDecimal("5.5111"));
+        TableDto tableDto = new TableDto("A", "funt szterling", "GBP", List.of(rate));
+        given(nbpClient.getRates(getQueryWithDate("GBP", "2022-10-31"))).willReturn(tableDto);
+
+        //Act and Assert
+        mvc.perform(get("/api/exchange/GBP/2022-11-01?fallback=previous&detailed=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rates[0].effectiveDate", is("2022-10-31")));
+    }
+
+    @Test
+    public void getExchangeRate_whenFallbackIsUnknown_shouldReturn400code() throws Exception {
+        //Act and Assert
+        mvc.perform(get("/api/exchange/GBP/2022-11-01?fallback=next"))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$", is("Fallback must be previous")));
+    }
+
+    @Test
+    public void getExchangeRate_whenFallbackBeforeFirstTable_shouldReturn404code() throws Exception {
+        //Act and Assert
+        mvc.perform(get("/api/exchange/GBP/2001-06-01?fallback=previous"))
+                .andExpect(status().is(404))
+                .andExpect(jsonPath("$", is("Data not found")));
+    }
+
     @Test
     public void getExchangeRate_whenInvalidCurrency_shouldReturn400code() throws Exception {
         //Arrange
@@ -107,10 +149,10 @@ public class ExchangeRateControllerTest {
         //Arrange
         String currency = "GBP";
         String date = "2022-09-08";
-        String nbpUrl = getUrlWithDate(currency, date);
+        NbpQuery query = getQueryWithDate(currency, date);
 
         HttpClientErrorException exception = new HttpClientErrorException(HttpStatusCode.valueOf(404));
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willThrow(exception);
+        given(nbpClient.getRates(query)).willThrow(exception);
 
         //Act and Assert
         mvc.perform(get("/api/exchange/" + currency + "/" + date))
@@ -119,21 +161,78 @@ public class ExchangeRateControllerTest {
     }
 
     @Test
-    public void getExchangeRate_whenMapperThrowsException_shouldReturn500code() throws Exception {
+    public void getExchangeRate_whenClientThrowsException_shouldReturn500code() throws Exception {
         //Arrange
         String currency = "GBP";
         String date = "2022-09-08";
-        String nbpUrl = getUrlWithDate(currency, date);
+        NbpQuery query = getQueryWithDate(currency, date);
 
-        String responseBody = "Value needed for mock";
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willReturn(new ResponseEntity<>(responseBody, HttpStatusCode.valueOf(200)));
-        given(mapper.readValue(responseBody, TableDto.class)).willThrow(JsonProcessingException.class);
+        given(nbpClient.getRates(query)).willThrow(IllegalStateException.class);
 
         //Act and Assert
         mvc.perform(get("/api/exchange/" + currency + "/" + date))
                 .andExpect(status().is(500));
     }
 
+    @Test
+    public void getExchangeRates_whenValidData_shouldReturnAllCurrencies() throws Exception {
+        //Arrange
+        String date = "2022-09-08";
+        String body = "[{\"table\":\"A\",\"no\":\"174/A/NBP/2022\",\"effectiveDate\":\"2022-09-08\",\"rates\":"
+                + "[{\"currency\":\"funt szterling\",\"code\":\"GBP\",\"mid\":5.3742},"
+                + "{\"currency\":\"dolar amerykański\",\"code\":\"USD\",\"mid\":4.7468}]}]";
+        NbpTable table = NbpTable.of(new ObjectMapper().readValue(body, ExchangeTableDto[].class)[0]);
+        given(nbpClient.getTable("A", date)).willReturn(table);
+
+        //Act and Assert
+        mvc.perform(get("/api/exchange/" + date + "?currencies=USD,GBP"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.USD", is(4.7468)))
+                .andExpect(jsonPath("$.GBP", is(5.3742)));
+
+        mvc.perform(get("/api/exchange/" + date + "?currencies=USD,GBP&detailed=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].code", is("USD")))
+                .andExpect(jsonPath("$[1].rates[0].mid", is(5.3742)));
+    }
+
+    @Test
+    public void getExchangeRates_whenFallbackPrevious_shouldReadNearestEarlierTable() throws Exception {
+        //Arrange
+        String body = "[{\"table\":\"A\",\"no\":\"175/A/NBP/2022\",\"effectiveDate\":\"2022-09-09\",\"rates\":"
+                + "[{\"currency\":\"dolar amerykański\",\"code\":\"USD\",\"mid\":4.7468}]}]";
+        NbpTable table = NbpTable.of(new ObjectMapper().readValue(body, ExchangeTableDto[].class)[0]);
+        given(nbpClient.getTable("A", "2022-09-09")).willReturn(table);
+
+        //Act and Assert
+        mvc.perform(get("/api/exchange/2022-09-11?currencies=USD&fallback=previous"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.USD", is(4.7468)));
+    }
+
+    @Test
+    public void getExchangeRates_whenCurrencyNotInTable_shouldReturn404code() throws Exception {
+        //Arrange
+        String date = "2022-09-08";
+        String body = "[{\"table\":\"A\",\"no\":\"174/A/NBP/2022\",\"effectiveDate\":\"2022-09-08\",\"rates\":"
+                + "[{\"currency\":\"funt szterling\",\"code\":\"GBP\",\"mid\":5.3742}]}]";
+        NbpTable table = NbpTable.of(new ObjectMapper().readValue(body, ExchangeTableDto[].class)[0]);
+        given(nbpClient.getTable("A", date)).willReturn(table);
+
+        //Act and Assert
+        mvc.perform(get("/api/exchange/" + date + "?currencies=GBP,KPW"))
+                .andExpect(status().is(404))
+                .andExpect(jsonPath("$", is("Data not found")));
+    }
+
+    @Test
+    public void getExchangeRates_whenInvalidCurrency_shouldReturn400code() throws Exception {
+        //Act and Assert
+        mvc.perform(get("/api/exchange/2022-09-08?currencies=GBP,XXXX"))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$", is("Currency must be in ISO-4217 standard")));
+    }
+
     @Test
     public void getMaxAndMin_whenValidData_ShouldReturnJson() throws Exception {
         //Arrange
@@ -151,20 +250,10 @@ public class ExchangeRateControllerTest {
                 null,
                 new BigDecimal("1.8")
         );
-        TableDto tableDto = new TableDto(
-                "A",
-                "funt szterling",
-                "GBP",
-                List.of(firstRate, secondRate)
-        );
-
         String currency = "GBP";
         Integer quotations = 2;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
-        String responseBody = "Value needed for mock";
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willReturn(new ResponseEntity<>(responseBody, HttpStatusCode.valueOf(200)));
-        given(mapper.readValue(responseBody, TableDto.class)).willReturn(tableDto);
-        given(service.computeMaxAndMinValue(tableDto)).willReturn(new MaxAndMinDto(secondRate, firstRate));
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
+        given(nbpClient.collectRates(eq(query), eq(MaxAndMinDto.class), any())).willReturn(new MaxAndMinDto(secondRate, firstRate));
 
         //Act and Assert
         mvc.perform(get("/api/exchange/" + currency + "/max-min?quotations=" + quotations + "&detailed=true"))
@@ -209,11 +298,11 @@ public class ExchangeRateControllerTest {
         //Arrange
         String currency = "GBP";
         Integer quotations = 256;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
 
         String errorText = "Przekroczony limit 255 wyników / Maximum size of 255 data series has been exceeded";
         HttpClientErrorException exception = new HttpClientErrorException(HttpStatusCode.valueOf(400), errorText);
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willThrow(exception);
+        given(nbpClient.collectRates(eq(query), eq(MaxAndMinDto.class), any())).willThrow(exception);
 
         //Act and Assert
         mvc.perform(get("/api/exchange/" + currency + "/max-min?quotations=" + quotations))
@@ -226,10 +315,10 @@ public class ExchangeRateControllerTest {
         //Arrange
         String currency = "GBP";
         Integer quotations = 2;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
 
         HttpClientErrorException exception = new HttpClientErrorException(HttpStatusCode.valueOf(404));
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willThrow(exception);
+        given(nbpClient.collectRates(eq(query), eq(MaxAndMinDto.class), any())).willThrow(exception);
 
         //Act and Assert
         mvc.perform(get("/api/exchange/" + currency + "/max-min?quotations=" + quotations))
@@ -238,15 +327,13 @@ public class ExchangeRateControllerTest {
     }
 
     @Test
-    public void getMajorDifference_whenMapperThrowsException_shouldReturn500code() throws Exception {
+    public void getMajorDifference_whenClientThrowsException_shouldReturn500code() throws Exception {
         //Arrange
         String currency = "GBP";
         Integer quotations = 2;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
 
-        String responseBody = "Value needed for mock";
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willReturn(new ResponseEntity<>(responseBody, HttpStatusCode.valueOf(200)));
-        given(mapper.readValue(responseBody, TableDto.class)).willThrow(JsonProcessingException.class);
+        given(nbpClient.collectRates(eq(query), eq(MaxAndMinDto.class), any())).willThrow(IllegalStateException.class);
 
         //Act and Assert
         mvc.perform(get("/api/exchange/" + currency + "/max-min?quotations=" + quotations))
@@ -258,13 +345,8 @@ public class ExchangeRateControllerTest {
         //Arrange
         String currency = "GBP";
         Integer quotations = 2;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
-        TableDto tableDto = new TableDto();
-
-        String responseBody = "Value needed for mock";
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willReturn(new ResponseEntity<>(responseBody, HttpStatusCode.valueOf(200)));
-        given(mapper.readValue(responseBody, TableDto.class)).willReturn(tableDto);
-        given(service.computeMaxAndMinValue(tableDto)).willThrow(IllegalStateException.class);
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
+        given(nbpClient.collectRates(eq(query), eq(MaxAndMinDto.class), any())).willThrow(IllegalStateException.class);
 
         //Act and Assert
         mvc.perform(get("/api/exchange/" + currency + "/max-min?quotations=" + quotations))
@@ -276,24 +358,115 @@ public class ExchangeRateControllerTest {
         //Arrange
         String currency = "GBP";
         Integer quotations = 2;
-        String nbpUrl = getUrlWithQuotations(currency, quotations);
-        TableDto tableDto = new TableDto();
-
-        String responseBody = "Value needed for mock";
-        given(restTemplate.getForEntity(nbpUrl, String.class)).willReturn(new ResponseEntity<>(responseBody, HttpStatusCode.valueOf(200)));
-        given(mapper.readValue(responseBody, TableDto.class)).willReturn(tableDto);
-        given(service.computeMaxAndMinValue(tableDto)).willReturn(null);
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
+        given(nbpClient.collectRates(eq(query), eq(MaxAndMinDto.class), any())).willReturn(null);
 
         //Act and Assert
         mvc.perform(get("/api/exchange/" + currency + "/max-min?quotations=" + quotations))
                 .andExpect(status().is(500));
     }
 
-    private String getUrlWithDate(String currency, String date) {
-        return "http://api.nbp.pl/api/exchangerates/rates/A/" + currency + "/" + date + "/";
+    @Test
+    public void getStatistics_whenValidData_shouldReturnSelectedStatistics() throws Exception {
+        //Arrange
+        RateDto minRate = new RateDto(
+                "1/A/NBP/2012",
+                "2022-09-08",
+                null,
+                null,
+                new BigDecimal("1.6")
+        );
+        String currency = "GBP";
+        Integer quotations = 2;
+        NbpQuery query = getQueryWithQuotations(currency, quotations);
+        RateWindow window = RateWindow.builder(quotations).result();
+        given(nbpClient.collectRates(eq(query), eq(RateWindow.class), any())).willReturn(window);
+        given(service.computeStatistics(window, EnumSet.of(Statistic.MIN, Statistic.MEAN)))
+                .willReturn(new StatisticsDto(currency, null, minRate, null, new BigDecimal("1.7"), null, null, null));
+
+        //Act and Assert
+        mvc.perform(get("/api/exchange/" + currency + "/stats?quotations=" + quotations + "&metrics=min,mean"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code", is(currency)))
+                .andExpect(jsonPath("$.min.no", is(minRate.getNo())))
+                .andExpect(jsonPath("$.mean", is(1.7)))
+                .andExpect(jsonPath("$.max").doesNotExist())
+                .andExpect(jsonPath("$.count").doesNotExist());
+    }
+
+    @Test
+    public void getStatistics_whenUnknownMetric_shouldReturn400code() throws Exception {
+        //Arrange
+        String currency = "GBP";
+        Integer quotations = 2;
+
+        //Act and Assert
+        mvc.perform(get("/api/exchange/" + currency + "/stats?quotations=" + quotations + "&metrics=min,median"))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$", is("Metrics must be a comma separated list of: count, min, max, mean, variance, first, last")));
+    }
+
+    @Test
+    public void getStatistics_whenInvalidQuotations_shouldReturn400code() throws Exception {
+        //Arrange
+        String currency = "GBP";
+        Integer quotations = -2;
+
+        //Act and Assert
+        mvc.perform(get("/api/exchange/" + currency + "/stats?quotations=" + quotations))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$", is("Quotations must be a positive integer")));
+    }
+
+    @Test
+    public void getOhlc_whenValidData_shouldReturnBars() throws Exception {
+        //Arrange
+        String currency = "GBP";
+        LocalDate from = LocalDate.of(2023, 1, 1);
+        LocalDate to = LocalDate.of(2023, 4, 30);
+        SeriesRange range = new SeriesRange("C", "funt szterling", currency, RateSeries.EMPTY, 0, 0);
+        given(nbpClient.getRange("C", currency, from, to)).willReturn(range);
+        given(service.computeOhlc(range, Interval.MONTH)).willReturn(new OhlcDto("C", currency, "month", List.of(
+                new OhlcBarDto("2023-04-01", "2023-04-03", "2023-04-28", 19, new BigDecimal("5.3"),
+                        new BigDecimal("5.4"), new BigDecimal("5.1"), new BigDecimal("5.2"), null))));
+
+        //Act and Assert
+        mvc.perform(get("/api/exchange/" + currency + "/ohlc?interval=month&from=" + from + "&to=" + to + "&table=C"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.interval", is("month")))
+                .andExpect(jsonPath("$.bars[0].count", is(19)))
+                .andExpect(jsonPath("$.bars[0].close", is(5.2)))
+                .andExpect(jsonPath("$.bars[0].averageSpread").doesNotExist());
+    }
+
+    @Test
+    public void getOhlc_whenInvalidParameters_shouldReturn400code() throws Exception {
+        //Arrange
+        String url = "/api/exchange/GBP/ohlc";
+
+        //Act and Assert
+        mvc.perform(get(url + "?interval=day&from=2023-01-01&to=2023-04-30"))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$", is("Interval must be one of: week, month, year")));
+        mvc.perform(get(url + "?interval=week&from=2023-02-30&to=2023-04-30"))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$", is("Date must be in ISO-8601 standard")));
+        mvc.perform(get(url + "?interval=week&from=2023-04-30&to=2023-01-01"))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$", is("Date from must not be after date to")));
+        mvc.perform(get(url + "?interval=year&from=2003-01-01&to=2023-04-30"))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$", is("Date range must not exceed 3660 days")));
+        mvc.perform(get(url + "?interval=week&from=2023-01-01&to=2023-04-30&table=B"))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$", is("Table must be A or C")));
+    }
+
+    private NbpQuery getQueryWithDate(String currency, String date) {
+        return NbpQuery.forDate("A", currency, date);
     }
 
-    private String getUrlWithQuotations(String currency, Integer quotations) {
-        return "http://api.nbp.pl/api/exchangerates/rates/A/" + currency + "/last/" + quotations + "/";
+    private NbpQuery getQueryWithQuotations(String currency, Integer quotations) {
+        return NbpQuery.lastQuotations("A", currency, quotations);
     }
 }
@@ -0,0 +1,144 @@
+package org.example.unit.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.cache.NbpResponseCache;
+import org.example.client.NbpClient;
+import org.example.client.NbpQuery;
+import org.example.dto.RateDto;
+import org.example.dto.TableDto;
+import org.example.rate.RateWindow;
+import org.example.service.BuyAndSellRateService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class JfrEventsTest {
+    private static final String BODY = "{\"table\":\"A\",\"currency\":\"funt szterling\",\"code\":\"GBP\",\"rates\":"
+            + "[{\"no\":\"174/A/NBP/2022\",\"effectiveDate\":\"2022-09-08\",\"mid\":5.3742}]}";
+
+    @Autowired
+    private NbpClient client;
+
+    @Autowired
+    private BuyAndSellRateService buyAndSellRateService;
+
+    @Autowired
+    private NbpResponseCache cache;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @Before
+    public void setUp() {
+        cache.invalidateAll();
+    }
+
+    @Test
+    public void getRates_whenRecording_shouldEmitNbpCallEvent() throws IOException {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/rates/A/GBP/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willReturn(new ResponseEntity<>(BODY, HttpStatusCode.valueOf(200)));
+
+        //Act
+        List<RecordedEvent> events = record("org.example.NbpCall", () -> client.getRates(NbpQuery.forDate("A", "GBP", "2022-09-08")));
+
+        //Assert
+        assertThat(events, hasSize(1));
+        RecordedEvent event = events.get(0);
+        assertThat(event.getString("urlTemplate"), equalTo("rates/{table}/{code}/{date}/"));
+        assertThat(event.getString("table"), equalTo("A"));
+        assertThat(event.getString("currency"), equalTo("GBP"));
+        assertThat(event.getInt("status"), equalTo(200));
+        assertThat(event.getLong("bytes"), equalTo((long) BODY.getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    @Test
+    public void getRates_whenNbpReturns404_shouldEmitEventWithStatus() throws IOException {
+        //Arrange
+        String url = "http://api.nbp.pl/api/exchangerates/rates/A/XYZ/2022-09-08/";
+        given(restTemplate.getForEntity(url, String.class)).willThrow(new HttpClientErrorException(HttpStatusCode.valueOf(404)));
+
+        //Act
+        List<RecordedEvent> events = record("org.example.NbpCall", () -> assertThrows(HttpClientErrorException.class,
+                () -> client.getRates(NbpQuery.forDate("A", "XYZ", "2022-09-08"))));
+
+        //Assert
+        assertThat(events, hasSize(1));
+        assertThat(events.get(0).getInt("status"), equalTo(404));
+        assertThat(events.get(0).getLong("bytes"), equalTo(0L));
+    }
+
+    @Test
+    public void computeMajorDifference_whenRecording_shouldEmitRateComputationEvent() throws IOException {
+        //Arrange
+        RateWindow window = RateWindow.of(new TableDto("C", "funt szterling", "GBP", List.of(
+                new RateDto("174/C/NBP/2022", "2022-09-08", new BigDecimal("5.3"), new BigDecimal("5.4"), null),
+                new RateDto("175/C/NBP/2022", "2022-09-09", new BigDecimal("5.2"), new BigDecimal("5.5"), null))));
+
+        //Act
+        List<RecordedEvent> events = record("org.example.RateComputation", () -> buyAndSellRateService.computeMajorDifferenceOfWindow(window));
+
+        //Assert
+        assertThat(events, hasSize(1));
+        assertThat(events.get(0).getString("operation"), equalTo("majorDifference"));
+        assertThat(events.get(0).getString("table"), equalTo("C"));
+        assertThat(events.get(0).getString("currency"), equalTo("GBP"));
+        assertThat(events.get(0).getInt("windowSize"), equalTo(2));
+    }
+
+    @Test
+    public void computeMajorDifference_whenEventDisabled_shouldNotEmit() throws IOException {
+        //Arrange
+        RateWindow window = RateWindow.of(new TableDto("C", "funt szterling", "GBP", List.of(
+                new RateDto("174/C/NBP/2022", "2022-09-08", new BigDecimal("5.3"), new BigDecimal("5.4"), null))));
+
+        //Act
+        List<RecordedEvent> events = record("org.example.NbpCall", () -> buyAndSellRateService.computeMajorDifferenceOfWindow(window));
+
+        //Assert
+        assertThat(events.stream().filter(event -> event.getEventType().getName().equals("org.example.RateComputation")).toList(), hasSize(0));
+    }
+
+    private List<RecordedEvent> record(String eventName, Runnable action) throws IOException {
+        Path file = Files.createTempFile("nbp", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.disable("org.example.NbpCall");
+            recording.disable("org.example.RateComputation");
+            recording.enable(eventName);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("org.example."))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
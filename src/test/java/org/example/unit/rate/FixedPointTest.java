@@ -0,0 +1,77 @@
+package org.example.unit.rate;
+
+import org.example.rate.FixedPoint;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class FixedPointTest {
+
+    @Test
+    public void parse_whenPlainDecimal_shouldReturnScaledValueAndScale() {
+        //Arrange
+        int[] scale = new int[1];
+
+        //Act
+        long value = parse("5.1540", scale);
+
+        //Assert
+        assertThat(value, equalTo(515_400_000L));
+        assertThat(scale[0], equalTo(4));
+    }
+
+    @Test
+    public void parse_whenIntegerOrNegative_shouldReturnScaledValue() {
+        //Arrange
+        int[] scale = new int[1];
+
+        //Act and Assert
+        assertThat(parse("3", scale), equalTo(300_000_000L));
+        assertThat(scale[0], equalTo(0));
+        assertThat(parse("-0.000263", scale), equalTo(-26_300L));
+        assertThat(scale[0], equalTo(6));
+    }
+
+    @Test
+    public void parse_whenExponent_shouldFallBackToBigDecimal() {
+        //Arrange
+        int[] scale = new int[1];
+
+        //Act and Assert
+        assertThat(parse("1.5E-3", scale), equalTo(150_000L));
+        assertThat(scale[0], equalTo(4));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void parse_whenMoreDecimalsThanScale_shouldThrowException() {
+        parse("0.123456789", new int[1]);
+    }
+
+    @Test
+    public void toDecimal_shouldRestorePublishedScale() {
+        //Arrange
+        BigDecimal published = new BigDecimal("4.1650");
+
+        //Act
+        BigDecimal restored = FixedPoint.toDecimal(FixedPoint.toScaled(published), FixedPoint.scaleOf(published));
+
+        //Assert
+        assertThat(restored, equalTo(published));
+        assertThat(restored.toString(), equalTo("4.1650"));
+    }
+
+    @Test
+    public void toDecimal_whenAbsent_shouldReturnNull() {
+        assertThat(FixedPoint.toScaled(null), equalTo(FixedPoint.ABSENT));
+        assertThat(FixedPoint.toDecimal(FixedPoint.ABSENT, 4), nullValue());
+    }
+
+    private long parse(String text, int[] scale) {
+        char[] chars = ("[" + text + "]").toCharArray();
+        return FixedPoint.parse(chars, 1, text.length(), scale);
+    }
+}
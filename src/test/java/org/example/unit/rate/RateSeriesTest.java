@@ -0,0 +1,186 @@
+package org.example.unit.rate;
+
+import org.example.rate.FixedPoint;
+import org.example.rate.FixedPointRate;
+import org.example.rate.Interval;
+import org.example.rate.OhlcBar;
+import org.example.rate.RateSeries;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class RateSeriesTest {
+
+    @Test
+    public void merge_whenQuotationsAddedOutOfOrder_shouldKeepThemByDate() {
+        //Arrange
+        RateSeries series = RateSeries.EMPTY.merge(RateSeries.builder()
+                .add(LocalDate.of(2023, 4, 24), rate("079", 41649))
+                .add(LocalDate.of(2023, 4, 20), rate("077", 41900)));
+
+        //Act
+        RateSeries result = series.merge(RateSeries.builder()
+                .add(LocalDate.of(2023, 4, 21), rate("078", 41800))
+                .add(LocalDate.of(2023, 4, 24), rate("other", 1)));
+
+        //Assert
+        assertThat(result.size(), equalTo(3));
+        assertThat(result.date(0), equalTo(LocalDate.of(2023, 4, 20)));
+        assertThat(result.date(1), equalTo(LocalDate.of(2023, 4, 21)));
+        assertThat(result.rate(2).getNo(), equalTo("079"));
+        assertThat(result.rate(2).getMid().toPlainString(), equalTo("4.1649"));
+    }
+
+    @Test
+    public void merge_whenNothingNew_shouldReturnSameSeries() {
+        //Arrange
+        RateSeries series = RateSeries.EMPTY.merge(RateSeries.builder().add(LocalDate.of(2023, 4, 24), rate("079", 41649)));
+
+        //Act and Assert
+        assertThat(series.merge(RateSeries.builder().add(LocalDate.of(2023, 4, 24), rate("079", 41649))), sameInstance(series));
+    }
+
+    @Test
+    public void indexOf_whenDateMissing_shouldReturnMinusOneAndFloorIndexPreviousQuotation() {
+        //Arrange
+        RateSeries series = RateSeries.EMPTY.merge(RateSeries.builder()
+                .add(LocalDate.of(2023, 4, 21), rate("078", 41800))
+                .add(LocalDate.of(2023, 4, 24), rate("079", 41649)));
+
+        //Act and Assert
+        assertThat(series.indexOf(LocalDate.of(2023, 4, 24)), equalTo(1));
+        assertThat(series.indexOf(LocalDate.of(2023, 4, 22)), equalTo(-1));
+        assertThat(series.floorIndex(LocalDate.of(2023, 4, 23)), equalTo(0));
+        assertThat(series.floorIndex(LocalDate.of(2023, 4, 25)), equalTo(1));
+        assertThat(series.floorIndex(LocalDate.of(2023, 4, 20)), equalTo(-1));
+    }
+
+    @Test
+    public void maxAndMinMidIndex_whenAppendedDayByDay_shouldMatchScan() {
+        //Arrange
+        Random random = new Random(42);
+        RateSeries series = RateSeries.EMPTY;
+        List<RateSeries> versions = new ArrayList<>();
+        LocalDate date = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < 700; i++) {
+            series = series.merge(RateSeries.builder().add(date.plusDays(i), rate(String.valueOf(i), 40_000 + random.nextInt(50))));
+            versions.add(series);
+        }
+
+        //Act and Assert
+        for (int attempt = 0; attempt < 500; attempt++) {
+            RateSeries version = versions.get(random.nextInt(versions.size()));
+            int from = random.nextInt(version.size());
+            int to = from + random.nextInt(version.size() - from);
+            assertThat(version.maxMidIndex(from, to), equalTo(scan(version, from, to, true)));
+            assertThat(version.minMidIndex(from, to), equalTo(scan(version, from, to, false)));
+        }
+    }
+
+    @Test
+    public void maxSpreadIndex_shouldReturnFirstLargestDifference() {
+        //Arrange
+        RateSeries series = RateSeries.EMPTY.merge(RateSeries.builder()
+                .add(LocalDate.of(2023, 4, 20), spread(41000, 41500))
+                .add(LocalDate.of(2023, 4, 21), spread(41000, 42000))
+                .add(LocalDate.of(2023, 4, 24), spread(41500, 42500)));
+
+        //Act and Assert
+        assertThat(series.maxSpreadIndex(0, 2), equalTo(1));
+        assertThat(series.maxSpreadIndex(2, 2), equalTo(2));
+        assertThat(series.maxMidIndex(0, 2), equalTo(-1));
+    }
+
+    @Test
+    public void bars_whenAppendedDayByDay_shouldMatchScan() {
+        //Arrange
+        Random random = new Random(7);
+        RateSeries series = RateSeries.EMPTY;
+        List<RateSeries> versions = new ArrayList<>();
+        LocalDate date = LocalDate.of(2019, 12, 30);
+        for (int i = 0; i < 900; i++) {
+            long bid = 40_000 + random.nextInt(50);
+            series = series.merge(RateSeries.builder().add(date.plusDays(i), spread(bid, bid + random.nextInt(900))));
+            versions.add(series);
+        }
+
+        //Act and Assert
+        for (int attempt = 0; attempt < 300; attempt++) {
+            RateSeries version = versions.get(random.nextInt(versions.size()));
+            Interval interval = Interval.values()[random.nextInt(Interval.values().length)];
+            int from = random.nextInt(version.size());
+            int to = from + random.nextInt(version.size() - from);
+            OhlcBar[] bars = version.bars(interval, from, to);
+            assertThat(bars[0].first(), equalTo(from));
+            assertThat(bars[bars.length - 1].last(), equalTo(to));
+            for (int k = 0; k < bars.length; k++) {
+                OhlcBar bar = bars[k];
+                assertThat(bar.start(), equalTo(interval.start(version.date(bar.first()))));
+                assertThat(interval.start(version.date(bar.last())), equalTo(bar.start()));
+                if (k > 0) {
+                    assertThat(bar.first(), equalTo(bars[k - 1].last() + 1));
+                }
+                long spreadSum = 0;
+                int high = bar.first();
+                int low = bar.first();
+                for (int i = bar.first(); i <= bar.last(); i++) {
+                    spreadSum += version.spread(i);
+                    high = version.price(i) > version.price(high) ? i : high;
+                    low = version.price(i) < version.price(low) ? i : low;
+                }
+                assertThat(bar.high(), equalTo(high));
+                assertThat(bar.low(), equalTo(low));
+                assertThat(bar.spreadSum(), equalTo(spreadSum));
+                assertThat(bar.spreadCount(), equalTo(bar.count()));
+            }
+        }
+    }
+
+    @Test
+    public void priceDecimal_whenOnlyBidAndAsk_shouldReturnTheirMiddle() {
+        //Arrange
+        RateSeries series = RateSeries.EMPTY.merge(RateSeries.builder()
+                .add(LocalDate.of(2023, 4, 24), spread(51540, 52582))
+                .add(LocalDate.of(2023, 4, 25), spread(51540, 52583)));
+
+        //Act and Assert
+        assertThat(series.priceDecimal(0).toPlainString(), equalTo("5.2061"));
+        assertThat(series.priceDecimal(1).toPlainString(), equalTo("5.20615"));
+        assertThat(series.spread(1), equalTo(1043_0000L));
+    }
+
+    private static int scan(RateSeries series, int from, int to, boolean largest) {
+        int best = from;
+        for (int i = from + 1; i <= to; i++) {
+            if (largest ? series.mid(i) > series.mid(best) : series.mid(i) < series.mid(best)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static FixedPointRate spread(long bid, long ask) {
+        FixedPointRate rate = new FixedPointRate();
+        rate.setBid(bid * 10_000);
+        rate.setBidScale(4);
+        rate.setAsk(ask * 10_000);
+        rate.setAskScale(4);
+        return rate;
+    }
+
+    private static FixedPointRate rate(String no, long mid) {
+        FixedPointRate rate = new FixedPointRate();
+        rate.setNo(no);
+        rate.setMid(mid * 10_000);
+        rate.setMidScale(4);
+        rate.setBid(FixedPoint.ABSENT);
+        return rate;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.unit.rate;
+
+import org.example.rate.FixedPoint;
+import org.example.rate.RateStatistics;
+import org.example.rate.Statistic;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class RateStatisticsTest {
+
+    @Test
+    public void of_whenAllStatisticsSelected_shouldComputeThemInOneSweep() {
+        //Arrange
+        long[] values = scaled("4.0", "4.2", "4.1", "4.2", "4.0");
+
+        //Act
+        RateStatistics result = RateStatistics.of(values, values.length, EnumSet.allOf(Statistic.class));
+
+        //Assert
+        assertThat(result.getCount(), equalTo(5));
+        assertThat(result.getMinIndex(), equalTo(0));
+        assertThat(result.getMaxIndex(), equalTo(1));
+        assertThat(result.getFirstIndex(), equalTo(0));
+        assertThat(result.getLastIndex(), equalTo(4));
+        assertThat(result.getMean(), equalTo(new BigDecimal("4.10000000")));
+        assertThat(result.getVariance(), equalTo(new BigDecimal("0.00800000")));
+    }
+
+    @Test
+    public void of_whenOnlyMeanSelected_shouldSkipOtherStatistics() {
+        //Arrange
+        long[] values = scaled("1.5", "2.5", "0");
+
+        //Act
+        RateStatistics result = RateStatistics.of(values, 2, EnumSet.of(Statistic.MEAN));
+
+        //Assert
+        assertThat(result.getMean(), equalTo(new BigDecimal("2.00000000")));
+        assertThat(result.getMinIndex(), equalTo(-1));
+        assertThat(result.getMaxIndex(), equalTo(-1));
+        assertThat(result.getVariance(), nullValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void of_whenValueIsAbsent_shouldThrowException() {
+        long[] values = {FixedPoint.toScaled(BigDecimal.ONE), FixedPoint.ABSENT};
+
+        RateStatistics.of(values, values.length, EnumSet.of(Statistic.COUNT));
+    }
+
+    @Test
+    public void parse_whenMetricsBlank_shouldSelectAllStatistics() {
+        assertThat(Statistic.parse(null), equalTo(EnumSet.allOf(Statistic.class)));
+        assertThat(Statistic.parse(""), equalTo(EnumSet.allOf(Statistic.class)));
+    }
+
+    @Test
+    public void parse_whenMetricsListed_shouldSelectThem() {
+        Set<Statistic> result = Statistic.parse("max, MIN,mean");
+
+        assertThat(result, contains(Statistic.MIN, Statistic.MAX, Statistic.MEAN));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_whenMetricUnknown_shouldThrowException() {
+        Statistic.parse("min,median");
+    }
+
+    private long[] scaled(String... values) {
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = FixedPoint.toScaled(new BigDecimal(values[i]));
+        }
+        return result;
+    }
+}
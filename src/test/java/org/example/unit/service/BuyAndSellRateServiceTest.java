@@ -3,6 +3,10 @@ package org.example.unit.service;
 import org.example.dto.DifferenceDto;
 import org.example.dto.RateDto;
 import org.example.dto.TableDto;
+import org.example.rate.FixedPointRate;
+import org.example.rate.RateSeries;
+import org.example.rate.RateWindow;
+import org.example.rate.SeriesRange;
 import org.example.service.BuyAndSellRateService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,8 +15,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.comparesEqualTo;
@@ -181,4 +188,88 @@ public class BuyAndSellRateServiceTest {
         //Act
         service.computeMajorDifference(tableDto);
     }
+
+    @Test
+    public void computeMajorDifferenceOfWindow_shouldMatchTableComputation() {
+        //Arrange
+        Random random = new Random(42);
+        for (int attempt = 0; attempt < 50; attempt++) {
+            List<RateDto> rates = IntStream.range(0, 1 + random.nextInt(255))
+                    .mapToObj(i -> new RateDto(
+                            i + "/C/NBP/2023",
+                            "2023-01-01",
+                            BigDecimal.valueOf(40_000 + random.nextInt(20), 4),
+                            BigDecimal.valueOf(4_100 + random.nextInt(5), 3),
+                            null
+                    ))
+                    .toList();
+            TableDto tableDto = new TableDto("C", "funt szterling", "GBP", rates);
+
+            //Act
+            DifferenceDto expected = service.computeMajorDifference(tableDto);
+            DifferenceDto result = service.computeMajorDifferenceOfWindow(RateWindow.of(tableDto));
+
+            //Assert
+            assertThat(result.getDifference(), equalTo(expected.getDifference()));
+            assertThat(result.getRate().getNo(), equalTo(expected.getRate().getNo()));
+            assertThat(result.getRate().getAsk(), equalTo(expected.getRate().getAsk()));
+            assertThat(result.getRate().getBid(), equalTo(expected.getRate().getBid()));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void computeMajorDifferenceOfWindow_whenAskIsNull_shouldThrowException() {
+        //Arrange
+        RateDto rate = new RateDto("1/C/NBP/2023", "2023-01-02", new BigDecimal("4.1"), null, null);
+        TableDto tableDto = new TableDto("C", "funt szterling", "GBP", List.of(rate));
+
+        //Act
+        service.computeMajorDifferenceOfWindow(RateWindow.of(tableDto));
+    }
+
+    @Test
+    public void computeMajorDifferenceOfRange_shouldMatchWindowComputation() {
+        //Arrange
+        Random random = new Random(7);
+        LocalDate first = LocalDate.of(2020, 1, 1);
+        List<RateDto> rates = IntStream.range(0, 600)
+                .mapToObj(i -> new RateDto(
+                        i + "/C/NBP/2020",
+                        first.plusDays(i).toString(),
+                        BigDecimal.valueOf(40_000 + random.nextInt(20), 4),
+                        BigDecimal.valueOf(4_100 + random.nextInt(5), 3),
+                        null
+                ))
+                .toList();
+        RateSeries series = RateSeries.EMPTY;
+        for (int i = 0; i < rates.size(); i += 100) {
+            series = series.merge(builder(rates.subList(i, i + 100)));
+        }
+
+        for (int attempt = 0; attempt < 50; attempt++) {
+            int from = random.nextInt(rates.size());
+            int to = from + random.nextInt(rates.size() - from);
+            TableDto tableDto = new TableDto("C", "funt szterling", "GBP", rates.subList(from, to + 1));
+
+            //Act
+            DifferenceDto expected = service.computeMajorDifferenceOfWindow(RateWindow.of(tableDto));
+            DifferenceDto result = service.computeMajorDifferenceOfRange(new SeriesRange("C", "funt szterling", "GBP", series, from, to));
+
+            //Assert
+            assertThat(result.getDifference(), equalTo(expected.getDifference()));
+            assertThat(result.getRate().getNo(), equalTo(expected.getRate().getNo()));
+            assertThat(result.getRate().getEffectiveDate(), equalTo(expected.getRate().getEffectiveDate()));
+        }
+    }
+
+    private static RateSeries.Builder builder(List<RateDto> rates) {
+        RateWindow window = RateWindow.of(new TableDto("C", "funt szterling", "GBP", rates));
+        RateSeries.Builder builder = RateSeries.builder();
+        for (int i = 0; i < window.getSize(); i++) {
+            FixedPointRate rate = new FixedPointRate();
+            window.copyTo(i, rate);
+            builder.add(LocalDate.parse(rate.getEffectiveDate()), rate);
+        }
+        return builder;
+    }
 }
@@ -1,8 +1,17 @@
 package org.example.unit.service;
 
 import org.example.dto.MaxAndMinDto;
+import org.example.dto.OhlcBarDto;
+import org.example.dto.OhlcDto;
 import org.example.dto.RateDto;
+import org.example.dto.StatisticsDto;
 import org.example.dto.TableDto;
+import org.example.rate.FixedPointRate;
+import org.example.rate.Interval;
+import org.example.rate.RateSeries;
+import org.example.rate.RateWindow;
+import org.example.rate.SeriesRange;
+import org.example.rate.Statistic;
 import org.example.service.ExchangeRateService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,11 +20,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -148,4 +162,164 @@ public class ExchangeRateServiceTest {
         //Act
         service.computeMaxAndMinValue(tableDto);
     }
+
+    @Test
+    public void computeMaxAndMinValueOfWindow_shouldMatchTableComputation() {
+        //Arrange
+        Random random = new Random(42);
+        for (int attempt = 0; attempt < 50; attempt++) {
+            List<RateDto> rates = IntStream.range(0, 1 + random.nextInt(255))
+                    .mapToObj(i -> new RateDto(
+                            i + "/A/NBP/2023",
+                            "2023-01-01",
+                            null,
+                            null,
+                            BigDecimal.valueOf(40_000 + random.nextInt(20), 4)
+                    ))
+                    .toList();
+            TableDto tableDto = new TableDto("A", "funt szterling", "GBP", rates);
+
+            //Act
+            MaxAndMinDto expected = service.computeMaxAndMinValue(tableDto);
+            MaxAndMinDto result = service.computeMaxAndMinValueOfWindow(RateWindow.of(tableDto));
+
+            //Assert
+            assertThat(result.getMaxRate().getNo(), equalTo(expected.getMaxRate().getNo()));
+            assertThat(result.getMaxRate().getMid(), equalTo(expected.getMaxRate().getMid()));
+            assertThat(result.getMinRate().getNo(), equalTo(expected.getMinRate().getNo()));
+            assertThat(result.getMinRate().getMid(), equalTo(expected.getMinRate().getMid()));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void computeMaxAndMinValueOfWindow_whenMidIsNull_shouldThrowException() {
+        //Arrange
+        RateDto rate = new RateDto("1/A/NBP/2023", "2023-01-02", null, null, null);
+        TableDto tableDto = new TableDto("A", "funt szterling", "GBP", List.of(rate));
+
+        //Act
+        service.computeMaxAndMinValueOfWindow(RateWindow.of(tableDto));
+    }
+
+    @Test
+    public void computeStatistics_shouldReturnOnlySelectedStatistics() {
+        //Arrange
+        RateDto firstRate = new RateDto("1/A/NBP/2023", "2023-01-02", null, null, new BigDecimal("4.2000"));
+        RateDto secondRate = new RateDto("2/A/NBP/2023", "2023-01-03", null, null, new BigDecimal("4.1000"));
+        RateDto thirdRate = new RateDto("3/A/NBP/2023", "2023-01-04", null, null, new BigDecimal("4.3000"));
+        TableDto tableDto = new TableDto("A", "funt szterling", "GBP", List.of(firstRate, secondRate, thirdRate));
+
+        //Act
+        StatisticsDto result = service.computeStatistics(RateWindow.of(tableDto), EnumSet.of(Statistic.MIN, Statistic.MEAN, Statistic.LAST));
+
+        //Assert
+        assertThat(result.getCode(), equalTo("GBP"));
+        assertThat(result.getMin().getNo(), equalTo(secondRate.getNo()));
+        assertThat(result.getMin().getMid(), equalTo(secondRate.getMid()));
+        assertThat(result.getMean(), equalTo(new BigDecimal("4.20000000")));
+        assertThat(result.getLast().getNo(), equalTo(thirdRate.getNo()));
+        assertThat(result.getCount(), nullValue());
+        assertThat(result.getMax(), nullValue());
+        assertThat(result.getVariance(), nullValue());
+        assertThat(result.getFirst(), nullValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void computeStatistics_whenTableIsNotA_shouldThrowException() {
+        //Arrange
+        RateDto rate = new RateDto("1/C/NBP/2023", "2023-01-02", new BigDecimal("4.1"), new BigDecimal("4.2"), null);
+        TableDto tableDto = new TableDto("C", "funt szterling", "GBP", List.of(rate));
+
+        //Act
+        service.computeStatistics(RateWindow.of(tableDto), EnumSet.allOf(Statistic.class));
+    }
+
+    @Test
+    public void computeMaxAndMinValueOfRange_shouldMatchWindowComputation() {
+        //Arrange
+        Random random = new Random(7);
+        LocalDate first = LocalDate.of(2020, 1, 1);
+        List<RateDto> rates = IntStream.range(0, 600)
+                .mapToObj(i -> new RateDto(
+                        i + "/A/NBP/2020",
+                        first.plusDays(i).toString(),
+                        null,
+                        null,
+                        BigDecimal.valueOf(40_000 + random.nextInt(20), 4)
+                ))
+                .toList();
+        RateSeries series = RateSeries.EMPTY;
+        for (int i = 0; i < rates.size(); i += 100) {
+            series = series.merge(builder(rates.subList(i, i + 100)));
+        }
+
+        for (int attempt = 0; attempt < 50; attempt++) {
+            int from = random.nextInt(rates.size());
+            int to = from + random.nextInt(rates.size() - from);
+            TableDto tableDto = new TableDto("A", "funt szterling", "GBP", rates.subList(from, to + 1));
+
+            //Act
+            MaxAndMinDto expected = service.computeMaxAndMinValueOfWindow(RateWindow.of(tableDto));
+            MaxAndMinDto result = service.computeMaxAndMinValueOfRange(new SeriesRange("A", "funt szterling", "GBP", series, from, to));
+
+            //Assert
+            assertThat(result.getMaxRate().getNo(), equalTo(expected.getMaxRate().getNo()));
+            assertThat(result.getMaxRate().getMid(), equalTo(expected.getMaxRate().getMid()));
+            assertThat(result.getMinRate().getNo(), equalTo(expected.getMinRate().getNo()));
+            assertThat(result.getMinRate().getMid(), equalTo(expected.getMinRate().getMid()));
+        }
+    }
+
+    @Test
+    public void computeOhlc_whenTableC_shouldUseMiddleOfBidAndAsk() {
+        //Arrange
+        List<RateDto> rates = List.of(
+                new RateDto("077/C/NBP/2023", "2023-04-20", new BigDecimal("5.1000"), new BigDecimal("5.2000"), null),
+                new RateDto("078/C/NBP/2023", "2023-04-21", new BigDecimal("5.2000"), new BigDecimal("5.3000"), null),
+                new RateDto("079/C/NBP/2023", "2023-04-24", new BigDecimal("5.1540"), new BigDecimal("5.2582"), null),
+                new RateDto("080/C/NBP/2023", "2023-04-25", new BigDecimal("5.0000"), new BigDecimal("5.1000"), null));
+        RateSeries series = RateSeries.EMPTY.merge(builder(rates));
+
+        //Act
+        OhlcDto result = service.computeOhlc(new SeriesRange("C", "funt szterling", "GBP", series, 0, 3), Interval.WEEK);
+
+        //Assert
+        assertThat(result.getInterval(), equalTo("week"));
+        assertThat(result.getBars().size(), equalTo(2));
+        OhlcBarDto first = result.getBars().get(0);
+        assertThat(first.getStart(), equalTo("2023-04-17"));
+        assertThat(first.getCount(), equalTo(2));
+        assertThat(first.getOpen().toPlainString(), equalTo("5.1500"));
+        assertThat(first.getHigh().toPlainString(), equalTo("5.2500"));
+        assertThat(first.getClose().toPlainString(), equalTo("5.2500"));
+        assertThat(first.getAverageSpread().toPlainString(), equalTo("0.1000"));
+        OhlcBarDto second = result.getBars().get(1);
+        assertThat(second.getFrom(), equalTo("2023-04-24"));
+        assertThat(second.getHigh().toPlainString(), equalTo("5.2061"));
+        assertThat(second.getLow().toPlainString(), equalTo("5.0500"));
+        assertThat(second.getAverageSpread().toPlainString(), equalTo("0.1021"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void computeOhlc_whenPriceIsMissing_shouldThrowException() {
+        //Arrange
+        List<RateDto> rates = List.of(
+                new RateDto("077/C/NBP/2023", "2023-04-20", new BigDecimal("5.1000"), new BigDecimal("5.2000"), null),
+                new RateDto("078/C/NBP/2023", "2023-04-21", new BigDecimal("5.2000"), null, null));
+        RateSeries series = RateSeries.EMPTY.merge(builder(rates));
+
+        //Act
+        service.computeOhlc(new SeriesRange("C", "funt szterling", "GBP", series, 0, 1), Interval.MONTH);
+    }
+
+    private static RateSeries.Builder builder(List<RateDto> rates) {
+        RateWindow window = RateWindow.of(new TableDto("A", "funt szterling", "GBP", rates));
+        RateSeries.Builder builder = RateSeries.builder();
+        for (int i = 0; i < window.getSize(); i++) {
+            FixedPointRate rate = new FixedPointRate();
+            window.copyTo(i, rate);
+            builder.add(LocalDate.parse(rate.getEffectiveDate()), rate);
+        }
+        return builder;
+    }
 }
@@ -0,0 +1,254 @@
+package org.example.unit.store;
+
+import org.example.client.NbpTable;
+import org.example.dto.RateDto;
+import org.example.dto.TableDto;
+import org.example.rate.RateWindow;
+import org.example.rate.SeriesRange;
+import org.example.store.RateStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class RateStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private RateStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        store = new RateStore(folder.getRoot().toPath());
+        store.open();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    public void get_afterReopen_shouldReturnStoredQuotation() throws IOException {
+        //Arrange
+        store.ingest(rates("2023-04-24", "4.1649"));
+
+        //Act
+        reopen();
+        TableDto result = store.get("A", "USD", "2023-04-24");
+
+        //Assert
+        assertThat(result.getCurrency(), equalTo("dolar amerykański"));
+        assertThat(result.getRates().get(0).getNo(), equalTo("no-2023-04-24"));
+        assertThat(result.getRates().get(0).getMid().toPlainString(), equalTo("4.1649"));
+        assertThat(store.get("A", "USD", "2023-04-25"), nullValue());
+        assertThat(store.size(), equalTo(1L));
+    }
+
+    @Test
+    public void open_whenLastLineIsCutShort_shouldDropIt() throws IOException {
+        //Arrange
+        store.ingest(rates("2023-04-24", "4.1649"));
+        store.close();
+        Files.write(folder.getRoot().toPath().resolve("A.tsv"), "Q\tUSD\tdolar amerykański\tno\t2023-04-2".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        //Act
+        store = new RateStore(folder.getRoot().toPath());
+        store.open();
+        store.ingest(rates("2023-04-25", "4.1700"));
+        reopen();
+
+        //Assert
+        assertThat(store.get("A", "USD", "2023-04-24").getRates().get(0).getMid(), comparesEqualTo(new BigDecimal("4.1649")));
+        assertThat(store.get("A", "USD", "2023-04-25").getRates().get(0).getMid(), comparesEqualTo(new BigDecimal("4.1700")));
+        assertThat(store.size(), equalTo(2L));
+    }
+
+    @Test
+    public void open_whenQuotationLineIsDamaged_shouldDropItAndLaterRanges() throws IOException {
+        //Arrange
+        store.ingest(RateWindow.of(rates("2023-04-20", "4.1")), LocalDate.of(2023, 4, 20), LocalDate.of(2023, 4, 20));
+        store.ingest(RateWindow.of(rates("2023-04-21", "4.2", "2023-04-24", "4.3")),
+                LocalDate.of(2023, 4, 21), LocalDate.of(2023, 4, 24));
+        store.close();
+        var file = folder.getRoot().toPath().resolve("A.tsv");
+        Files.writeString(file, Files.readString(file).replace("\t4.2\n", "\tx.2\n"));
+
+        //Act
+        store = new RateStore(folder.getRoot().toPath());
+        store.open();
+
+        //Assert
+        assertThat(store.getReplayErrors(), equalTo(1L));
+        assertThat(store.get("A", "USD", "2023-04-20").getRates().get(0).getMid().toPlainString(), equalTo("4.1"));
+        assertThat(store.get("A", "USD", "2023-04-21"), nullValue());
+        assertThat(store.collectLast("A", "USD", 2, LocalDate.of(2023, 4, 24), RateWindow.collector(window -> window)), nullValue());
+        assertThat(store.missing("A", "USD", LocalDate.of(2023, 4, 20), LocalDate.of(2023, 4, 24)),
+                equalTo(Map.of(LocalDate.of(2023, 4, 21), LocalDate.of(2023, 4, 24))));
+    }
+
+    @Test
+    public void collectLast_whenCompleteRangeReachesLatestTable_shouldReturnLastQuotations() throws IOException {
+        //Arrange
+        store.ingest(RateWindow.of(rates("2023-04-20", "4.1", "2023-04-21", "4.2", "2023-04-24", "4.3")),
+                LocalDate.of(2023, 4, 20), LocalDate.of(2023, 4, 24));
+        reopen();
+
+        //Act
+        RateWindow result = store.collectLast("A", "USD", 2, LocalDate.of(2023, 4, 24), RateWindow.collector(window -> window));
+
+        //Assert
+        assertThat(result.getSize(), equalTo(2));
+        assertThat(result.getEffectiveDate()[0], equalTo("2023-04-21"));
+        assertThat(result.getEffectiveDate()[1], equalTo("2023-04-24"));
+        assertThat(result.rate(1).getMid().toPlainString(), equalTo("4.3"));
+    }
+
+    @Test
+    public void collectLast_whenCollectorComputesRanges_shouldHandOverStoredRange() {
+        //Arrange
+        store.ingest(RateWindow.of(rates("2023-04-20", "4.1", "2023-04-21", "4.2", "2023-04-24", "4.3")),
+                LocalDate.of(2023, 4, 20), LocalDate.of(2023, 4, 24));
+
+        //Act
+        SeriesRange result = store.collectLast("A", "USD", 2, LocalDate.of(2023, 4, 24),
+                RateWindow.collector(window -> null, range -> range));
+
+        //Assert
+        assertThat(result.code(), equalTo("USD"));
+        assertThat(result.from(), equalTo(1));
+        assertThat(result.to(), equalTo(2));
+        assertThat(result.series().rate(result.to()).getMid().toPlainString(), equalTo("4.3"));
+    }
+
+    @Test
+    public void collectLast_whenRangeIsIncomplete_shouldReturnNull() {
+        //Arrange
+        store.ingest(RateWindow.of(rates("2023-04-20", "4.1", "2023-04-21", "4.2")),
+                LocalDate.of(2023, 4, 20), LocalDate.of(2023, 4, 21));
+        store.ingest(rates("2023-04-25", "4.4"));
+
+        //Act and Assert
+        assertThat(store.collectLast("A", "USD", 2, LocalDate.of(2023, 4, 24), RateWindow.collector(window -> window)), nullValue());
+        assertThat(store.collectLast("A", "USD", 3, LocalDate.of(2023, 4, 21), RateWindow.collector(window -> window)), nullValue());
+        assertThat(store.collectLast("A", "USD", 2, LocalDate.of(2023, 4, 21), RateWindow.collector(window -> window)).getSize(),
+                equalTo(2));
+    }
+
+    @Test
+    public void missing_whenDaysStoredOneByOne_shouldJoinThemAcrossWeekend() {
+        //Arrange
+        store.ingest(rates("2023-04-20", "4.1"));
+        store.ingest(rates("2023-04-21", "4.2"));
+        store.ingest(rates("2023-04-24", "4.3"));
+        store.ingest(rates("2023-04-26", "4.5"));
+
+        //Act
+        Map<LocalDate, LocalDate> result = store.missing("A", "USD", LocalDate.of(2023, 4, 15), LocalDate.of(2023, 4, 30));
+
+        //Assert
+        assertThat(result, equalTo(Map.of(
+                LocalDate.of(2023, 4, 15), LocalDate.of(2023, 4, 19),
+                LocalDate.of(2023, 4, 25), LocalDate.of(2023, 4, 25),
+                LocalDate.of(2023, 4, 27), LocalDate.of(2023, 4, 30))));
+        assertThat(store.missing("A", "USD", LocalDate.of(2023, 4, 20), LocalDate.of(2023, 4, 24)).isEmpty(), equalTo(true));
+        assertThat(store.missing("A", "USD", LocalDate.of(2023, 4, 22), LocalDate.of(2023, 4, 23)).isEmpty(), equalTo(true));
+        assertThat(store.range("A", "USD", LocalDate.of(2023, 4, 22), LocalDate.of(2023, 4, 25)).size(), equalTo(1));
+    }
+
+    @Test
+    public void getTable_whenWholeTableStored_shouldReturnEveryCurrency() throws IOException {
+        //Arrange
+        TableDto eur = new TableDto("A", "euro", "EUR", List.of(new RateDto("078/A/NBP/2023", "2023-04-24", null, null, new BigDecimal("4.5889"))));
+        store.ingestTable("A", "2023-04-24", NbpTable.of("2023-04-24", List.of(rates("2023-04-24", "4.1649"), eur)));
+        store.ingest(rates("2023-04-25", "4.1700"));
+
+        //Act
+        reopen();
+        NbpTable result = store.getTable("A", "2023-04-24");
+
+        //Assert
+        assertThat(result.size(), equalTo(2));
+        assertThat(result.get("EUR").getRates().get(0).getMid().toPlainString(), equalTo("4.5889"));
+        assertThat(store.getTable("A", "2023-04-25"), nullValue());
+    }
+
+    @Test
+    public void get_whileAnotherThreadAppends_shouldAlwaysSeeWholeQuotations() throws Exception {
+        //Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        LocalDate first = LocalDate.of(2020, 1, 1);
+        List<Future<Integer>> readers = new ArrayList<>();
+
+        //Act
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < 500; i++) {
+                store.ingest(rates(first.plusDays(i).toString(), "4." + i));
+            }
+            writing.set(false);
+        });
+        for (int r = 0; r < 3; r++) {
+            readers.add(executor.submit(() -> {
+                int found = 0;
+                while (writing.get()) {
+                    for (int i = 0; i < 500; i += 7) {
+                        TableDto result = store.get("A", "USD", first.plusDays(i).toString());
+                        if (result != null) {
+                            assertThat(result.getRates().get(0).getMid().toPlainString(), equalTo("4." + i));
+                            found++;
+                        }
+                    }
+                }
+                return found;
+            }));
+        }
+        writer.get(30, TimeUnit.SECONDS);
+        for (Future<Integer> reader : readers) {
+            reader.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        reopen();
+
+        //Assert
+        assertThat(store.size(), equalTo(500L));
+        assertThat(store.get("A", "USD", first.plusDays(499).toString()).getRates().get(0).getMid().toPlainString(), equalTo("4.499"));
+    }
+
+    private void reopen() throws IOException {
+        store.close();
+        store = new RateStore(folder.getRoot().toPath());
+        store.open();
+    }
+
+    private static TableDto rates(String... datesAndMids) {
+        List<RateDto> rates = new ArrayList<>();
+        for (int i = 0; i < datesAndMids.length; i += 2) {
+            rates.add(new RateDto("no-" + datesAndMids[i], datesAndMids[i], null, null, new BigDecimal(datesAndMids[i + 1])));
+        }
+        return new TableDto("A", "dolar amerykański", "USD", rates);
+    }
+}
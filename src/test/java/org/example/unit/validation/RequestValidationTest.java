@@ -0,0 +1,91 @@
+package org.example.unit.validation;
+
+import org.example.validation.RequestValidation;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class RequestValidationTest {
+
+    @Test
+    public void isCurrency_whenIsoCode_shouldReturnTrue() {
+        //Act and Assert
+        assertThat(RequestValidation.isCurrency("USD"), is(true));
+        assertThat(RequestValidation.isCurrency("PLN"), is(true));
+        assertThat(RequestValidation.isCurrency("XDR"), is(true));
+    }
+
+    @Test
+    public void isCurrency_whenNotIsoCode_shouldReturnFalse() {
+        //Act and Assert
+        assertThat(RequestValidation.isCurrency("XYZ"), is(false));
+        assertThat(RequestValidation.isCurrency("usd"), is(false));
+        assertThat(RequestValidation.isCurrency("US"), is(false));
+        assertThat(RequestValidation.isCurrency("USDD"), is(false));
+        assertThat(RequestValidation.isCurrency("U$D"), is(false));
+        assertThat(RequestValidation.isCurrency(""), is(false));
+    }
+
+    @Test
+    public void parseDate_whenIsoDate_shouldReturnDate() {
+        //Act and Assert
+        assertThat(RequestValidation.parseDate("2022-09-08"), equalTo(LocalDate.of(2022, 9, 8)));
+        assertThat(RequestValidation.parseDate("2024-02-29"), equalTo(LocalDate.of(2024, 2, 29)));
+    }
+
+    @Test
+    public void parseDate_whenNotIsoDateOrNoSuchDay_shouldReturnNull() {
+        //Act and Assert
+        assertThat(RequestValidation.parseDate("2022-9-08"), nullValue());
+        assertThat(RequestValidation.parseDate("2022/09/08"), nullValue());
+        assertThat(RequestValidation.parseDate("08-09-2022"), nullValue());
+        assertThat(RequestValidation.parseDate("2022-13-01"), nullValue());
+        assertThat(RequestValidation.parseDate("2022-00-10"), nullValue());
+        assertThat(RequestValidation.parseDate("2023-02-29"), nullValue());
+        assertThat(RequestValidation.parseDate("2022-04-31"), nullValue());
+        assertThat(RequestValidation.parseDate("2022-09-+8"), nullValue());
+    }
+
+    @Test
+    public void parseQuotations_shouldAcceptOneToNineDigits() {
+        //Act and Assert
+        assertThat(RequestValidation.parseQuotations("10"), equalTo(10));
+        assertThat(RequestValidation.parseQuotations("0"), equalTo(0));
+        assertThat(RequestValidation.parseQuotations("999999999"), equalTo(999999999));
+        assertThat(RequestValidation.parseQuotations("1000000000"), equalTo(-1));
+        assertThat(RequestValidation.parseQuotations("-5"), equalTo(-1));
+        assertThat(RequestValidation.parseQuotations("1e3"), equalTo(-1));
+        assertThat(RequestValidation.parseQuotations(""), equalTo(-1));
+    }
+
+    @Test
+    public void checkQuotations_shouldReturnFirstFailingCheck() {
+        //Act and Assert
+        assertThat(RequestValidation.checkQuotations("XYZ", "abc", 255), equalTo(RequestValidation.INVALID_CURRENCY));
+        assertThat(RequestValidation.checkQuotations("USD", "abc", 255), equalTo(RequestValidation.INVALID_QUOTATIONS));
+        assertThat(RequestValidation.checkQuotations("USD", "256", 255), equalTo("Quotations must not exceed 255"));
+        assertThat(RequestValidation.checkQuotations("USD", "255", 255), nullValue());
+    }
+
+    @Test
+    public void check_whenRequiredParameterMissing_shouldPass() {
+        //Act and Assert
+        assertThat(RequestValidation.checkQuotations("XYZ", null, 255), nullValue());
+        assertThat(RequestValidation.checkRates("2022-02-30", null, null), nullValue());
+        assertThat(RequestValidation.checkOhlc("XYZ", null, "week", "2022-01-01", null, 366), nullValue());
+    }
+
+    @Test
+    public void checkOhlc_shouldReturnFirstFailingCheck() {
+        //Act and Assert
+        assertThat(RequestValidation.checkOhlc("USD", "B", "day", "x", "y", 366), equalTo(RequestValidation.INVALID_TABLE));
+        assertThat(RequestValidation.checkOhlc("USD", null, "week", "2022-02-01", "2022-01-01", 366), equalTo(RequestValidation.INVALID_RANGE));
+        assertThat(RequestValidation.checkOhlc("USD", "C", "week", "2022-01-01", "2023-01-02", 366), equalTo("Date range must not exceed 366 days"));
+        assertThat(RequestValidation.checkOhlc("USD", "C", "week", "2022-01-01", "2023-01-01", 366), nullValue());
+    }
+}